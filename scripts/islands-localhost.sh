@@ -0,0 +1,61 @@
+#!/bin/bash
+# Smoke test of the island model: one coordinator and several worker processes on localhost.
+#
+# usage: [CLASSES=compiled classes] scripts/islands-localhost.sh [input file] [number of workers] [port]
+# Runs the islands on the input (data/test-matrix-0.csv by default) and checks that every process succeeds and
+# that the coordinator writes the merged solutions. Without CLASSES, the sources are compiled in a temporary
+# directory (JDK 8, as for the project).
+
+set -u
+cd "$(dirname "$0")/.."
+
+INPUT=${1:-data/test-matrix-0.csv}
+WORKERS=${2:-3}
+PORT=${3:-7070}
+SOLVER_OPTIONS="-p 40 -n 40 --migrationInterval 5 --migrants 2"
+
+WORK=$(mktemp -d)
+trap 'kill $(jobs -p) 2>/dev/null; rm -rf "$WORK"' EXIT
+if [ -z "${CLASSES:-}" ]; then
+    CLASSES="$WORK/classes"
+    mkdir "$CLASSES"
+    javac -nowarn -cp "libs/JSAP-2.1.jar:libs/opencsv-3.7.jar" -d "$CLASSES" $(find src -name "*.java") || exit 1
+fi
+CLASSPATH="$CLASSES:libs/JSAP-2.1.jar:libs/opencsv-3.7.jar"
+
+java -cp "$CLASSPATH" kcliquesolver.convenience.KCliqueSolver -i "$INPUT" \
+    --coordinator "$PORT" --workers "$WORKERS" -o "$WORK/merged.csv" 2> "$WORK/coordinator.err" &
+COORDINATOR=$!
+
+# a worker retries until the coordinator listens
+run_worker() {
+    for attempt in $(seq 20); do
+        if java -cp "$CLASSPATH" kcliquesolver.convenience.KCliqueSolver -i "$INPUT" \
+                --worker "localhost:$PORT" $SOLVER_OPTIONS 2> "$WORK/worker$1.err"; then
+            return 0
+        fi
+        grep -q "Connection refused" "$WORK/worker$1.err" || return 1
+        sleep 0.5
+    done
+    return 1
+}
+
+PIDS=""
+for index in $(seq "$WORKERS"); do
+    run_worker "$index" &
+    PIDS="$PIDS $!"
+done
+
+STATUS=0
+for pid in $PIDS; do
+    wait "$pid" || STATUS=1
+done
+wait "$COORDINATOR" || STATUS=1
+
+if [ $STATUS -ne 0 ] || [ ! -s "$WORK/merged.csv" ]; then
+    echo "FAILED" >&2
+    cat "$WORK"/*.err >&2
+    exit 1
+fi
+echo "OK: $WORKERS islands, merged solutions:"
+cat "$WORK/merged.csv"
@@ -1,15 +1,41 @@
 package kcliquesolver.convenience;
 
 import com.martiansoftware.jsap.*;
+import kcliquesolver.core.benchmark.BenchmarkSuite;
+import kcliquesolver.core.benchmark.InstanceGenerator;
+import kcliquesolver.core.distances.BlockedDistances;
+import kcliquesolver.core.distances.CosineMetric;
+import kcliquesolver.core.distances.EuclideanMetric;
+import kcliquesolver.core.distances.Metric;
+import kcliquesolver.core.distributed.IslandCoordinator;
+import kcliquesolver.core.distributed.IslandWorker;
 import kcliquesolver.core.io.Readers;
+import kcliquesolver.core.io.SolutionWriter;
+import kcliquesolver.core.io.Writers;
 import kcliquesolver.core.models.Problem;
+import kcliquesolver.core.models.Range;
 import kcliquesolver.core.models.Solution;
+import kcliquesolver.core.rng.RngStream;
+import kcliquesolver.core.rng.StreamSeeds;
+import kcliquesolver.core.solvers.DecompositionSolver;
 import kcliquesolver.core.solvers.HybridGeneticAlgorithm;
-
-import java.io.BufferedWriter;
+import kcliquesolver.core.solvers.LocalSearch;
+import kcliquesolver.core.solvers.MultilevelSolver;
+import kcliquesolver.core.solvers.Recombination;
+import kcliquesolver.core.solvers.SolverStatistics;
+import kcliquesolver.core.solvers.WarmStart;
+import kcliquesolver.core.tuning.Configuration;
+import kcliquesolver.core.tuning.ParameterSweep;
+import kcliquesolver.core.tuning.RacingTuner;
+import kcliquesolver.core.tuning.SweepResult;
+import kcliquesolver.core.tuning.SweepSpec;
+
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
 
 import static kcliquesolver.core.io.Writers.printUniqueSolutions;
 
@@ -17,7 +43,8 @@ public class KCliqueSolver {
 
 
     // only current interface is the hybrid genetic algorithm
-    public static void main(String[] args) throws JSAPException, IOException {
+    public static void main(String[] args) throws JSAPException, IOException,
+            InterruptedException, ExecutionException {
 
         //region PARSING
         JSAP parser = new JSAP();
@@ -26,6 +53,42 @@ public class KCliqueSolver {
         parser.registerParameter(new FlaggedOption("input", JSAP.STRING_PARSER, null, true,
                 'i', "input", "KClique input file path (ranges and distance matrix)"));
 
+        parser.registerParameter(new FlaggedOption("inputFormat", JSAP.STRING_PARSER, "distances", false,
+                JSAP.NO_SHORTFLAG, "inputFormat",
+                "Content of the input file: distances (category, distance matrix row), " +
+                        "features (category, feature vector) or edges (category lines, then from,to,distance lines)"));
+
+        parser.registerParameter(new FlaggedOption("output", JSAP.STRING_PARSER, null, false,
+                'o', "output", "Output file path for the solutions (standard output if not specified)"));
+
+        parser.registerParameter(new FlaggedOption("outputFormat", JSAP.STRING_PARSER, "csv", false,
+                JSAP.NO_SHORTFLAG, "outputFormat", "Format of the solutions output: csv, jsonl or binary"));
+
+        parser.registerParameter(new Switch("header", JSAP.NO_SHORTFLAG, "header",
+                "Start the csv output with a header line of the category labels"));
+
+        // on demand distances settings (features input)
+        parser.registerParameter(new FlaggedOption("metric", JSAP.STRING_PARSER, "euclidean", false,
+                JSAP.NO_SHORTFLAG, "metric", "Distance between feature vectors: euclidean or cosine"));
+
+        parser.registerParameter(new FlaggedOption("rowCacheSize", JSAP.INTEGER_PARSER, "1024", false,
+                JSAP.NO_SHORTFLAG, "rowCacheSize", "Maximum number of distance rows kept in memory (features input, blocked or sparse layout)"));
+
+        // distance matrix layout (distances input)
+        parser.registerParameter(new FlaggedOption("layout", JSAP.STRING_PARSER, "rows", false,
+                JSAP.NO_SHORTFLAG, "layout",
+                "Memory layout of the distance matrix: rows, blocked (by pair of ranges) or sparse (only the " +
+                        "distances different from the default one, see threshold), distances input"));
+
+        // sparse distances settings (edges input or sparse layout)
+        parser.registerParameter(new FlaggedOption("defaultDistance", JSAP.DOUBLE_PARSER, "0", false,
+                JSAP.NO_SHORTFLAG, "defaultDistance",
+                "Distance of the pairs not stored (edges input or sparse layout)"));
+
+        parser.registerParameter(new FlaggedOption("threshold", JSAP.DOUBLE_PARSER, "Infinity", false,
+                JSAP.NO_SHORTFLAG, "threshold",
+                "Distances at or above the threshold are replaced by the default distance (sparse layout)"));
+
         // verbosity
         parser.registerParameter(new Switch("verbose", 'v', "verbose", "verbosity of the solver"));
 
@@ -52,6 +115,188 @@ public class KCliqueSolver {
         parser.registerParameter(new FlaggedOption("seed5", JSAP.LONG_PARSER, "42", false,
                 JSAP.NO_SHORTFLAG, "seed5", "Sixth seed of the random stream"));
 
+        // hyperparameter sweep mode
+        parser.registerParameter(new FlaggedOption("sweep", JSAP.STRING_PARSER, null, false,
+                JSAP.NO_SHORTFLAG, "sweep",
+                "Sweep specification file, runs every configuration and outputs a summary table instead of solutions"));
+
+        parser.registerParameter(new FlaggedOption("threads", JSAP.INTEGER_PARSER,
+                String.valueOf(Runtime.getRuntime().availableProcessors()), false,
+                JSAP.NO_SHORTFLAG, "threads", "Number of worker threads (sweep, tuning and decomposition modes)"));
+
+        // offline tuning mode
+        parser.registerParameter(new FlaggedOption("tune", JSAP.STRING_PARSER, null, false,
+                JSAP.NO_SHORTFLAG, "tune",
+                "Candidate configurations (sweep specification file) to race over the training instances " +
+                        "(comma separated input files), outputs the tuned parameter file"));
+
+        parser.registerParameter(new FlaggedOption("tuneBudget", JSAP.LONG_PARSER, "0", false,
+                JSAP.NO_SHORTFLAG, "tuneBudget",
+                "Time budget of each tuning run in milliseconds (0 to only use numGenerations, reproducible)"));
+
+        parser.registerParameter(new FlaggedOption("tuneBlocks", JSAP.INTEGER_PARSER, "50", false,
+                JSAP.NO_SHORTFLAG, "tuneBlocks", "Maximum number of (instance, seed) blocks of the race"));
+
+        // benchmark mode
+        parser.registerParameter(new Switch("benchmark", JSAP.NO_SHORTFLAG, "benchmark",
+                "Run the strategy over the input files (comma separated) and generated instances, " +
+                        "outputs a quality versus time summary instead of solutions"));
+
+        parser.registerParameter(new FlaggedOption("benchmarkSizes", JSAP.STRING_PARSER, "", false,
+                JSAP.NO_SHORTFLAG, "benchmarkSizes",
+                "Number of objects of the generated instances (comma separated), none if empty"));
+
+        parser.registerParameter(new FlaggedOption("benchmarkFamilies", JSAP.STRING_PARSER, "uniform,planted",
+                false, JSAP.NO_SHORTFLAG, "benchmarkFamilies",
+                "Families of the generated instances (comma separated): uniform, planted"));
+
+        parser.registerParameter(new FlaggedOption("objectsPerRange", JSAP.INTEGER_PARSER, "10", false,
+                JSAP.NO_SHORTFLAG, "objectsPerRange", "Mean range size of the generated instances"));
+
+        parser.registerParameter(new FlaggedOption("benchmarkRuns", JSAP.INTEGER_PARSER, "5", false,
+                JSAP.NO_SHORTFLAG, "benchmarkRuns", "Number of runs (seeds) per benchmark instance"));
+
+        parser.registerParameter(new FlaggedOption("targetGap", JSAP.DOUBLE_PARSER, "0.01", false,
+                JSAP.NO_SHORTFLAG, "targetGap",
+                "Relative gap to the reference score defining the target of the time to target"));
+
+        parser.registerParameter(new FlaggedOption("curves", JSAP.STRING_PARSER, null, false,
+                JSAP.NO_SHORTFLAG, "curves", "Output file path for the anytime curves of the benchmark"));
+
+        parser.registerParameter(new FlaggedOption("tuneMinBlocks", JSAP.INTEGER_PARSER, "5", false,
+                JSAP.NO_SHORTFLAG, "tuneMinBlocks", "Number of blocks before the first elimination"));
+
+        parser.registerParameter(new FlaggedOption("tuneAlpha", JSAP.DOUBLE_PARSER, "0.05", false,
+                JSAP.NO_SHORTFLAG, "tuneAlpha", "Significance level of the elimination tests"));
+
+        parser.registerParameter(new FlaggedOption("parameters", JSAP.STRING_PARSER, null, false,
+                JSAP.NO_SHORTFLAG, "parameters",
+                "Tuned parameter file, values given on the command line take precedence"));
+
+        parser.registerParameter(new Switch("adaptive", JSAP.NO_SHORTFLAG, "adaptive",
+                "Adapt the operator probabilities and improvement depth to their measured gain per CPU time"));
+
+        parser.registerParameter(new FlaggedOption("localSearch", JSAP.STRING_PARSER, "steepest", false,
+                JSAP.NO_SHORTFLAG, "localSearch",
+                "Improvement operator: steepest (best substitution per sweep) or first (first improving substitution)"));
+
+        parser.registerParameter(new FlaggedOption("candidateLists", JSAP.INTEGER_PARSER, "0", false,
+                JSAP.NO_SHORTFLAG, "candidateLists",
+                "Closest objects per (object, range) examined by the local search and the mutation, " +
+                        "0 to examine whole ranges"));
+
+        parser.registerParameter(new FlaggedOption("fullScanPeriod", JSAP.INTEGER_PARSER, "10", false,
+                JSAP.NO_SHORTFLAG, "fullScanPeriod",
+                "Granular sweeps without improvement per full sweep of the steepest local search " +
+                        "(1 keeps the full local minima)"));
+
+        parser.registerParameter(new FlaggedOption("descentThreads", JSAP.INTEGER_PARSER, "1", false,
+                JSAP.NO_SHORTFLAG, "descentThreads",
+                "Threads sharing the positions of each steepest descent sweep (for thousands of genes)"));
+
+        parser.registerParameter(new FlaggedOption("graspAlpha", JSAP.DOUBLE_PARSER, "-1", false,
+                JSAP.NO_SHORTFLAG, "graspAlpha",
+                "Greediness of the constructed initial population in [0, 1] (0 greedy, 1 random), " +
+                        "negative for random solutions"));
+
+        parser.registerParameter(new FlaggedOption("graspThreads", JSAP.INTEGER_PARSER, "1", false,
+                JSAP.NO_SHORTFLAG, "graspThreads", "Threads building the initial population"));
+
+        parser.registerParameter(new FlaggedOption("decompose", JSAP.INTEGER_PARSER, "0", false,
+                JSAP.NO_SHORTFLAG, "decompose",
+                "Ranges per subproblem of a decomposition solve, clusters of interacting ranges solved in parallel " +
+                        "rounds (for tens of thousands of ranges), 0 to solve the whole problem at once"));
+
+        parser.registerParameter(new FlaggedOption("decompositionRounds", JSAP.INTEGER_PARSER, "20", false,
+                JSAP.NO_SHORTFLAG, "decompositionRounds",
+                "Maximum number of rounds over every cluster of a decomposition solve"));
+
+        parser.registerParameter(new FlaggedOption("multilevel", JSAP.INTEGER_PARSER, "0", false,
+                JSAP.NO_SHORTFLAG, "multilevel",
+                "Largest range size of the coarsest level of a multilevel solve (ranges coarsened by merging " +
+                        "similar objects, for ranges of tens of thousands of objects), 0 to solve the whole problem"));
+
+        parser.registerParameter(new FlaggedOption("refineGenerations", JSAP.INTEGER_PARSER, "10", false,
+                JSAP.NO_SHORTFLAG, "refineGenerations",
+                "Generations refining every level of a multilevel solve after its local search, 0 for the " +
+                        "local search only"));
+
+        parser.registerParameter(new FlaggedOption("multilevelCycles", JSAP.INTEGER_PARSER, "1", false,
+                JSAP.NO_SHORTFLAG, "multilevelCycles", "Coarsen-solve-refine cycles of a multilevel solve"));
+
+        parser.registerParameter(new FlaggedOption("crossover", JSAP.STRING_PARSER, "uniform", false,
+                JSAP.NO_SHORTFLAG, "crossover",
+                "Crossover operator: uniform (random mix) or optimal (best child restricted to the parental genes)"));
+
+        parser.registerParameter(new FlaggedOption("recombinationLimit", JSAP.INTEGER_PARSER, "12", false,
+                JSAP.NO_SHORTFLAG, "recombinationLimit",
+                "Largest number of differing parental genes enumerated exactly by the optimal crossover"));
+
+        parser.registerParameter(new FlaggedOption("relinkingInterval", JSAP.INTEGER_PARSER, "0", false,
+                JSAP.NO_SHORTFLAG, "relinkingInterval",
+                "Generations between path relinking stages over the elite, 0 to disable path relinking"));
+
+        parser.registerParameter(new FlaggedOption("relinkingPool", JSAP.INTEGER_PARSER, "4", false,
+                JSAP.NO_SHORTFLAG, "relinkingPool", "Number of best solutions relinked pairwise"));
+
+        // optimality gap
+        parser.registerParameter(new FlaggedOption("gap", JSAP.DOUBLE_PARSER, "-1", false,
+                JSAP.NO_SHORTFLAG, "gap",
+                "Stop once the relative gap to the lower bound is at most this value, the final bound and gap " +
+                        "being printed on the error stream (negative: no bound computed)"));
+
+        parser.registerParameter(new FlaggedOption("boundIterations", JSAP.INTEGER_PARSER, "50", false,
+                JSAP.NO_SHORTFLAG, "boundIterations", "Subgradient iterations of the Lagrangian lower bound"));
+
+        // large neighborhood
+        parser.registerParameter(new FlaggedOption("lnsProbability", JSAP.DOUBLE_PARSER, "0.", false,
+                JSAP.NO_SHORTFLAG, "lnsProbability",
+                "Probability of re-optimizing pairs of interacting ranges jointly on a child (0: disabled)"));
+
+        parser.registerParameter(new FlaggedOption("lnsMoves", JSAP.INTEGER_PARSER, "4", false,
+                JSAP.NO_SHORTFLAG, "lnsMoves", "Number of pairs (or triples) of ranges re-optimized per application"));
+
+        parser.registerParameter(new FlaggedOption("lnsTripleLimit", JSAP.LONG_PARSER, "0", false,
+                JSAP.NO_SHORTFLAG, "lnsTripleLimit",
+                "Largest product of three range sizes re-optimized as a triple (0: pairs only)"));
+
+        // near-optimal enumeration
+        parser.registerParameter(new FlaggedOption("archiveSize", JSAP.INTEGER_PARSER, "0", false,
+                JSAP.NO_SHORTFLAG, "archiveSize",
+                "Enumerate up to this many distinct solutions within the tolerance, with niching (0: disabled)"));
+
+        parser.registerParameter(new FlaggedOption("minDistance", JSAP.INTEGER_PARSER, "1", false,
+                JSAP.NO_SHORTFLAG, "minDistance",
+                "Minimum number of differing genes between two enumerated solutions"));
+
+        // warm start
+        parser.registerParameter(new FlaggedOption("warmStart", JSAP.STRING_PARSER, null, false,
+                JSAP.NO_SHORTFLAG, "warmStart",
+                "Solutions file (csv output) of a previous solve, used to seed the initial population"));
+
+        parser.registerParameter(new FlaggedOption("previousInput", JSAP.STRING_PARSER, null, false,
+                JSAP.NO_SHORTFLAG, "previousInput",
+                "Input file of the previous solve, used to remap the warm start solutions when ranges changed"));
+
+        // island model over TCP
+        parser.registerParameter(new FlaggedOption("coordinator", JSAP.INTEGER_PARSER, null, false,
+                JSAP.NO_SHORTFLAG, "coordinator",
+                "Coordinate islands on this port and write their merged solutions (the input only gives the ranges)"));
+
+        parser.registerParameter(new FlaggedOption("workers", JSAP.INTEGER_PARSER, "2", false,
+                JSAP.NO_SHORTFLAG, "workers", "Number of islands the coordinator waits for"));
+
+        parser.registerParameter(new FlaggedOption("worker", JSAP.STRING_PARSER, null, false,
+                JSAP.NO_SHORTFLAG, "worker",
+                "Solve as an island of the coordinator at host:port, results are sent to the coordinator"));
+
+        parser.registerParameter(new FlaggedOption("migrationInterval", JSAP.INTEGER_PARSER, "10", false,
+                JSAP.NO_SHORTFLAG, "migrationInterval", "Generations between two migrations of an island"));
+
+        parser.registerParameter(new FlaggedOption("migrants", JSAP.INTEGER_PARSER, "2", false,
+                JSAP.NO_SHORTFLAG, "migrants",
+                "Best solutions sent to the next island at each migration (at most 64)"));
+
         // heuristic parameters
         parser.registerParameter(new FlaggedOption("popSize", JSAP.INTEGER_PARSER, "250", false,
                 'p', "popSize", "Genetic algorithm population size"));
@@ -121,29 +366,269 @@ public class KCliqueSolver {
                 config.getLong("seed3"), config.getLong("seed4"), config.getLong("seed5")};
 
 
-        HybridGeneticAlgorithm strategy = new HybridGeneticAlgorithm(
-                config.getBoolean("verbose"),
-                config.getDouble("tolerance"),
-                SEEDS,
+        // every island draws from its own substream of the seeds
+        IslandWorker worker = null;
+        if (config.contains("worker")) {
+            // an island only runs the genetic algorithm, the coordinator waits for its results
+            if (config.contains("tune") || config.getBoolean("benchmark") || config.contains("sweep") ||
+                    config.contains("coordinator") || config.getInt("decompose") > 0 ||
+                    config.getInt("multilevel") > 0) {
+                throw new IllegalArgumentException("--worker cannot be combined with --tune, --benchmark, --sweep, " +
+                        "--coordinator, --decompose or --multilevel");
+            }
+            String[] address = config.getString("worker").split(":");
+            if (address.length != 2) {
+                throw new IllegalArgumentException("Coordinator address must be host:port: " + config.getString("worker"));
+            }
+            worker = new IslandWorker(address[0], Integer.parseInt(address[1]),
+                    Readers.readRanges(config.getString("input")));
+            SEEDS = StreamSeeds.substream(SEEDS, worker.getIndex());
+        }
+
+
+        // genetic algorithm parameters: defaults, then tuned parameter file, then command line
+        Configuration parameters = new Configuration();
+        if (config.contains("parameters")) {
+            parameters = Configuration.read(config.getString("parameters"), parameters);
+        }
+        for (String name : Configuration.getParameterNames()) {
+            if (!config.contains("parameters") || config.userSpecified(name)) {
+                parameters.set(name, ((Number) config.getObject(name)).doubleValue());
+            }
+        }
+
+        HybridGeneticAlgorithm.Builder builder = HybridGeneticAlgorithm.builder()
+                .verbose(config.getBoolean("verbose"))
+                .tolerance(config.getDouble("tolerance"))
+                .seeds(SEEDS)
+                .populationSize(parameters.getInt("popSize"))
+                .numGenerations(parameters.getInt("numGenerations"))
+                .eliteRatio(parameters.get("eliteRatio"))
+                .crossover(parameters.get("crossoverProbability"), parameters.get("crossoverMixingRatio"))
+                .mutation(parameters.get("mutationProbability"), parameters.get("mutationStrength"))
+                .improvement(parameters.get("improvementProbability"), parameters.getInt("improvementDepth"))
+                .adaptive(config.getBoolean("adaptive"))
+                .localSearch(parseLocalSearch(config.getString("localSearch")))
+                .recombination(parseRecombination(config.getString("crossover")),
+                        config.getInt("recombinationLimit"))
+                .candidateLists(config.getInt("candidateLists"), config.getInt("fullScanPeriod"))
+                .descentThreads(config.getInt("descentThreads"))
+                .greedyInitialization(config.getDouble("graspAlpha"), config.getInt("graspThreads"))
+                .gapStop(config.getDouble("gap"), config.getInt("boundIterations"))
+                .pathRelinking(config.getInt("relinkingInterval"), config.getInt("relinkingPool"))
+                .niching(config.getInt("archiveSize"), config.getInt("minDistance"))
+                .largeNeighborhood(config.getDouble("lnsProbability"), config.getInt("lnsMoves"),
+                        config.getLong("lnsTripleLimit"));
+        HybridGeneticAlgorithm strategy = builder.build();
+
+
+        if (config.contains("tune")) {
+            // every input file is a training instance
+            ArrayList<Problem> instances = new ArrayList<>();
+            for (String fileName : config.getString("input").split(",")) {
+                instances.add(readProblem(config, fileName));
+            }
+            SweepSpec spec = SweepSpec.read(config.getString("tune"));
+            RngStream stream = new RngStream();
+            stream.setSeed(SEEDS);
+            ArrayList<Configuration> candidates = spec.expand(parameters, stream);
+
+            RacingTuner tuner = new RacingTuner(instances, config.getInt("threads"), builder.verbose(false), SEEDS,
+                    config.getLong("tuneBudget"), config.getDouble("tuneAlpha"),
+                    config.getInt("tuneMinBlocks"), config.getInt("tuneBlocks"));
+            ArrayList<SweepResult> survivors = tuner.race(candidates);
+
+            Writer output = config.contains("output") ?
+                    new FileWriter(config.getString("output")) : new OutputStreamWriter(System.out);
+            output.write("# tuned over " + tuner.getNumBlocks() + " blocks, " + survivors.size() +
+                    " of " + candidates.size() + " configurations survived" + System.lineSeparator());
+            survivors.get(0).getConfiguration().write(output);
+            output.close();
+            return;
+        }
+
 
-                config.getInt("popSize"),
-                config.getInt("numGenerations"),
-                config.getDouble("eliteRatio"),
+        if (config.getBoolean("benchmark")) {
+            BenchmarkSuite suite = new BenchmarkSuite();
+            for (String fileName : config.getString("input").split(",")) {
+                suite.addInstance(fileName, readProblem(config, fileName));
+            }
+            if (!config.getString("benchmarkSizes").isEmpty()) {
+                String[] fields = config.getString("benchmarkSizes").split(",");
+                int[] sizes = new int[fields.length];
+                for (int i = 0; i != fields.length; ++i) {
+                    sizes[i] = Integer.parseInt(fields[i].trim());
+                }
+                for (String family : config.getString("benchmarkFamilies").split(",")) {
+                    suite.addFamily(InstanceGenerator.Family.valueOf(family.trim().toUpperCase()), sizes,
+                            config.getInt("objectsPerRange"), SEEDS);
+                }
+            }
+            suite.run(builder.verbose(false), config.getInt("benchmarkRuns"), SEEDS);
+
+            Writer summary = config.contains("output") ?
+                    new FileWriter(config.getString("output")) : new OutputStreamWriter(System.out);
+            suite.writeSummary(summary, config.getDouble("targetGap"));
+            summary.close();
+            if (config.contains("curves")) {
+                Writer curves = new FileWriter(config.getString("curves"));
+                suite.writeCurves(curves);
+                curves.close();
+            }
+            return;
+        }
 
-                config.getDouble("crossoverProbability"),
-                config.getDouble("crossoverMixingRatio"),
-                config.getDouble("mutationProbability"),
-                config.getDouble("mutationStrength"),
-                config.getDouble("improvementProbability"),
-                config.getInt("improvementDepth"));
 
+        if (config.contains("coordinator")) {
+            ArrayList<Range> ranges = Readers.readRanges(config.getString("input"));
+            IslandCoordinator coordinator = new IslandCoordinator(config.getInt("coordinator"),
+                    config.getInt("workers"), ranges);
+            writeSolutions(config, ranges, coordinator.run(config.getDouble("tolerance")));
+            return;
+        }
 
 
         // representations
-        Problem problem = Readers.readDistancesFile(config.getString("input"));
+        Problem problem = readProblem(config, config.getString("input"));
+
+        if (config.contains("sweep")) {
+            SweepSpec spec = SweepSpec.read(config.getString("sweep"));
+            RngStream stream = new RngStream();
+            stream.setSeed(SEEDS);
+            ArrayList<Configuration> configurations = spec.expand(parameters, stream);
+
+            ParameterSweep sweep = new ParameterSweep(problem, config.getInt("threads"), builder.verbose(false), SEEDS);
+            ArrayList<SweepResult> results = sweep.run(configurations, spec.getRepetitions());
+
+            Writer summary = config.contains("output") ?
+                    new FileWriter(config.getString("output")) : new OutputStreamWriter(System.out);
+            ParameterSweep.writeSummary(results, summary);
+            summary.close();
+            return;
+        }
+
+        if (config.getInt("decompose") > 0) {
+            DecompositionSolver decomposition = new DecompositionSolver(strategy, config.getInt("decompose"),
+                    config.getInt("decompositionRounds"), config.getInt("threads"), SEEDS,
+                    config.getBoolean("verbose"));
+            writeSolutions(config, problem.getRanges(), decomposition.solve(problem));
+            return;
+        }
+
+        if (config.getInt("multilevel") > 0) {
+            MultilevelSolver multilevel = new MultilevelSolver(strategy, config.getInt("multilevel"),
+                    config.getInt("refineGenerations"), config.getInt("multilevelCycles"), SEEDS,
+                    config.getBoolean("verbose"));
+            writeSolutions(config, problem.getRanges(), multilevel.solve(problem));
+            return;
+        }
+
+        if (config.contains("warmStart")) {
+            ArrayList<Range> previousRanges = config.contains("previousInput") ?
+                    Readers.readRanges(config.getString("previousInput")) : null;
+            RngStream stream = new RngStream();
+            stream.setSeed(SEEDS);
+            strategy.setInitialSolutions(WarmStart.remap(Readers.readSolutionsFile(config.getString("warmStart")),
+                    previousRanges, problem.getRanges(), stream));
+        }
+
+        if (worker != null) {
+            strategy.setMigration(worker, config.getInt("migrationInterval"), config.getInt("migrants"));
+        }
 
         ArrayList<Solution> solutions = strategy.solve(problem);
-        printUniqueSolutions(solutions, new BufferedWriter(new OutputStreamWriter(System.out)));
+        if (worker != null) {
+            // the coordinator writes the merged solutions
+            worker.submitResults(solutions);
+            worker.close();
+            return;
+        }
+        writeSolutions(config, problem.getRanges(), solutions);
+        if (config.getDouble("gap") >= 0.) {
+            SolverStatistics statistics = strategy.getStatistics();
+            System.err.println("best score: " + statistics.getBestScore() + ", lower bound: " +
+                    statistics.getLowerBound() + ", gap: " + statistics.getGap() +
+                    ", generations: " + statistics.getNumGenerations());
+        }
 
     }
+
+
+    static void writeSolutions(JSAPResult config, ArrayList<Range> ranges,
+                               ArrayList<Solution> solutions) throws IOException {
+        SolutionWriter.Format outputFormat = SolutionWriter.Format.valueOf(config.getString("outputFormat").toUpperCase());
+        SolutionWriter writer;
+        if (config.contains("output")) {
+            writer = Writers.openFile(config.getString("output"), outputFormat, ranges, config.getBoolean("header"));
+        } else {
+            writer = Writers.openStandardOutput(outputFormat, ranges, config.getBoolean("header"));
+        }
+        printUniqueSolutions(solutions, writer);
+    }
+
+
+    static Problem readProblem(JSAPResult config, String fileName) throws IOException {
+        String inputFormat = config.getString("inputFormat");
+        if (inputFormat.equals("features")) {
+            return Readers.readFeaturesFile(fileName,
+                    parseMetric(config.getString("metric")), config.getInt("rowCacheSize"));
+        } else if (inputFormat.equals("edges")) {
+            return Readers.readEdgeListFile(fileName, config.getDouble("defaultDistance"),
+                    config.getInt("rowCacheSize"));
+        } else if (inputFormat.equals("distances")) {
+            if (config.getString("layout").equals("sparse")) {
+                // read row by row, the dense matrix is never materialized
+                return Readers.readThresholdedDistancesFile(fileName, config.getDouble("threshold"),
+                        config.getDouble("defaultDistance"), config.getInt("rowCacheSize"));
+            }
+            Problem problem = Readers.readDistancesFile(fileName);
+            switch (config.getString("layout")) {
+                case "rows":
+                    return problem;
+                case "blocked":
+                    return new Problem(new BlockedDistances(problem.getDistances(), problem.getRanges(),
+                            config.getInt("rowCacheSize")), problem.getRanges());
+                default:
+                    throw new IllegalArgumentException("Unknown layout: " + config.getString("layout"));
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown input format: " + inputFormat);
+        }
+    }
+
+
+    static LocalSearch parseLocalSearch(String name) {
+        switch (name) {
+            case "steepest":
+                return LocalSearch.STEEPEST_DESCENT;
+            case "first":
+                return LocalSearch.FIRST_IMPROVEMENT;
+            default:
+                throw new IllegalArgumentException("Unknown local search: " + name);
+        }
+    }
+
+
+    static Recombination parseRecombination(String name) {
+        switch (name) {
+            case "uniform":
+                return Recombination.UNIFORM;
+            case "optimal":
+                return Recombination.OPTIMAL;
+            default:
+                throw new IllegalArgumentException("Unknown crossover: " + name);
+        }
+    }
+
+
+    static Metric parseMetric(String name) {
+        switch (name) {
+            case "euclidean":
+                return new EuclideanMetric();
+            case "cosine":
+                return new CosineMetric();
+            default:
+                throw new IllegalArgumentException("Unknown metric: " + name);
+        }
+    }
 }
@@ -0,0 +1,130 @@
+package kcliquesolver.core.benchmark;
+
+import kcliquesolver.core.solvers.ProgressListener;
+import kcliquesolver.core.solvers.SolverStatistics;
+
+import java.util.ArrayList;
+
+
+/**
+ * Best score of a solve against wall time and evaluations, sampled at the end of every generation.
+ * <p/>
+ * Only the improvements are kept, each one at the time (and evaluation count) it was found, so the curve is a step
+ * function: from the time of a point to the time of the next one, the best score is the one of the point.
+ */
+public class AnytimeCurve implements ProgressListener {
+
+    private final ArrayList<Long> times = new ArrayList<>();
+    private final ArrayList<Long> evaluations = new ArrayList<>();
+    private final ArrayList<Double> scores = new ArrayList<>();
+    private long endTime = 0;
+
+    @Override
+    public void onGeneration(int generation, SolverStatistics statistics) {
+        add(statistics.getTimeToBest(), statistics.getEvaluationsToBest(), statistics.getBestScore());
+    }
+
+    /**
+     * Record the final state of a solve (post-optimization included)
+     */
+    public void finish(SolverStatistics statistics) {
+        add(statistics.getTimeToBest(), statistics.getEvaluationsToBest(), statistics.getBestScore());
+        endTime = Math.max(endTime, statistics.getElapsedTime());
+    }
+
+    /**
+     * @param time       nanoseconds since the start of the solve
+     * @param numEvals   evaluations done since the start of the solve
+     * @param bestScore  best score at that time
+     */
+    public void add(long time, long numEvals, double bestScore) {
+        if (!scores.isEmpty() && bestScore >= scores.get(scores.size() - 1)) {
+            return;
+        }
+        times.add(time);
+        evaluations.add(numEvals);
+        scores.add(bestScore);
+        endTime = Math.max(endTime, time);
+    }
+
+    public int size() {
+        return scores.size();
+    }
+
+    public long getTime(int index) {
+        return times.get(index);
+    }
+
+    public long getEvaluations(int index) {
+        return evaluations.get(index);
+    }
+
+    public double getScore(int index) {
+        return scores.get(index);
+    }
+
+    /**
+     * @return nanoseconds between the start and the end of the solve
+     */
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public double getBestScore() {
+        return scores.isEmpty() ? Double.POSITIVE_INFINITY : scores.get(scores.size() - 1);
+    }
+
+    /**
+     * @return index of the first point reaching the target, -1 if none does
+     */
+    private int firstHit(double target) {
+        for (int index = 0; index != scores.size(); ++index) {
+            if (scores.get(index) <= target) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return nanoseconds until a score at most the target was found, -1 if it never was
+     */
+    public long timeToTarget(double target) {
+        int index = firstHit(target);
+        return (index == -1) ? -1 : times.get(index);
+    }
+
+    /**
+     * @return evaluations until a score at most the target was found, -1 if it never was
+     */
+    public long evaluationsToTarget(double target) {
+        int index = firstHit(target);
+        return (index == -1) ? -1 : evaluations.get(index);
+    }
+
+    /**
+     * Area under the curve of the relative gap to the reference score, normalized by the horizon: the mean gap
+     * over [0, horizon], lower is better. Before the first point the gap is the one of the first point, and
+     * after the end of the solve the one of its best score.
+     *
+     * @param reference best known score, positive
+     * @param horizon   nanoseconds covered, the same for every run compared
+     * @return mean relative gap over the horizon
+     */
+    public double area(double reference, long horizon) {
+        if (scores.isEmpty() || horizon <= 0) {
+            return Double.NaN;
+        }
+        double area = 0.;
+        for (int index = 0; index != scores.size(); ++index) {
+            long start = (index == 0) ? 0 : Math.min(times.get(index), horizon);
+            long end = (index + 1 == scores.size()) ? horizon : Math.min(times.get(index + 1), horizon);
+            area += gap(scores.get(index), reference) * Math.max(0, end - start);
+        }
+        return area / horizon;
+    }
+
+    private static double gap(double score, double reference) {
+        return (reference > 0.) ? (score - reference) / reference : score - reference;
+    }
+}
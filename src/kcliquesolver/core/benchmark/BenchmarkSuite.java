@@ -0,0 +1,180 @@
+package kcliquesolver.core.benchmark;
+
+import kcliquesolver.core.models.Problem;
+import kcliquesolver.core.rng.StreamSeeds;
+import kcliquesolver.core.solvers.HybridGeneticAlgorithm;
+import kcliquesolver.core.solvers.SolverSession;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Locale;
+
+
+/**
+ * End-to-end quality versus time benchmark of a strategy over a catalog of instances.
+ * <p/>
+ * Every instance is solved once per seed (substreams of the base seeds, the same for every instance), one run at a
+ * time so that the wall times are not disturbed by concurrent runs, and the anytime curve of each run is recorded.
+ * The summary compares the runs of an instance against a common target, the reference score (best known score,
+ * by default the best score of all the runs) relaxed by the target gap, and over a common horizon, the longest run.
+ * <p/>
+ * Both outputs are tab separated tables with a header line, meant to be compared between builds: the curves hold
+ * the raw measures, from which summaries against other references can be recomputed.
+ */
+public class BenchmarkSuite {
+
+    private final ArrayList<String> names = new ArrayList<>();
+    private final ArrayList<Problem> problems = new ArrayList<>();
+    private final ArrayList<Double> references = new ArrayList<>();
+    private final ArrayList<ArrayList<AnytimeCurve>> curves = new ArrayList<>();
+
+    /**
+     * @param name    name of the instance in the outputs
+     * @param problem instance to solve
+     */
+    public void addInstance(String name, Problem problem) {
+        addInstance(name, problem, Double.NaN);
+    }
+
+    /**
+     * @param name      name of the instance in the outputs
+     * @param problem   instance to solve
+     * @param reference best known score of the instance, NaN if unknown
+     */
+    public void addInstance(String name, Problem problem, double reference) {
+        names.add(name);
+        problems.add(problem);
+        references.add(reference);
+        curves.add(new ArrayList<AnytimeCurve>());
+    }
+
+    /**
+     * Add generated instances of growing size, numRanges = numObjects / objectsPerRange
+     *
+     * @param family          distribution of the distances
+     * @param sizes           number of objects of each instance
+     * @param objectsPerRange mean size of the ranges
+     * @param seeds           seeds of the generator, the same for every size
+     */
+    public void addFamily(InstanceGenerator.Family family, int[] sizes, int objectsPerRange, long[] seeds) {
+        for (int numObjects : sizes) {
+            int numRanges = Math.max(1, numObjects / objectsPerRange);
+            addInstance(InstanceGenerator.name(family, numObjects, numRanges),
+                    InstanceGenerator.generate(family, numObjects, numRanges, 24, seeds));
+        }
+    }
+
+    public int getNumInstances() {
+        return names.size();
+    }
+
+    /**
+     * Solve every instance numRuns times
+     *
+     * @param builder configuration of the strategy, its seeds are replaced by those of each run
+     * @param numRuns number of runs per instance
+     * @param seeds   base seeds of the runs
+     */
+    public void run(HybridGeneticAlgorithm.Builder builder, int numRuns, long[] seeds) {
+        for (int instance = 0; instance != problems.size(); ++instance) {
+            // the workspaces are reused over the runs of an instance
+            SolverSession session = new SolverSession(problems.get(instance));
+            for (int run = 0; run != numRuns; ++run) {
+                HybridGeneticAlgorithm strategy = builder.seeds(StreamSeeds.substream(seeds, run)).build();
+                AnytimeCurve curve = new AnytimeCurve();
+                session.addProgressListener(curve);
+                session.solve(strategy);
+                session.removeProgressListener(curve);
+                curve.finish(session.getStatistics());
+                curves.get(instance).add(curve);
+            }
+        }
+    }
+
+    /**
+     * @return reference score of an instance: the best known one if better than every run, else the best run
+     */
+    public double getReference(int instance) {
+        double reference = references.get(instance);
+        for (AnytimeCurve curve : curves.get(instance)) {
+            if (Double.isNaN(reference) || curve.getBestScore() < reference) {
+                reference = curve.getBestScore();
+            }
+        }
+        return reference;
+    }
+
+    /**
+     * Write the anytime curves, one line per improvement: instance, run, time (ms), evaluations, best score
+     *
+     * @param writer destination of the table (flushed, not closed)
+     */
+    public void writeCurves(Writer writer) throws IOException {
+        writer.write("instance\trun\ttimeMs\tevaluations\tbestScore");
+        writer.write(System.lineSeparator());
+        for (int instance = 0; instance != names.size(); ++instance) {
+            ArrayList<AnytimeCurve> runs = curves.get(instance);
+            for (int run = 0; run != runs.size(); ++run) {
+                AnytimeCurve curve = runs.get(run);
+                for (int index = 0; index != curve.size(); ++index) {
+                    writer.write(names.get(instance) + "\t" + run + "\t" +
+                            String.format(Locale.ROOT, "%.3f", curve.getTime(index) / 1e6) + "\t" +
+                            curve.getEvaluations(index) + "\t" + curve.getScore(index));
+                    writer.write(System.lineSeparator());
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Write the summary table, one line per instance. Time and evaluations to target are averaged over the runs
+     * reaching the target (hits), the area under the curve is the mean relative gap to the reference over the
+     * horizon (see AnytimeCurve.area), averaged over the runs.
+     *
+     * @param writer    destination of the table (flushed, not closed)
+     * @param targetGap relative gap to the reference defining the target score
+     */
+    public void writeSummary(Writer writer, double targetGap) throws IOException {
+        writer.write("instance\tobjects\tranges\truns\treference\ttarget\tbestScore\tmeanBestScore\tworstScore\t" +
+                "hits\tmeanTimeToTargetMs\tmeanEvaluationsToTarget\tmeanArea\thorizonMs");
+        writer.write(System.lineSeparator());
+        for (int instance = 0; instance != names.size(); ++instance) {
+            ArrayList<AnytimeCurve> runs = curves.get(instance);
+            double reference = getReference(instance);
+            double target = reference + targetGap * Math.abs(reference);
+
+            long horizon = 0;
+            double best = Double.POSITIVE_INFINITY, worst = Double.NEGATIVE_INFINITY, sum = 0.;
+            for (AnytimeCurve curve : runs) {
+                horizon = Math.max(horizon, curve.getEndTime());
+                best = Math.min(best, curve.getBestScore());
+                worst = Math.max(worst, curve.getBestScore());
+                sum += curve.getBestScore();
+            }
+
+            int hits = 0;
+            double timeToTarget = 0., evaluationsToTarget = 0., area = 0.;
+            for (AnytimeCurve curve : runs) {
+                if (curve.timeToTarget(target) >= 0) {
+                    hits += 1;
+                    timeToTarget += curve.timeToTarget(target);
+                    evaluationsToTarget += curve.evaluationsToTarget(target);
+                }
+                area += curve.area(reference, horizon);
+            }
+
+            Problem problem = problems.get(instance);
+            writer.write(names.get(instance) + "\t" + problem.getDistances().size() + "\t" +
+                    problem.getRanges().size() + "\t" + runs.size() + "\t" + reference + "\t" + target + "\t" +
+                    best + "\t" + (sum / runs.size()) + "\t" + worst + "\t" + hits + "\t" +
+                    ((hits == 0) ? "NaN" : String.format(Locale.ROOT, "%.3f", timeToTarget / hits / 1e6)) + "\t" +
+                    ((hits == 0) ? "NaN" : String.format(Locale.ROOT, "%.1f", evaluationsToTarget / hits)) + "\t" +
+                    String.format(Locale.ROOT, "%.6f", area / runs.size()) + "\t" +
+                    String.format(Locale.ROOT, "%.3f", horizon / 1e6));
+            writer.write(System.lineSeparator());
+        }
+        writer.flush();
+    }
+}
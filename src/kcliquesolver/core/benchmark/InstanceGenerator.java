@@ -0,0 +1,74 @@
+package kcliquesolver.core.benchmark;
+
+import kcliquesolver.core.models.Problem;
+import kcliquesolver.core.models.Range;
+import kcliquesolver.core.rng.RngStream;
+
+import java.util.ArrayList;
+
+
+/**
+ * Reproducible random instances, in the format of the data/ matrices: symmetric integral distances with a null
+ * diagonal, and consecutive ranges of (almost) equal sizes.
+ */
+public final class InstanceGenerator {
+
+    public enum Family {
+        // distances drawn uniformly in [0, maxDistance]
+        UNIFORM,
+        // uniform, except between the objects of a hidden clique (one per range) drawn in [0, maxDistance / 4]
+        PLANTED
+    }
+
+    private InstanceGenerator() {
+    }
+
+    /**
+     * @param family       distribution of the distances
+     * @param numObjects   number of objects (rows of the matrix)
+     * @param numRanges    number of ranges, at most numObjects
+     * @param maxDistance  largest distance drawn
+     * @param seeds        seeds of the random stream (6 values, as for RngStream.setSeed)
+     * @return generated problem
+     */
+    public static Problem generate(Family family, int numObjects, int numRanges, int maxDistance, long[] seeds) {
+        if (numRanges <= 0 || numRanges > numObjects) {
+            throw new IllegalArgumentException("Number of ranges must be in [1, " + numObjects + "], got " +
+                    numRanges);
+        }
+        RngStream stream = new RngStream();
+        if (!stream.setSeed(seeds)) {
+            throw new IllegalArgumentException("Invalid seeds for the random stream");
+        }
+
+        ArrayList<Range> ranges = new ArrayList<>();
+        for (int range = 0; range != numRanges; ++range) {
+            ranges.add(new Range((int) ((long) range * numObjects / numRanges),
+                    (int) ((long) (range + 1) * numObjects / numRanges)));
+        }
+
+        boolean[] planted = new boolean[numObjects];
+        if (family == Family.PLANTED) {
+            for (Range range : ranges) {
+                planted[stream.randInt(range.getFirst(), range.getSecond() - 1)] = true;
+            }
+        }
+
+        double[][] matrix = new double[numObjects][numObjects];
+        for (int i = 0; i != numObjects; ++i) {
+            for (int j = i + 1; j != numObjects; ++j) {
+                int limit = (planted[i] && planted[j]) ? maxDistance / 4 : maxDistance;
+                matrix[i][j] = stream.randInt(0, limit);
+                matrix[j][i] = matrix[i][j];
+            }
+        }
+        return new Problem(matrix, ranges);
+    }
+
+    /**
+     * @return name of a generated instance, e.g. uniform-400x40
+     */
+    public static String name(Family family, int numObjects, int numRanges) {
+        return family.name().toLowerCase() + "-" + numObjects + "x" + numRanges;
+    }
+}
@@ -0,0 +1,229 @@
+package kcliquesolver.core.bounds;
+
+import kcliquesolver.core.distances.DistanceProvider;
+import kcliquesolver.core.models.Problem;
+import kcliquesolver.core.models.Range;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+
+/**
+ * Lower bounds on the optimal sum of pairs score of a problem.
+ * <p/>
+ * Writing S(x, y) = D[x][y] + D[y][x], the score of a clique x_1..x_m is
+ * sum_a D[x_a][x_a] + sum_{a < b} S(x_a, x_b). Every bound reads the whole matrix (O(N^2)),
+ * they are meant to be computed once per solve, not per generation.
+ */
+public final class LowerBounds {
+
+    // the Lagrangian multipliers take (number of ranges x number of objects) doubles
+    private static final long MAX_MULTIPLIERS = 50000000L;
+
+    private LowerBounds() {
+    }
+
+
+    /**
+     * Fast bound from the per-range-pair minimum distances:
+     * sum_a min_{x in R_a} D[x][x] + sum_{a < b} min_{x in R_a, y in R_b} S(x, y)
+     *
+     * @param problem problem instance
+     * @return lower bound on the optimal score
+     */
+    public static double rangePairBound(Problem problem) {
+        DistanceProvider distances = problem.getDistances();
+        ArrayList<Range> ranges = problem.getRanges();
+        int numRanges = ranges.size();
+
+        // minimum of D[x][y] + D[y][x] per pair of ranges, accumulated one row at a time
+        double[][] minimums = new double[numRanges][numRanges];
+        for (double[] row : minimums) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+        int[] rangeOf = rangeIndices(ranges, distances.size());
+        for (int x = 0; x != distances.size(); ++x) {
+            double[] row = distances.getRow(x);
+            int a = rangeOf[x];
+            for (int y = x; y != distances.size(); ++y) {
+                int b = rangeOf[y];
+                double cost = (x == y) ? row[x] : row[y] + distances.get(y, x);
+                if (a != b || x == y) {
+                    minimums[a][b] = Math.min(minimums[a][b], cost);
+                }
+            }
+        }
+
+        double bound = 0.;
+        for (int a = 0; a != numRanges; ++a) {
+            for (int b = a; b != numRanges; ++b) {
+                // the loop above only visits y >= x, so a pair of ranges can land on either side
+                bound += (a == b) ? minimums[a][a] : Math.min(minimums[a][b], minimums[b][a]);
+            }
+        }
+        return bound;
+    }
+
+
+    /**
+     * Gilmore-Lawler bound tightened by a Lagrangian relaxation.
+     * <p/>
+     * Each pair term is split in half between both ranges, and multipliers lambda_ab(y) shift cost
+     * between range a and the object y of range b. For any multipliers the bound is
+     * sum_a min_{x in R_a} [D[x][x] - sum_{b != a} lambda_ba(x) + sum_{b != a} min_{y in R_b} (S(x, y) / 2 + lambda_ab(y))],
+     * which is the Gilmore-Lawler bound for null multipliers. The multipliers are improved by subgradient
+     * optimization (Polyak steps towards the upper bound) until the choices of every range agree, or after
+     * numIterations. Without memory for the multipliers, the Gilmore-Lawler bound is returned.
+     *
+     * @param problem       problem instance
+     * @param upperBound    score of the best known solution
+     * @param numIterations maximum number of subgradient iterations
+     * @return best lower bound found on the optimal score
+     */
+    public static double lagrangianBound(Problem problem, double upperBound, int numIterations) {
+        DistanceProvider distances = problem.getDistances();
+        ArrayList<Range> ranges = problem.getRanges();
+        int numRanges = ranges.size();
+        int numObjects = distances.size();
+        if ((long) numRanges * numObjects > MAX_MULTIPLIERS) {
+            numIterations = 0;
+        }
+
+        double[][] multipliers = new double[numIterations > 0 ? numRanges : 0][];
+        for (int a = 0; a != multipliers.length; ++a) {
+            multipliers[a] = new double[numObjects];
+        }
+        int[] chosen = new int[numRanges];
+        int[][] partners = new int[numRanges][numRanges];
+
+        double best = Double.NEGATIVE_INFINITY;
+        double stepScale = 2.;
+        int stalled = 0;
+        for (int iteration = 0; iteration <= numIterations; ++iteration) {
+            double bound = evaluate(distances, ranges, multipliers, chosen, partners);
+            if (bound > best + 1e-9) {
+                best = bound;
+                stalled = 0;
+            } else if (++stalled == 5) {
+                stepScale /= 2.;
+                stalled = 0;
+            }
+            if (iteration == numIterations || best >= upperBound) {
+                break;
+            }
+
+            // subgradient: +1 on the partner chosen by range a in range b, -1 on the object chosen by range b
+            int norm = 0;
+            for (int a = 0; a != numRanges; ++a) {
+                for (int b = 0; b != numRanges; ++b) {
+                    if (a != b && partners[a][b] != chosen[b]) {
+                        norm += 2;
+                    }
+                }
+            }
+            if (norm == 0) {
+                // every range agrees, the bound is reached by an actual clique
+                break;
+            }
+            double step = stepScale * Math.max(upperBound - bound, 1e-9) / norm;
+            for (int a = 0; a != numRanges; ++a) {
+                for (int b = 0; b != numRanges; ++b) {
+                    if (a != b && partners[a][b] != chosen[b]) {
+                        multipliers[a][partners[a][b]] += step;
+                        multipliers[a][chosen[b]] -= step;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+
+    /**
+     * Relative optimality gap
+     *
+     * @param upperBound score of the best known solution
+     * @param lowerBound lower bound on the optimal score
+     * @return (upperBound - lowerBound) / upperBound, 0 when the bound is reached
+     */
+    public static double gap(double upperBound, double lowerBound) {
+        if (upperBound <= lowerBound) {
+            return 0.;
+        }
+        return (upperBound - lowerBound) / Math.abs(upperBound);
+    }
+
+
+    /**
+     * Value of the Lagrangian bound for the given multipliers (null multipliers when empty),
+     * filling the object chosen by each range and the partner it chooses in every other range
+     */
+    private static double evaluate(DistanceProvider distances, ArrayList<Range> ranges, double[][] multipliers,
+                                   int[] chosen, int[][] partners) {
+        int numRanges = ranges.size();
+        double bound = 0.;
+        for (int a = 0; a != numRanges; ++a) {
+            double bestValue = Double.POSITIVE_INFINITY;
+            Range rangeA = ranges.get(a);
+            for (int x = rangeA.getFirst(); x != rangeA.getSecond(); ++x) {
+                double[] row = distances.getRow(x);
+                double value = row[x];
+                for (int b = 0; b != numRanges; ++b) {
+                    if (b == a) {
+                        continue;
+                    }
+                    if (multipliers.length != 0) {
+                        value -= multipliers[b][x];
+                    }
+                    value += innerMinimum(distances, row, x, ranges.get(b), multipliers.length != 0 ? multipliers[a] : null, null);
+                }
+                if (value < bestValue) {
+                    bestValue = value;
+                    chosen[a] = x;
+                }
+            }
+            bound += bestValue;
+
+            // partners of the chosen object, for the subgradient
+            double[] row = distances.getRow(chosen[a]);
+            int[] partner = new int[1];
+            for (int b = 0; b != numRanges; ++b) {
+                if (b != a) {
+                    innerMinimum(distances, row, chosen[a], ranges.get(b), multipliers.length != 0 ? multipliers[a] : null, partner);
+                    partners[a][b] = partner[0];
+                }
+            }
+        }
+        return bound;
+    }
+
+
+    private static double innerMinimum(DistanceProvider distances, double[] row, int x, Range range,
+                                       double[] multipliers, int[] argmin) {
+        double minimum = Double.POSITIVE_INFINITY;
+        for (int y = range.getFirst(); y != range.getSecond(); ++y) {
+            double value = 0.5 * (row[y] + distances.get(y, x));
+            if (multipliers != null) {
+                value += multipliers[y];
+            }
+            if (value < minimum) {
+                minimum = value;
+                if (argmin != null) {
+                    argmin[0] = y;
+                }
+            }
+        }
+        return minimum;
+    }
+
+
+    private static int[] rangeIndices(ArrayList<Range> ranges, int numObjects) {
+        int[] rangeOf = new int[numObjects];
+        for (int r = 0; r != ranges.size(); ++r) {
+            for (int i = ranges.get(r).getFirst(); i != ranges.get(r).getSecond(); ++i) {
+                rangeOf[i] = r;
+            }
+        }
+        return rangeOf;
+    }
+}
@@ -0,0 +1,219 @@
+package kcliquesolver.core.distances;
+
+import kcliquesolver.core.models.Range;
+
+import java.util.ArrayList;
+
+
+/**
+ * Distance matrix stored by (range, range) blocks.
+ * <p/>
+ * The rows of the objects of a range form a band, stored in a single array as the sequence of its blocks:
+ * the block (a, b) holds the costs from the objects of range a to the objects of range b, row-major, and starts
+ * at offset |R_a| * first(b) of the band of range a. Every cost between two ranges is therefore in one contiguous
+ * block, which stays in cache while a whole population reads it (scoreAll), and the substitution scans stream
+ * through one segment of a band per gene (substitutionCosts).
+ * <p/>
+ * The solvers use these tiled kernels when the distances of the problem are blocked. The gains are on population
+ * scoring and on scans of ranges of dozens of objects or more; for ranges of a few objects, the row-major layout
+ * uses its cache lines better in the substitution scans. Whole rows (getRow) are assembled from the blocks on
+ * demand and kept in a bounded LRU cache, for the generic kernels.
+ */
+public class BlockedDistances implements DistanceProvider {
+
+    private final int size;
+    private final int[] first;
+    private final int[] rangeSizes;
+    private final int[] rangeOf;
+    private final double[][] bands;
+    private final double[] diagonal;
+    private final RowCache cache;
+
+    /**
+     * @param source        distances to copy, of any layout
+     * @param ranges        contiguous ranges covering every object, in order
+     * @param cacheCapacity maximum number of assembled rows kept in memory
+     */
+    public BlockedDistances(DistanceProvider source, ArrayList<Range> ranges, int cacheCapacity) {
+        this.size = source.size();
+        int numRanges = ranges.size();
+        this.first = new int[numRanges];
+        this.rangeSizes = new int[numRanges];
+        this.rangeOf = new int[size];
+        int expected = 0;
+        for (int a = 0; a != numRanges; ++a) {
+            Range range = ranges.get(a);
+            if (range.getFirst() != expected || range.getSecond() <= range.getFirst()) {
+                throw new IllegalArgumentException("Blocked distances require contiguous non empty ranges, in order");
+            }
+            first[a] = range.getFirst();
+            rangeSizes[a] = range.getSecond() - range.getFirst();
+            for (int object = range.getFirst(); object != range.getSecond(); ++object) {
+                rangeOf[object] = a;
+            }
+            expected = range.getSecond();
+        }
+        if (expected != size) {
+            throw new IllegalArgumentException("The ranges cover " + expected + " objects, the distances " + size);
+        }
+
+        this.bands = new double[numRanges][];
+        this.diagonal = new double[size];
+        for (int a = 0; a != numRanges; ++a) {
+            double[] band = new double[rangeSizes[a] * size];
+            for (int x = 0; x != rangeSizes[a]; ++x) {
+                double[] row = source.getRow(first[a] + x);
+                for (int b = 0; b != numRanges; ++b) {
+                    System.arraycopy(row, first[b], band, rangeSizes[a] * first[b] + x * rangeSizes[b], rangeSizes[b]);
+                }
+                diagonal[first[a] + x] = row[first[a] + x];
+            }
+            bands[a] = band;
+        }
+        this.cache = new RowCache(cacheCapacity);
+    }
+
+    public int getNumRanges() {
+        return bands.length;
+    }
+
+    /**
+     * @return index of the range containing the object
+     */
+    public int getRangeOf(int object) {
+        return rangeOf[object];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double get(int from, int to) {
+        int a = rangeOf[from], b = rangeOf[to];
+        return bands[a][rangeSizes[a] * first[b] + (from - first[a]) * rangeSizes[b] + (to - first[b])];
+    }
+
+    @Override
+    public double[] getRow(int from) {
+        double[] row = cache.get(from);
+        if (row == null) {
+            row = new double[size];
+            int a = rangeOf[from];
+            double[] band = bands[a];
+            int x = from - first[a];
+            for (int b = 0; b != bands.length; ++b) {
+                System.arraycopy(band, rangeSizes[a] * first[b] + x * rangeSizes[b], row, first[b], rangeSizes[b]);
+            }
+            cache.put(from, row);
+        }
+        return row;
+    }
+
+
+    /**
+     * Sum of pairwise costs of the genes stored in a slice of an array.
+     * As in every solution of the problem, gene i must belong to range i.
+     *
+     * @param genes  array holding the genes
+     * @param offset position of the first gene
+     * @param length number of genes (k)
+     * @return score of the genes
+     */
+    public double score(int[] genes, int offset, int length) {
+        double score = 0.;
+        for (int i = 0; i != length; ++i) {
+            double[] band = bands[i];
+            int sizeI = rangeSizes[i];
+            int x = genes[offset + i] - first[i];
+            // the blocks of a band follow each other, in the order of the ranges
+            int blockStart = 0;
+            for (int j = 0; j != length; ++j) {
+                int sizeJ = rangeSizes[j];
+                score += band[blockStart + x * sizeJ + (genes[offset + j] - first[j])];
+                blockStart += sizeI * sizeJ;
+            }
+        }
+        return score;
+    }
+
+
+    /**
+     * Score every solution of a population, one pair of positions at a time: every solution reads the same
+     * block, which stays in cache meanwhile. As in every solution of the problem, gene i must belong to range i.
+     *
+     * @param genes        genes of the solutions, solution s starting at offset s * length
+     * @param numSolutions number of solutions to score
+     * @param length       number of genes of a solution (k)
+     * @param scores       scores of the solutions (output)
+     */
+    public void scoreAll(int[] genes, int numSolutions, int length, double[] scores) {
+        for (int s = 0; s != numSolutions; ++s) {
+            scores[s] = 0.;
+        }
+        for (int i = 0; i != length; ++i) {
+            double[] band = bands[i];
+            for (int j = 0; j != length; ++j) {
+                // position in the band of the cost from the first object of range i to object 0 (virtual) of range j
+                int base = rangeSizes[i] * first[j] - first[i] * rangeSizes[j] - first[j];
+                int sizeJ = rangeSizes[j];
+                for (int s = 0, offset = 0; s != numSolutions; ++s, offset += length) {
+                    scores[s] += band[base + genes[offset + i] * sizeJ + genes[offset + j]];
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Cost of every candidate of the range of a position, as measured by the substitution scans of the
+     * steepest descent: its own diagonal cost plus the costs from the other genes to the candidate.
+     * Each other gene contributes one contiguous segment of its band. As in every solution of the problem,
+     * gene i must belong to range i.
+     *
+     * @param genes    array holding the genes
+     * @param offset   position of the first gene
+     * @param length   number of genes (k)
+     * @param position position (and range) whose candidates are evaluated
+     * @param costs    cost of each candidate, in the order of the range (output, at least the range size)
+     */
+    public void substitutionCosts(int[] genes, int offset, int length, int position, double[] costs) {
+        int candidates = rangeSizes[position];
+        System.arraycopy(diagonal, first[position], costs, 0, candidates);
+        // four segments at a time, the costs are read and written a quarter as often
+        int i = skip(0, position);
+        while (true) {
+            int i1 = skip(i + 1, position), i2 = skip(i1 + 1, position), i3 = skip(i2 + 1, position);
+            if (i3 >= length) {
+                break;
+            }
+            double[] b0 = bands[i], b1 = bands[i1], b2 = bands[i2], b3 = bands[i3];
+            int s0 = segment(genes, offset, i, position), s1 = segment(genes, offset, i1, position);
+            int s2 = segment(genes, offset, i2, position), s3 = segment(genes, offset, i3, position);
+            for (int c = 0; c != candidates; ++c) {
+                costs[c] += (b0[s0 + c] + b1[s1 + c]) + (b2[s2 + c] + b3[s3 + c]);
+            }
+            i = skip(i3 + 1, position);
+        }
+        for (; i < length; i = skip(i + 1, position)) {
+            double[] band = bands[i];
+            int start = segment(genes, offset, i, position);
+            for (int c = 0; c != candidates; ++c) {
+                costs[c] += band[start + c];
+            }
+        }
+    }
+
+
+    private static int skip(int i, int position) {
+        return (i == position) ? i + 1 : i;
+    }
+
+    /**
+     * @return start, in the band of range i, of the costs from gene i to the objects of the range of the position
+     */
+    private int segment(int[] genes, int offset, int i, int position) {
+        return rangeSizes[i] * first[position] + (genes[offset + i] - first[i]) * rangeSizes[position];
+    }
+}
@@ -0,0 +1,26 @@
+package kcliquesolver.core.distances;
+
+
+/**
+ * Cosine distance (1 - cosine similarity) between feature vectors.
+ * Null vectors are considered at maximal distance (1) from everything but themselves.
+ */
+public class CosineMetric implements Metric {
+
+    @Override
+    public double distance(double[] first, double[] second) {
+        double dot = 0., firstNorm = 0., secondNorm = 0.;
+        for (int i = 0; i != first.length; ++i) {
+            dot += first[i] * second[i];
+            firstNorm += first[i] * first[i];
+            secondNorm += second[i] * second[i];
+        }
+        if (firstNorm == 0. || secondNorm == 0.) {
+            return (first == second) ? 0. : 1.;
+        }
+        double similarity = dot / Math.sqrt(firstNorm * secondNorm);
+
+        // rounding errors can push the similarity slightly outside of [-1, 1]
+        return Math.max(0., 1. - similarity);
+    }
+}
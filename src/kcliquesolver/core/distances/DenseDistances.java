@@ -0,0 +1,34 @@
+package kcliquesolver.core.distances;
+
+
+/**
+ * Fully materialized square distance matrix.
+ * The matrix is never modified, patches (see ProblemPatch) create a new matrix sharing the unchanged rows.
+ */
+public class DenseDistances implements DistanceProvider {
+
+    private final double[][] distanceMatrix;
+
+    public DenseDistances(double[][] distanceMatrix) {
+        this.distanceMatrix = distanceMatrix;
+    }
+
+    public double[][] getDistanceMatrix() {
+        return distanceMatrix;
+    }
+
+    @Override
+    public int size() {
+        return distanceMatrix.length;
+    }
+
+    @Override
+    public double get(int from, int to) {
+        return distanceMatrix[from][to];
+    }
+
+    @Override
+    public double[] getRow(int from) {
+        return distanceMatrix[from];
+    }
+}
@@ -0,0 +1,33 @@
+package kcliquesolver.core.distances;
+
+
+/**
+ * Source of the pairwise costs between objects of a problem instance.
+ * <p/>
+ * Solvers only ever read costs through this interface, which allows the distances
+ * to be either fully materialized in memory or computed on demand.
+ * All of the accesses done by the solvers are of the form D[gene][other], so
+ * implementations are expected to be efficient when reading whole rows.
+ */
+public interface DistanceProvider {
+
+    /**
+     * @return number of objects (rows and columns) of the distance matrix
+     */
+    int size();
+
+    /**
+     * @param from row index (origin object)
+     * @param to   column index (destination object)
+     * @return cost between both objects
+     */
+    double get(int from, int to);
+
+    /**
+     * Fetch every distance from the origin object. The returned array must not be modified.
+     *
+     * @param from row index (origin object)
+     * @return row of the distance matrix, of length size()
+     */
+    double[] getRow(int from);
+}
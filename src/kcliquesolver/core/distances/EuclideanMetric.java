@@ -0,0 +1,18 @@
+package kcliquesolver.core.distances;
+
+
+/**
+ * Euclidean (L2) distance between feature vectors.
+ */
+public class EuclideanMetric implements Metric {
+
+    @Override
+    public double distance(double[] first, double[] second) {
+        double sum = 0.;
+        for (int i = 0; i != first.length; ++i) {
+            double difference = first[i] - second[i];
+            sum += difference * difference;
+        }
+        return Math.sqrt(sum);
+    }
+}
@@ -0,0 +1,72 @@
+package kcliquesolver.core.distances;
+
+
+/**
+ * Distances computed on demand from one feature vector per object.
+ * <p/>
+ * Only the rows requested by the solvers are computed, and they are kept in a bounded
+ * LRU cache. Memory usage is therefore O(N * (dimension + cacheCapacity)) instead of O(N^2),
+ * which allows instances far too large for a dense matrix, as long as the working set of
+ * rows (roughly the genes of the solutions being improved) fits in the cache.
+ */
+public class FeatureDistances implements DistanceProvider {
+
+    private final double[][] features;
+    private final Metric metric;
+    private final RowCache cache;
+
+    /**
+     * @param features      one feature vector per object, all of the same dimension
+     * @param metric        distance function between two feature vectors
+     * @param cacheCapacity maximum number of distance rows kept in memory
+     */
+    public FeatureDistances(double[][] features, Metric metric, int cacheCapacity) {
+        for (double[] vector : features) {
+            if (vector.length != features[0].length) {
+                throw new IllegalArgumentException("All feature vectors must have the same dimension");
+            }
+        }
+        this.features = features;
+        this.metric = metric;
+        this.cache = new RowCache(cacheCapacity);
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public RowCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public int size() {
+        return features.length;
+    }
+
+    @Override
+    public double get(int from, int to) {
+        // avoid computing a whole row for a single value
+        double[] row = cache.get(from);
+        if (row != null) {
+            return row[to];
+        }
+        return metric.distance(features[from], features[to]);
+    }
+
+    @Override
+    public double[] getRow(int from) {
+        double[] row = cache.get(from);
+        if (row == null) {
+            // computed outside of the cache lock, concurrent misses on the same row
+            // only waste some work since the values computed are identical
+            row = new double[features.length];
+            double[] origin = features[from];
+            for (int to = 0; to != features.length; ++to) {
+                row[to] = metric.distance(origin, features[to]);
+            }
+            cache.put(from, row);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,16 @@
+package kcliquesolver.core.distances;
+
+
+/**
+ * Distance function between two feature vectors, used to compute costs on demand.
+ * Implementations must return non-negative values and be thread-safe.
+ */
+public interface Metric {
+
+    /**
+     * @param first  feature vector of the origin object
+     * @param second feature vector of the destination object (same length as first)
+     * @return distance between both feature vectors
+     */
+    double distance(double[] first, double[] second);
+}
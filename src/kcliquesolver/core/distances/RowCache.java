@@ -0,0 +1,71 @@
+package kcliquesolver.core.distances;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Bounded least-recently-used cache of distance rows, indexed by the origin object.
+ * Access is synchronized so a single cache can be shared between solver threads.
+ */
+public class RowCache {
+
+    private final int capacity;
+    private final LruMap rows;
+
+    /**
+     * @param capacity maximum number of rows kept in memory (at least 1)
+     */
+    public RowCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The row cache capacity must be positive (capacity = " + capacity + ")");
+        }
+        this.capacity = capacity;
+        // access-ordered map, the eldest entry is the least recently used row
+        this.rows = new LruMap(capacity);
+    }
+
+    /**
+     * Access-ordered map evicting its least recently used entry beyond the capacity
+     */
+    private static class LruMap extends LinkedHashMap<Integer, double[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        LruMap(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, double[]> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @param index origin object of the row
+     * @return the cached row, null if it is not (or no longer) in the cache
+     */
+    public synchronized double[] get(int index) {
+        return rows.get(index);
+    }
+
+    /**
+     * @param index origin object of the row
+     * @param row   distances from the origin object
+     */
+    public synchronized void put(int index, double[] row) {
+        rows.put(index, row);
+    }
+
+    public synchronized int size() {
+        return rows.size();
+    }
+}
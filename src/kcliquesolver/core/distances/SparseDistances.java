@@ -0,0 +1,307 @@
+package kcliquesolver.core.distances;
+
+import java.util.Arrays;
+
+
+/**
+ * Distance matrix where most of the costs are a single default value, only the other entries being stored.
+ * <p/>
+ * The entries are kept in compressed sparse rows: the entries of row x are at positions [rowStarts[x],
+ * rowStarts[x + 1]) of the columns and values arrays, sorted by column. Memory is O(n + e) for e stored entries
+ * instead of O(n^2), and a single cost is found by binary search in its row.
+ * <p/>
+ * The solvers use the sparse kernels when the distances of the problem are sparse: a score, or the costs of the
+ * candidates of a range, is the default contribution of every pair plus the difference of the stored entries
+ * between the genes, so it costs O(min(e_x, k) log) per gene x instead of O(k). Whole rows (getRow) are assembled
+ * on demand and kept in a bounded LRU cache, for the generic kernels.
+ */
+public class SparseDistances implements DistanceProvider {
+
+    private final int size;
+    private final double defaultValue;
+    private final int[] rowStarts;
+    private final int[] columns;
+    private final double[] values;
+    private final double[] diagonal;
+    private final RowCache cache;
+
+    /**
+     * Collects the entries of a sparse matrix, in any order.
+     * Entries equal to the default value are not stored.
+     */
+    public static class Builder {
+
+        private final double defaultValue;
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private double[] values = new double[16];
+        private int numEntries = 0;
+
+        /**
+         * @param defaultValue cost of every pair without entry (non-negative)
+         */
+        public Builder(double defaultValue) {
+            if (!(defaultValue >= 0.) || Double.isInfinite(defaultValue)) {
+                throw new IllegalArgumentException("The default distance must be finite and non-negative (" +
+                        defaultValue + ")");
+            }
+            this.defaultValue = defaultValue;
+        }
+
+        /**
+         * @param from  row index (origin object)
+         * @param to    column index (destination object)
+         * @param value cost between both objects (non-negative)
+         * @return this builder
+         */
+        public Builder add(int from, int to, double value) {
+            if (from < 0 || to < 0 || !(value >= 0.)) {
+                throw new IllegalArgumentException("Invalid entry (" + from + ", " + to + ") = " + value);
+            }
+            if (value == defaultValue) {
+                return this;
+            }
+            if (numEntries == values.length) {
+                this.from = Arrays.copyOf(this.from, 2 * numEntries);
+                this.to = Arrays.copyOf(this.to, 2 * numEntries);
+                this.values = Arrays.copyOf(values, 2 * numEntries);
+            }
+            this.from[numEntries] = from;
+            this.to[numEntries] = to;
+            this.values[numEntries] = value;
+            ++numEntries;
+            return this;
+        }
+
+        /**
+         * @param size          number of objects (rows and columns)
+         * @param cacheCapacity maximum number of assembled rows kept in memory
+         * @return the sparse matrix of the collected entries
+         */
+        public SparseDistances build(int size, int cacheCapacity) {
+            // counting sort of the entries by row, then sort of each row by column
+            int[] rowStarts = new int[size + 1];
+            for (int e = 0; e != numEntries; ++e) {
+                if (from[e] >= size || to[e] >= size) {
+                    throw new IllegalArgumentException("Entry (" + from[e] + ", " + to[e] + ") out of the " + size +
+                            " objects");
+                }
+                ++rowStarts[from[e] + 1];
+            }
+            for (int x = 0; x != size; ++x) {
+                rowStarts[x + 1] += rowStarts[x];
+            }
+            int[] next = Arrays.copyOf(rowStarts, size);
+            int[] columns = new int[numEntries];
+            double[] sorted = new double[numEntries];
+            for (int e = 0; e != numEntries; ++e) {
+                int position = next[from[e]]++;
+                columns[position] = to[e];
+                sorted[position] = values[e];
+            }
+            for (int x = 0; x != size; ++x) {
+                sortRow(x, rowStarts[x], rowStarts[x + 1], columns, sorted);
+            }
+            return new SparseDistances(size, defaultValue, rowStarts, columns, sorted, cacheCapacity);
+        }
+
+        private static void sortRow(int row, int begin, int end, int[] columns, double[] values) {
+            boolean ordered = true;
+            for (int e = begin + 1; e < end && ordered; ++e) {
+                ordered = columns[e - 1] < columns[e];
+            }
+            if (ordered) {
+                return;
+            }
+            // column in the high bits, position in the row in the low bits
+            long[] keys = new long[end - begin];
+            for (int e = begin; e != end; ++e) {
+                keys[e - begin] = ((long) columns[e] << 32) | (e - begin);
+            }
+            Arrays.sort(keys);
+            double[] rowValues = Arrays.copyOfRange(values, begin, end);
+            for (int e = begin; e != end; ++e) {
+                columns[e] = (int) (keys[e - begin] >>> 32);
+                values[e] = rowValues[(int) keys[e - begin]];
+                if (e != begin && columns[e] == columns[e - 1]) {
+                    throw new IllegalArgumentException("Duplicate entry (" + row + ", " + columns[e] + ")");
+                }
+            }
+        }
+    }
+
+    /**
+     * @param size          number of objects (rows and columns)
+     * @param defaultValue  cost of every pair without entry
+     * @param rowStarts     position of the first entry of each row, followed by the number of entries
+     * @param columns       column of each entry, increasing within a row
+     * @param values        cost of each entry
+     * @param cacheCapacity maximum number of assembled rows kept in memory
+     */
+    public SparseDistances(int size, double defaultValue, int[] rowStarts, int[] columns, double[] values,
+                           int cacheCapacity) {
+        if (rowStarts.length != size + 1 || rowStarts[0] != 0 || rowStarts[size] != columns.length ||
+                columns.length != values.length) {
+            throw new IllegalArgumentException("Inconsistent compressed sparse rows");
+        }
+        for (int x = 0; x != size; ++x) {
+            for (int e = rowStarts[x]; e != rowStarts[x + 1]; ++e) {
+                if (columns[e] < 0 || columns[e] >= size || (e != rowStarts[x] && columns[e] <= columns[e - 1])) {
+                    throw new IllegalArgumentException("The columns of row " + x + " must be valid and increasing");
+                }
+            }
+        }
+        this.size = size;
+        this.defaultValue = defaultValue;
+        this.rowStarts = rowStarts;
+        this.columns = columns;
+        this.values = values;
+        this.diagonal = new double[size];
+        for (int x = 0; x != size; ++x) {
+            diagonal[x] = get(x, x);
+        }
+        this.cache = new RowCache(cacheCapacity);
+    }
+
+    public double getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * @return number of stored entries (different from the default value)
+     */
+    public int getNumEntries() {
+        return columns.length;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double get(int from, int to) {
+        int end = rowStarts[from + 1];
+        int e = lowerBound(columns, rowStarts[from], end, to);
+        return (e != end && columns[e] == to) ? values[e] : defaultValue;
+    }
+
+    @Override
+    public double[] getRow(int from) {
+        double[] row = cache.get(from);
+        if (row == null) {
+            row = new double[size];
+            Arrays.fill(row, defaultValue);
+            for (int e = rowStarts[from]; e != rowStarts[from + 1]; ++e) {
+                row[columns[e]] = values[e];
+            }
+            cache.put(from, row);
+        }
+        return row;
+    }
+
+
+    /**
+     * Sum of the costs from an object to the genes stored in a slice of an array, merging its entries with the
+     * genes: whichever is shorter is searched for in the other. The genes must be increasing, as in every solution
+     * of a problem (gene i belongs to range i, and the ranges are in order).
+     *
+     * @param from   origin object
+     * @param genes  array holding the genes
+     * @param offset position of the first gene
+     * @param length number of genes (k)
+     * @return sum of the costs from the object to the genes
+     */
+    public double rowSum(int from, int[] genes, int offset, int length) {
+        int begin = rowStarts[from];
+        int end = rowStarts[from + 1];
+        double sum = length * defaultValue;
+        if (end - begin <= length) {
+            int lo = offset;
+            int hi = offset + length;
+            for (int e = begin; e != end && lo != hi; ++e) {
+                lo = lowerBound(genes, lo, hi, columns[e]);
+                if (lo != hi && genes[lo] == columns[e]) {
+                    sum += values[e] - defaultValue;
+                    ++lo;
+                }
+            }
+        } else {
+            int lo = begin;
+            for (int j = offset, last = offset + length; j != last && lo != end; ++j) {
+                lo = lowerBound(columns, lo, end, genes[j]);
+                if (lo != end && columns[lo] == genes[j]) {
+                    sum += values[lo] - defaultValue;
+                    ++lo;
+                }
+            }
+        }
+        return sum;
+    }
+
+
+    /**
+     * Sum of pairwise costs of the genes stored in a slice of an array.
+     * The genes must be increasing, as in every solution of a problem (see rowSum).
+     *
+     * @param genes  array holding the genes
+     * @param offset position of the first gene
+     * @param length number of genes (k)
+     * @return score of the genes
+     */
+    public double score(int[] genes, int offset, int length) {
+        double score = 0.;
+        for (int i = offset, end = offset + length; i != end; ++i) {
+            score += rowSum(genes[i], genes, offset, length);
+        }
+        return score;
+    }
+
+
+    /**
+     * Cost of every candidate of a range, as measured by the substitution scans of the steepest descent: its own
+     * diagonal cost plus the costs from the other genes to the candidate. Each other gene only contributes its
+     * entries whose column is in the range.
+     *
+     * @param genes    array holding the genes
+     * @param offset   position of the first gene
+     * @param length   number of genes (k)
+     * @param position position whose candidates are evaluated
+     * @param first    first object of the range of the position
+     * @param last     end (excluded) of the range of the position
+     * @param costs    cost of each candidate, in the order of the range (output, at least the range size)
+     */
+    public void substitutionCosts(int[] genes, int offset, int length, int position, int first, int last,
+                                  double[] costs) {
+        double base = (length - 1) * defaultValue;
+        for (int c = first; c != last; ++c) {
+            costs[c - first] = base + diagonal[c];
+        }
+        for (int i = 0; i != length; ++i) {
+            if (i == position) {
+                continue;
+            }
+            int gene = genes[offset + i];
+            int end = rowStarts[gene + 1];
+            for (int e = lowerBound(columns, rowStarts[gene], end, first); e != end && columns[e] < last; ++e) {
+                costs[columns[e] - first] += values[e] - defaultValue;
+            }
+        }
+    }
+
+
+    /**
+     * @return first position of [from, to) whose value is at least the key (to if none)
+     */
+    private static int lowerBound(int[] sorted, int from, int to, int key) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (sorted[middle] < key) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+}
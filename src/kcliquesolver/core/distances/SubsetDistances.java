@@ -0,0 +1,72 @@
+package kcliquesolver.core.distances;
+
+
+/**
+ * Distances between a subset of the objects of another provider, renumbered from 0, without copying the matrix.
+ * <p/>
+ * The diagonal can be shifted by a cost per object: a subproblem whose other genes are fixed adds, to each of its
+ * objects, its costs towards and from the fixed genes. As every gene pairs with itself exactly once in a score, the
+ * score of the subproblem is then the score of the whole solution up to a constant (the pairs of fixed genes).
+ * <p/>
+ * Values are read one by one from the source, rows are gathered on demand (O(m) for m objects, whatever the size of
+ * the source) and kept in a bounded LRU cache.
+ */
+public class SubsetDistances implements DistanceProvider {
+
+    private final DistanceProvider source;
+    private final int[] objects;
+    private final double[] diagonal;
+    private final RowCache cache;
+
+    /**
+     * @param source        distances between every object
+     * @param objects       object of the source of each object of the subset
+     * @param diagonalShift cost added to the diagonal of each object of the subset (null for none)
+     * @param cacheCapacity maximum number of gathered rows kept in memory
+     */
+    public SubsetDistances(DistanceProvider source, int[] objects, double[] diagonalShift, int cacheCapacity) {
+        if (diagonalShift != null && diagonalShift.length != objects.length) {
+            throw new IllegalArgumentException("One diagonal shift per object expected (" + diagonalShift.length +
+                    " for " + objects.length + " objects)");
+        }
+        this.source = source;
+        this.objects = objects;
+        this.diagonal = new double[objects.length];
+        for (int x = 0; x != objects.length; ++x) {
+            diagonal[x] = source.get(objects[x], objects[x]) + ((diagonalShift == null) ? 0. : diagonalShift[x]);
+        }
+        this.cache = new RowCache(cacheCapacity);
+    }
+
+    /**
+     * @return object of the source of an object of the subset
+     */
+    public int getObject(int index) {
+        return objects[index];
+    }
+
+    @Override
+    public int size() {
+        return objects.length;
+    }
+
+    @Override
+    public double get(int from, int to) {
+        return (from == to) ? diagonal[from] : source.get(objects[from], objects[to]);
+    }
+
+    @Override
+    public double[] getRow(int from) {
+        double[] row = cache.get(from);
+        if (row == null) {
+            // single values, so that a source computing its rows on demand only computes the subset
+            row = new double[objects.length];
+            for (int to = 0; to != objects.length; ++to) {
+                row[to] = source.get(objects[from], objects[to]);
+            }
+            row[from] = diagonal[from];
+            cache.put(from, row);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,156 @@
+package kcliquesolver.core.distributed;
+
+import kcliquesolver.core.models.Range;
+import kcliquesolver.core.models.Solution;
+import kcliquesolver.core.solvers.AbstractStrategy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.InputMismatchException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * Server side of the island model.
+ * <p/>
+ * Waits for a fixed number of workers (other processes, possibly on other hosts, each solving its own
+ * copy of the problem), then relays migrants along a ring: the emigrants of worker i are delivered to worker
+ * i + 1 at its next exchange, along with the best solution seen from any worker (incumbent) when it beats
+ * what the worker sent. Once every worker submitted its results, the final solutions are merged.
+ */
+public class IslandCoordinator {
+
+    // undelivered migrants kept per worker, the oldest are dropped first
+    private static final int MAILBOX_CAPACITY = Protocol.MAX_MIGRANTS;
+
+    private final ServerSocket server;
+    private final int numWorkers;
+    private final ArrayList<Range> ranges;
+
+    private final ArrayList<ArrayList<Solution>> mailboxes = new ArrayList<>();
+    private Solution incumbent = null;
+
+    /**
+     * @param port       port to listen on (0 for any free port)
+     * @param numWorkers number of workers to wait for
+     * @param ranges     ranges of the problem, the genes received are checked against them
+     */
+    public IslandCoordinator(int port, int numWorkers, ArrayList<Range> ranges) throws IOException {
+        this.server = new ServerSocket(port);
+        this.numWorkers = numWorkers;
+        this.ranges = ranges;
+        for (int i = 0; i != numWorkers; ++i) {
+            mailboxes.add(new ArrayList<Solution>());
+        }
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+
+    /**
+     * Serve every worker until all of them submitted their results
+     *
+     * @param tolerance permitted gap between kept solution and best solution, normalized
+     * @return merged unique solutions within the tolerance of the best one of all workers
+     */
+    public ArrayList<Solution> run(double tolerance) throws IOException, InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(numWorkers);
+        try {
+            ArrayList<Future<ArrayList<Solution>>> results = new ArrayList<>();
+            for (int index = 0; index != numWorkers; ++index) {
+                final Socket socket = server.accept();
+                final int workerIndex = index;
+                results.add(pool.submit(new Callable<ArrayList<Solution>>() {
+                    @Override
+                    public ArrayList<Solution> call() throws IOException {
+                        try {
+                            return serve(socket, workerIndex);
+                        } finally {
+                            socket.close();
+                        }
+                    }
+                }));
+            }
+
+            ArrayList<Solution> merged = new ArrayList<>();
+            for (Future<ArrayList<Solution>> result : results) {
+                merged.addAll(result.get());
+            }
+            return AbstractStrategy.selectSuitableSolutions(merged, tolerance, ranges.size());
+        } finally {
+            pool.shutdownNow();
+            server.close();
+        }
+    }
+
+
+    private ArrayList<Solution> serve(Socket socket, int workerIndex) throws IOException {
+        socket.setTcpNoDelay(true);
+        DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        if (input.readByte() != Protocol.HELLO || input.readInt() != ranges.size()) {
+            throw new InputMismatchException("Worker " + workerIndex + " does not solve the same problem");
+        }
+        output.writeInt(workerIndex);
+        output.writeInt(numWorkers);
+        output.flush();
+
+        while (true) {
+            byte type = input.readByte();
+            if (type == Protocol.RESULT) {
+                return Protocol.readSolutions(input, ranges, Protocol.MAX_RESULTS);
+            } else if (type != Protocol.EXCHANGE) {
+                throw new InputMismatchException("Unknown message type " + type + " from worker " + workerIndex);
+            }
+            ArrayList<Solution> solutions = Protocol.readSolutions(input, ranges, Protocol.MAX_MIGRANTS);
+            Protocol.writeSolutions(output, relay(workerIndex, solutions));
+            output.flush();
+        }
+    }
+
+
+    /**
+     * Deliver the emigrants of a worker to the next one on the ring, and collect its own immigrants
+     */
+    private synchronized ArrayList<Solution> relay(int workerIndex, ArrayList<Solution> emigrants) {
+        Solution best = null;
+        for (Solution solution : emigrants) {
+            if (best == null || solution.compareTo(best) < 0) {
+                best = solution;
+            }
+        }
+
+        ArrayList<Solution> immigrants = new ArrayList<>(mailboxes.get(workerIndex));
+        mailboxes.get(workerIndex).clear();
+        if (incumbent != null && (best == null || incumbent.compareTo(best) < 0)) {
+            immigrants.add(new Solution(incumbent));
+        }
+        if (best != null && (incumbent == null || best.compareTo(incumbent) < 0)) {
+            incumbent = new Solution(best);
+        }
+
+        if (numWorkers > 1) {
+            ArrayList<Solution> mailbox = mailboxes.get((workerIndex + 1) % numWorkers);
+            mailbox.addAll(emigrants);
+            if (mailbox.size() > MAILBOX_CAPACITY) {
+                mailbox.subList(0, mailbox.size() - MAILBOX_CAPACITY).clear();
+            }
+        }
+        Collections.sort(immigrants);
+        return immigrants;
+    }
+}
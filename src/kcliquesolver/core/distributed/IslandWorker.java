@@ -0,0 +1,95 @@
+package kcliquesolver.core.distributed;
+
+import kcliquesolver.core.models.Range;
+import kcliquesolver.core.models.Solution;
+import kcliquesolver.core.solvers.Migration;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+
+
+/**
+ * Client side of the island model: connection of a genetic algorithm island to the coordinator,
+ * used as the migration channel of the island. At most Protocol.MAX_MIGRANTS emigrants (the first ones) are sent
+ * per exchange, and the best Protocol.MAX_RESULTS solutions as results.
+ */
+public class IslandWorker implements Migration, Closeable {
+
+    private final Socket socket;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+    private final ArrayList<Range> ranges;
+    private final int index;
+    private final int numWorkers;
+
+    /**
+     * Connect to the coordinator and register the island
+     *
+     * @param host     coordinator host name
+     * @param port     coordinator port
+     * @param ranges   ranges of the problem, the genes received are checked against them
+     */
+    public IslandWorker(String host, int port, ArrayList<Range> ranges) throws IOException {
+        this.socket = new Socket(host, port);
+        this.socket.setTcpNoDelay(true);
+        this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.ranges = ranges;
+
+        output.writeByte(Protocol.HELLO);
+        output.writeInt(ranges.size());
+        output.flush();
+        this.index = input.readInt();
+        this.numWorkers = input.readInt();
+    }
+
+    /**
+     * @return index of this island among the workers, in order of connection
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public int getNumWorkers() {
+        return numWorkers;
+    }
+
+    @Override
+    public ArrayList<Solution> exchange(ArrayList<Solution> emigrants) {
+        try {
+            output.writeByte(Protocol.EXCHANGE);
+            Protocol.writeSolutions(output, (emigrants.size() > Protocol.MAX_MIGRANTS) ?
+                    new ArrayList<>(emigrants.subList(0, Protocol.MAX_MIGRANTS)) : emigrants);
+            output.flush();
+            return Protocol.readSolutions(input, ranges, Protocol.MAX_MIGRANTS + 1);
+        } catch (IOException exception) {
+            throw new IllegalStateException("Lost the connection to the coordinator", exception);
+        }
+    }
+
+    /**
+     * Send the final solutions of the island to the coordinator
+     *
+     * @param solutions solutions returned by the solve of the island
+     */
+    public void submitResults(ArrayList<Solution> solutions) throws IOException {
+        ArrayList<Solution> sorted = new ArrayList<>(solutions);
+        Collections.sort(sorted);
+        output.writeByte(Protocol.RESULT);
+        Protocol.writeSolutions(output, (sorted.size() > Protocol.MAX_RESULTS) ?
+                new ArrayList<>(sorted.subList(0, Protocol.MAX_RESULTS)) : sorted);
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,78 @@
+package kcliquesolver.core.distributed;
+
+import kcliquesolver.core.models.Range;
+import kcliquesolver.core.models.Solution;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.InputMismatchException;
+
+
+/**
+ * Binary messages exchanged between island workers and their coordinator over TCP.
+ * <p/>
+ * A worker opens the connection with HELLO (int k, its number of genes) and receives its index and the
+ * number of workers (two ints). It then sends any number of EXCHANGE messages (a list of solutions),
+ * each answered by a list of solutions, and finally RESULT (its list of solutions) before closing.
+ * A list of solutions is an int count followed, for each solution, by a double score and k ints.
+ * <p/>
+ * Lists are bounded, MAX_MIGRANTS solutions per exchange (MAX_MIGRANTS + 1 from the coordinator, which adds the
+ * incumbent) and MAX_RESULTS for the results, and every gene must belong to its range: any other message is
+ * rejected as corrupt, before anything is allocated for it.
+ */
+final class Protocol {
+
+    static final byte HELLO = 1;
+    static final byte EXCHANGE = 2;
+    static final byte RESULT = 3;
+
+    static final int MAX_MIGRANTS = 64;
+    static final int MAX_RESULTS = 1 << 16;
+
+    private Protocol() {
+    }
+
+    static void writeSolutions(DataOutputStream output, ArrayList<Solution> solutions) throws IOException {
+        output.writeInt(solutions.size());
+        for (Solution solution : solutions) {
+            output.writeDouble(solution.getScore());
+            for (int i = 0; i != solution.size(); ++i) {
+                output.writeInt(solution.getGene(i));
+            }
+        }
+    }
+
+    /**
+     * @param input    stream positioned on a list of solutions
+     * @param ranges   ranges of the problem, gene i must belong to range i
+     * @param maxCount largest number of solutions accepted
+     * @return solutions of the list
+     */
+    static ArrayList<Solution> readSolutions(DataInputStream input, ArrayList<Range> ranges, int maxCount)
+            throws IOException {
+        int count = input.readInt();
+        if (count < 0 || count > maxCount) {
+            throw new InputMismatchException("Invalid number of solutions " + count + " (at most " + maxCount + ")");
+        }
+        ArrayList<Solution> solutions = new ArrayList<>(count);
+        for (int n = 0; n != count; ++n) {
+            double score = input.readDouble();
+            if (Double.isNaN(score)) {
+                throw new InputMismatchException("Invalid score of solution " + n);
+            }
+            ArrayList<Integer> genes = new ArrayList<>(ranges.size());
+            for (Range range : ranges) {
+                int gene = input.readInt();
+                if (gene < range.getFirst() || gene >= range.getSecond()) {
+                    throw new InputMismatchException("Gene " + gene + " of solution " + n + " out of its range [" +
+                            range.getFirst() + ", " + range.getSecond() + "[");
+                }
+                genes.add(gene);
+            }
+            solutions.add(new Solution(genes, score));
+        }
+        return solutions;
+    }
+}
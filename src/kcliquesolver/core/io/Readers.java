@@ -1,10 +1,15 @@
 package kcliquesolver.core.io;
 
 import com.opencsv.CSVReader;
+import kcliquesolver.core.distances.FeatureDistances;
+import kcliquesolver.core.distances.Metric;
+import kcliquesolver.core.distances.SparseDistances;
 import kcliquesolver.core.models.Problem;
 import kcliquesolver.core.models.Range;
+import kcliquesolver.core.models.Solution;
 
 
+import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
@@ -48,22 +53,7 @@ public class Readers {
         }
 
 
-        ArrayList<Range> ranges = new ArrayList<>();
-
-        // separate by categories
-        int rangeBegin = 0;
-        for (int rowIndex = 1; rowIndex != rows.size(); ++rowIndex) {
-            if (rows.get(rowIndex - 1)[0].compareTo(rows.get(rowIndex)[0]) != 0) {
-                // new range!
-                ranges.add(new Range(rangeBegin, rowIndex));
-                rangeBegin = rowIndex;
-            }
-        }
-
-        if (rangeBegin != rows.size()) {
-            // last one is not in there
-            ranges.add(new Range(rangeBegin, rows.size()));
-        }
+        ArrayList<Range> ranges = extractRanges(rows);
 
         double[][] distanceMatrix = new double[rows.size()][rows.size()];
         for (int rowIndex = 0; rowIndex != rows.size(); ++rowIndex) {
@@ -80,6 +70,247 @@ public class Readers {
 
         return problem;
     }
+
+
+    /**
+     * Read per-object feature vectors in an header-less csv format (the separator is ",").
+     * Distances are not materialized, they are computed on demand with the given metric.
+     * <p/>
+     * Assuming m categories with a total of n objects and d features, columns will be
+     * category (integer, [0..m]) feature (double, d columns)
+     * Size of the file should be (n rows x d+1 columns)
+     * <p/>
+     * WARNINGS:
+     * - the objects must be grouped together (separated by category), as for readDistancesFile
+     *
+     * @param fileName      file path to open
+     * @param metric        distance function between feature vectors
+     * @param cacheCapacity maximum number of distance rows kept in memory
+     * @return Problem instance
+     */
+    public static Problem readFeaturesFile(String fileName, Metric metric, int cacheCapacity) throws IOException {
+        CSVReader reader = new CSVReader(new FileReader(fileName));
+        ArrayList<String[]> rows = new ArrayList<>();
+        String[] nextLine;
+        while ((nextLine = reader.readNext()) != null) {
+            rows.add(nextLine);
+        }
+        reader.close();
+
+        ArrayList<Range> ranges = extractRanges(rows);
+
+        double[][] features = new double[rows.size()][];
+        for (int rowIndex = 0; rowIndex != rows.size(); ++rowIndex) {
+            String[] row = rows.get(rowIndex);
+            double[] vector = new double[row.length - 1];
+            for (int i = 1; i != row.length; ++i) {
+                vector[i - 1] = Double.parseDouble(row[i]);
+            }
+            features[rowIndex] = vector;
+        }
+
+        return new Problem(new FeatureDistances(features, metric, cacheCapacity), ranges);
+    }
+
+
+    /**
+     * Read the distance matrix in the csv format of readDistancesFile into a sparse matrix (see SparseDistances),
+     * one row at a time: the dense matrix is never held in memory.
+     * <p/>
+     * Costs at or above the threshold are replaced by the default distance, e.g. with a default equal to the
+     * threshold, every cost considered uninformative is capped to a single value. Costs equal to the default
+     * distance are not stored. With an infinite threshold, the matrix is exact.
+     *
+     * @param fileName      file path to open
+     * @param threshold     costs from which the default distance is used instead
+     * @param defaultValue  default distance (non-negative)
+     * @param cacheCapacity maximum number of assembled rows kept in memory
+     * @return Problem instance
+     */
+    public static Problem readThresholdedDistancesFile(String fileName, double threshold, double defaultValue,
+                                                       int cacheCapacity) throws IOException {
+        SparseDistances.Builder builder = new SparseDistances.Builder(defaultValue);
+        ArrayList<String[]> categories = new ArrayList<>();
+        int numColumns = -1;
+        CSVReader reader = new CSVReader(new FileReader(fileName));
+        try {
+            String[] nextLine;
+            while ((nextLine = reader.readNext()) != null) {
+                int rowIndex = categories.size();
+                if (numColumns == -1) {
+                    numColumns = nextLine.length - 1;
+                } else if (nextLine.length - 1 != numColumns) {
+                    throw new InputMismatchException("Row " + rowIndex + " has " + (nextLine.length - 1) +
+                            " distances, " + numColumns + " expected");
+                }
+                categories.add(new String[]{nextLine[0]});
+                for (int i = 1; i != nextLine.length; ++i) {
+                    double value = Double.parseDouble(nextLine[i]);
+                    if (value < 0) {
+                        throw new InputMismatchException("Negative distance at row " + rowIndex + ", column " +
+                                (i - 1));
+                    }
+                    if (value < threshold) {
+                        builder.add(rowIndex, i - 1, value);
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        if (categories.isEmpty() || numColumns != categories.size()) {
+            throw new InputMismatchException("The distance matrix must be square and non empty");
+        }
+        return new Problem(builder.build(categories.size(), cacheCapacity), extractRanges(categories));
+    }
+
+
+    /**
+     * Read a sparse distance matrix as an edge list, in an header-less csv format (the separator is ",").
+     * <p/>
+     * Assuming m categories with a total of n objects, the lines are either
+     * category (integer, [0..m]), one line per object, the objects being numbered in the order of these lines
+     * or from (integer, [0..n[), to (integer, [0..n[), distance (double), one line per listed cost.
+     * Every cost not listed, diagonal included, is the default distance.
+     * <p/>
+     * WARNINGS:
+     * - the matrix isn't necessarily symmetrical, list both directions if it is.
+     * - the objects must be grouped together (separated by category), as for readDistancesFile
+     * - e.g. 0
+     * 0
+     * 1
+     * 0,1,2.5
+     * 1,0,2.5
+     * 2,2,1
+     *
+     * @param fileName      file path to open
+     * @param defaultValue  distance of the pairs not listed (non-negative)
+     * @param cacheCapacity maximum number of assembled rows kept in memory
+     * @return Problem instance
+     */
+    public static Problem readEdgeListFile(String fileName, double defaultValue, int cacheCapacity)
+            throws IOException {
+        SparseDistances.Builder builder = new SparseDistances.Builder(defaultValue);
+        ArrayList<String[]> categories = new ArrayList<>();
+        CSVReader reader = new CSVReader(new FileReader(fileName));
+        try {
+            String[] nextLine;
+            int lineIndex = 0;
+            while ((nextLine = reader.readNext()) != null) {
+                ++lineIndex;
+                if (nextLine.length == 1) {
+                    if (!nextLine[0].trim().isEmpty()) {
+                        categories.add(new String[]{nextLine[0]});
+                    }
+                } else if (nextLine.length == 3) {
+                    int from = Integer.parseInt(nextLine[0].trim());
+                    int to = Integer.parseInt(nextLine[1].trim());
+                    double value = Double.parseDouble(nextLine[2]);
+                    if (from < 0 || to < 0 || value < 0) {
+                        throw new InputMismatchException("Invalid edge at line " + lineIndex);
+                    }
+                    builder.add(from, to, value);
+                } else {
+                    throw new InputMismatchException("Line " + lineIndex + " is neither a category nor an edge");
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        if (categories.isEmpty()) {
+            throw new InputMismatchException("The edge list declares no object");
+        }
+        try {
+            return new Problem(builder.build(categories.size(), cacheCapacity), extractRanges(categories));
+        } catch (IllegalArgumentException e) {
+            throw new InputMismatchException(e.getMessage());
+        }
+    }
+
+
+    /**
+     * Read the ranges of a problem file (distances or features) without parsing its values,
+     * e.g. to remap the solutions of a previous version of the problem
+     *
+     * @param fileName file path to open
+     * @return [begin, end[ coordinates of each category
+     */
+    public static ArrayList<Range> readRanges(String fileName) throws IOException {
+        ArrayList<String[]> categories = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new FileReader(fileName));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                int separator = line.indexOf(',');
+                categories.add(new String[]{(separator == -1) ? line : line.substring(0, separator)});
+            }
+        } finally {
+            reader.close();
+        }
+        return extractRanges(categories);
+    }
+
+
+    /**
+     * Read solutions in the csv format written by SolutionWriter ("score,gene_1,..,gene_k"),
+     * the optional header line is skipped
+     *
+     * @param fileName file path to open
+     * @return list of solutions
+     */
+    public static ArrayList<Solution> readSolutionsFile(String fileName) throws IOException {
+        CSVReader reader = new CSVReader(new FileReader(fileName));
+        ArrayList<Solution> solutions = new ArrayList<>();
+        String[] nextLine;
+        boolean first = true;
+        while ((nextLine = reader.readNext()) != null) {
+            if (first && nextLine[0].equals("score")) {
+                first = false;
+                continue;
+            }
+            first = false;
+            if (nextLine.length < 2) {
+                continue;
+            }
+            ArrayList<Integer> genes = new ArrayList<>();
+            for (int i = 1; i != nextLine.length; ++i) {
+                genes.add(Integer.parseInt(nextLine[i].trim()));
+            }
+            solutions.add(new Solution(genes, Double.parseDouble(nextLine[0])));
+        }
+        reader.close();
+        return solutions;
+    }
+
+
+    /**
+     * Separate the rows in ranges of consecutive rows sharing the same category (first column)
+     *
+     * @param rows csv rows, category first
+     * @return [begin, end[ coordinates of each category
+     */
+    static ArrayList<Range> extractRanges(ArrayList<String[]> rows) {
+        ArrayList<Range> ranges = new ArrayList<>();
+
+        // separate by categories
+        int rangeBegin = 0;
+        for (int rowIndex = 1; rowIndex != rows.size(); ++rowIndex) {
+            if (rows.get(rowIndex - 1)[0].compareTo(rows.get(rowIndex)[0]) != 0) {
+                // new range!
+                ranges.add(new Range(rangeBegin, rowIndex, rows.get(rangeBegin)[0]));
+                rangeBegin = rowIndex;
+            }
+        }
+
+        if (rangeBegin != rows.size()) {
+            // last one is not in there
+            ranges.add(new Range(rangeBegin, rows.size(), rows.get(rangeBegin)[0]));
+        }
+        return ranges;
+    }
 }
 
 
@@ -0,0 +1,263 @@
+package kcliquesolver.core.io;
+
+import kcliquesolver.core.models.Range;
+import kcliquesolver.core.models.Solution;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+
+
+/**
+ * Streaming writer of unique solutions.
+ * <p/>
+ * Solutions are formatted directly from their primitives into a single reusable buffer,
+ * which is drained into the channel (file or standard output) whenever it is full.
+ * Duplicated solutions are only written once.
+ * <p/>
+ * Formats:
+ * - CSV: "score,gene_1,..,gene_k" per line, optionally preceded by a "score,label_1,..,label_k" header
+ * - JSONL: {"score":s,"genes":[..],"categories":[..]} per line, s being null for an infinite or NaN score
+ * - BINARY (big endian): magic "KCLQ", int k, k labels (short length + UTF-8 bytes),
+ * then per solution a double score followed by k ints
+ */
+public class SolutionWriter implements Closeable {
+
+    public enum Format {
+        CSV, JSONL, BINARY
+    }
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] JSON_SCORE = "{\"score\":".getBytes(UTF8);
+    private static final byte[] JSON_GENES = ",\"genes\":[".getBytes(UTF8);
+    private static final byte[] JSON_NULL = "null".getBytes(UTF8);
+
+    // largest integral value for which Double.toString does not use the scientific notation
+    private static final double PLAIN_NOTATION_LIMIT = 1e7;
+
+    private final WritableByteChannel channel;
+    private final Format format;
+    private final int numGenes;
+    private final ByteBuffer buffer;
+    private final HashSet<Solution> written = new HashSet<>();
+
+    // constant part of each JSONL record, pre-encoded once
+    private final byte[] jsonCategories;
+
+    // scratch space for integer formatting
+    private final byte[] digits = new byte[20];
+
+    /**
+     * @param channel destination of the output, closed with the writer
+     * @param format  output format
+     * @param ranges  ranges of the problem solved, used for the category labels
+     * @param header  whether or not to start CSV output with a header of labels
+     */
+    public SolutionWriter(WritableByteChannel channel, Format format,
+                          ArrayList<Range> ranges, boolean header) throws IOException {
+        this.channel = channel;
+        this.format = format;
+        this.numGenes = ranges.size();
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        String[] labels = new String[ranges.size()];
+        for (int i = 0; i != ranges.size(); ++i) {
+            String label = ranges.get(i).getLabel();
+            labels[i] = (label == null) ? String.valueOf(i) : label;
+        }
+
+        StringBuilder builder = new StringBuilder("],\"categories\":[");
+        for (int i = 0; i != labels.length; ++i) {
+            if (i != 0) {
+                builder.append(',');
+            }
+            appendJsonString(builder, labels[i]);
+        }
+        builder.append("]}\n");
+        this.jsonCategories = builder.toString().getBytes(UTF8);
+
+        if (format == Format.CSV && header) {
+            StringBuilder line = new StringBuilder("score");
+            for (String label : labels) {
+                line.append(',');
+                line.append(label);
+            }
+            line.append('\n');
+            putBytes(line.toString().getBytes(UTF8));
+        } else if (format == Format.BINARY) {
+            putBytes("KCLQ".getBytes(UTF8));
+            ensureCapacity(4);
+            buffer.putInt(labels.length);
+            for (String label : labels) {
+                byte[] encoded = label.getBytes(UTF8);
+                ensureCapacity(2);
+                buffer.putShort((short) encoded.length);
+                putBytes(encoded);
+            }
+        }
+    }
+
+
+    /**
+     * Write a solution, unless an identical one was already written
+     *
+     * @param solution solution to output
+     * @return whether or not the solution was written
+     */
+    public boolean write(Solution solution) throws IOException {
+        if (solution.size() != numGenes) {
+            throw new IllegalArgumentException("Solution size (" + solution.size() +
+                    ") does not match the number of ranges (" + numGenes + ")");
+        }
+        if (!written.add(solution)) {
+            return false;
+        }
+
+        switch (format) {
+            case CSV:
+                putDouble(solution.getScore());
+                for (int i = 0; i != numGenes; ++i) {
+                    putByte((byte) ',');
+                    putInt(solution.getGene(i));
+                }
+                putByte((byte) '\n');
+                break;
+            case JSONL:
+                putBytes(JSON_SCORE);
+                // JSON has no infinite or NaN numbers
+                if (Double.isInfinite(solution.getScore()) || Double.isNaN(solution.getScore())) {
+                    putBytes(JSON_NULL);
+                } else {
+                    putDouble(solution.getScore());
+                }
+                putBytes(JSON_GENES);
+                for (int i = 0; i != numGenes; ++i) {
+                    if (i != 0) {
+                        putByte((byte) ',');
+                    }
+                    putInt(solution.getGene(i));
+                }
+                putBytes(jsonCategories);
+                break;
+            case BINARY:
+                ensureCapacity(8);
+                buffer.putDouble(solution.getScore());
+                for (int i = 0; i != numGenes; ++i) {
+                    ensureCapacity(4);
+                    buffer.putInt(solution.getGene(i));
+                }
+                break;
+        }
+        return true;
+    }
+
+
+    /**
+     * Write every unique solution of the list
+     *
+     * @param solutions solutions to output
+     * @return number of solutions written
+     */
+    public int writeAll(ArrayList<Solution> solutions) throws IOException {
+        int count = 0;
+        for (Solution solution : solutions) {
+            if (write(solution)) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+
+    /**
+     * Drain the buffer into the channel
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+
+    private void ensureCapacity(int numBytes) throws IOException {
+        if (buffer.remaining() < numBytes) {
+            flush();
+        }
+    }
+
+    private void putByte(byte value) throws IOException {
+        ensureCapacity(1);
+        buffer.put(value);
+    }
+
+    private void putBytes(byte[] values) throws IOException {
+        int offset = 0;
+        while (offset != values.length) {
+            ensureCapacity(1);
+            int length = Math.min(buffer.remaining(), values.length - offset);
+            buffer.put(values, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * ASCII decimal representation of an integer, without intermediate String
+     */
+    private void putInt(int value) throws IOException {
+        ensureCapacity(digits.length);
+        long remaining = value;
+        if (remaining < 0) {
+            buffer.put((byte) '-');
+            remaining = -remaining;
+        }
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + (remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+        buffer.put(digits, position, digits.length - position);
+    }
+
+    /**
+     * Same representation as Double.toString, integral scores (the common case) avoid the String allocation
+     */
+    private void putDouble(double value) throws IOException {
+        if (value == Math.rint(value) && Math.abs(value) < PLAIN_NOTATION_LIMIT
+                && !(value == 0. && 1. / value < 0.)) {
+            putInt((int) value);
+            putByte((byte) '.');
+            putByte((byte) '0');
+        } else {
+            putBytes(Double.toString(value).getBytes(UTF8));
+        }
+    }
+
+    private static void appendJsonString(StringBuilder builder, String value) {
+        builder.append('"');
+        for (int i = 0; i != value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        builder.append('"');
+    }
+}
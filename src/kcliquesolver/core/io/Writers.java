@@ -1,37 +1,62 @@
 package kcliquesolver.core.io;
 
 
-
-import com.opencsv.CSVWriter;
+import kcliquesolver.core.models.Range;
 import kcliquesolver.core.models.Solution;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.HashSet;
 
 public final class Writers {
 
     /**
+     * Open a solution writer over a file (created or truncated)
      *
-     * @param solutions
+     * @param fileName file path to write to
+     * @param format   output format
+     * @param ranges   ranges of the problem solved (category labels)
+     * @param header   whether or not to output a header of labels (CSV only)
+     * @return solution writer, to close once done
      */
-    public static void printUniqueSolutions(ArrayList<Solution> solutions, Writer writer) throws IOException {
+    public static SolutionWriter openFile(String fileName, SolutionWriter.Format format,
+                                          ArrayList<Range> ranges, boolean header) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new SolutionWriter(channel, format, ranges, header);
+    }
 
 
-        CSVWriter csvWriter = new CSVWriter(writer, ',', CSVWriter.NO_QUOTE_CHARACTER);
+    /**
+     * Open a solution writer over the standard output
+     *
+     * @param format output format
+     * @param ranges ranges of the problem solved (category labels)
+     * @param header whether or not to output a header of labels (CSV only)
+     * @return solution writer, to close once done
+     */
+    public static SolutionWriter openStandardOutput(SolutionWriter.Format format,
+                                                    ArrayList<Range> ranges, boolean header) throws IOException {
+        return new SolutionWriter(new FileOutputStream(FileDescriptor.out).getChannel(), format, ranges, header);
+    }
 
-        HashSet<Solution> uniqueSolutions = new HashSet<>();
-        for (int index = 0; index != solutions.size(); ++index) {
-            Solution solution = solutions.get(index);
-            if (!uniqueSolutions.contains(solution)) {
-                uniqueSolutions.add(solution);
 
-                // score;gene1;gene2;gene3;gene4...
-                csvWriter.writeNext(solution.toString().split(","));
-            }
+    /**
+     * Write each unique solution once, then close the writer
+     *
+     * @param solutions solutions to output
+     * @param writer    destination of the solutions
+     */
+    public static void printUniqueSolutions(ArrayList<Solution> solutions, SolutionWriter writer) throws IOException {
+        try {
+            writer.writeAll(solutions);
+        } finally {
+            writer.close();
         }
-        csvWriter.close();
     }
 
 
@@ -1,34 +1,54 @@
 package kcliquesolver.core.models;
 
 
+import kcliquesolver.core.distances.DenseDistances;
+import kcliquesolver.core.distances.DistanceProvider;
+
 import java.util.ArrayList;
 import java.util.InputMismatchException;
 
 public class Problem {
 
     final ArrayList<Range> ranges;
-    final double[][] distanceMatrix;
+    final DistanceProvider distances;
 
 
     public Problem(double[][] distanceMatrix, ArrayList<Range> ranges) {
         this.ranges = ranges;
-        this.distanceMatrix = distanceMatrix;
+        this.distances = new DenseDistances(distanceMatrix);
 
         if (!(squareDistanceMatrix(distanceMatrix) &&
                 noNegativeValues(distanceMatrix) &&
-                correctRanges(ranges, distanceMatrix))) {
+                correctRanges(ranges, distanceMatrix.length))) {
             throw new InputMismatchException("The distance matrix and ranges specified contain mistakes");
         }
 
     }
 
 
+    /**
+     * Constructor for distances that are not (necessarily) materialized.
+     * Only the ranges are verified, the provider is responsible for non-negative distances.
+     *
+     * @param distances source of the pairwise costs between objects
+     * @param ranges    [begin, end[ coordinates of each set of objects
+     */
+    public Problem(DistanceProvider distances, ArrayList<Range> ranges) {
+        this.ranges = ranges;
+        this.distances = distances;
+
+        if (!correctRanges(ranges, distances.size())) {
+            throw new InputMismatchException("The distances and ranges specified contain mistakes");
+        }
+    }
+
+
     public ArrayList<Range> getRanges() {
         return ranges;
     }
 
-    public double[][] getDistanceMatrix() {
-        return distanceMatrix;
+    public DistanceProvider getDistances() {
+        return distances;
     }
 
 
@@ -53,15 +73,15 @@ public class Problem {
      * and that ranges are ordered, cover the whole interval and never overlap.
      * Should be done after the squareDistanceMatrix call (otherwise potential for mistake).
      *
-     * @param ranges         [begin, end[ coordinates of each set of objects
-     * @param distanceMatrix square distance matrix of distance between all objects
+     * @param ranges  [begin, end[ coordinates of each set of objects
+     * @param numRows number of rows (objects) of the square distance matrix
      * @return boolean, whether or not the ranges are correctly specifying the distance matrix
      */
-    static boolean correctRanges(ArrayList<Range> ranges, double[][] distanceMatrix) {
-        int lastIndex = 0;
+    static boolean correctRanges(ArrayList<Range> ranges, int numRows) {
         if (ranges.get(0).getFirst() != 0) {
             return false;
         }
+        int lastIndex = ranges.get(0).getSecond();
         for (int x = 0; x != ranges.size() - 1; ++x) {
             Range range1 = ranges.get(x);
             Range range2 = ranges.get(x + 1);
@@ -70,7 +90,7 @@ public class Problem {
             }
             lastIndex = range2.getSecond();
         }
-        return lastIndex == distanceMatrix.length;
+        return lastIndex == numRows;
     }
 
 
@@ -88,9 +108,9 @@ public class Problem {
 
         // output the distance matrix
         builder.append(System.lineSeparator());
-        for (int x = 0; x != distanceMatrix.length; ++x){
-            for (int y = 0; y != distanceMatrix[x].length; ++y){
-                builder.append(distanceMatrix[x][y]);
+        for (int x = 0; x != distances.size(); ++x){
+            for (int y = 0; y != distances.size(); ++y){
+                builder.append(distances.get(x, y));
                 builder.append(" ");
             }
             builder.append(System.lineSeparator());
@@ -0,0 +1,188 @@
+package kcliquesolver.core.models;
+
+import kcliquesolver.core.distances.DenseDistances;
+import kcliquesolver.core.distances.DistanceProvider;
+
+import java.util.ArrayList;
+import java.util.InputMismatchException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Small changes to a loaded problem: updated rows and columns of the distance matrix, and new objects
+ * appended at the end of their range. Applying the patch creates a new problem, without reparsing
+ * anything and sharing the rows left unchanged, so the original problem stays valid (solvers running on it
+ * are unaffected and its solutions can be remapped with WarmStart). Only the patched values are validated,
+ * the rest of the matrix was validated with the original problem.
+ * <p/>
+ * Row and column updates use the indices of the original problem and are applied first,
+ * new objects are then inserted (their rows and columns use the indices of the patched problem).
+ * Only problems with a dense distance matrix can be patched (see canPatch): the other providers compute or
+ * look up their distances, the problem must be read again from the updated input instead.
+ */
+public class ProblemPatch {
+
+    private final LinkedHashMap<Integer, double[]> rows = new LinkedHashMap<>();
+    private final LinkedHashMap<Integer, double[]> columns = new LinkedHashMap<>();
+    private final ArrayList<Integer> newObjectRanges = new ArrayList<>();
+    private final ArrayList<double[]> newObjectRows = new ArrayList<>();
+    private final ArrayList<double[]> newObjectColumns = new ArrayList<>();
+
+    /**
+     * @param index  object index in the original problem
+     * @param values new distances from the object, one per object of the original problem
+     * @return this patch
+     */
+    public ProblemPatch setRow(int index, double[] values) {
+        rows.put(index, values);
+        return this;
+    }
+
+    /**
+     * @param index  object index in the original problem
+     * @param values new distances to the object, one per object of the original problem
+     * @return this patch
+     */
+    public ProblemPatch setColumn(int index, double[] values) {
+        columns.put(index, values);
+        return this;
+    }
+
+    /**
+     * @param rangeIndex index of the range the new object is appended to
+     * @param row        distances from the new object, one per object of the patched problem
+     * @param column     distances to the new object, one per object of the patched problem
+     *                   (the diagonal is taken from the row)
+     * @return this patch
+     */
+    public ProblemPatch addObject(int rangeIndex, double[] row, double[] column) {
+        newObjectRanges.add(rangeIndex);
+        newObjectRows.add(row);
+        newObjectColumns.add(column);
+        return this;
+    }
+
+
+    /**
+     * @param problem problem to patch
+     * @return whether or not the distances of the problem can be patched (dense distance matrix)
+     */
+    public static boolean canPatch(Problem problem) {
+        return problem.getDistances() instanceof DenseDistances;
+    }
+
+
+    /**
+     * @param problem problem to patch (left unchanged)
+     * @return patched problem
+     */
+    public Problem apply(Problem problem) {
+        DistanceProvider distances = problem.getDistances();
+        if (!canPatch(problem)) {
+            throw new IllegalArgumentException("Only problems with a dense distance matrix can be patched, the " +
+                    distances.getClass().getSimpleName() + " of this problem must be read again from its input");
+        }
+        double[][] original = ((DenseDistances) distances).getDistanceMatrix();
+        int size = original.length;
+        for (Map.Entry<Integer, double[]> entry : rows.entrySet()) {
+            checkIndex(entry.getKey(), size);
+            checkValues(entry.getValue(), size);
+        }
+        for (Map.Entry<Integer, double[]> entry : columns.entrySet()) {
+            checkIndex(entry.getKey(), size);
+            checkValues(entry.getValue(), size);
+        }
+
+        // updates, copying only the rows that change
+        double[][] matrix = original.clone();
+        for (Map.Entry<Integer, double[]> entry : rows.entrySet()) {
+            matrix[entry.getKey()] = entry.getValue().clone();
+        }
+        for (int i = 0; i != size && !columns.isEmpty(); ++i) {
+            boolean copied = rows.containsKey(i);
+            for (Map.Entry<Integer, double[]> entry : columns.entrySet()) {
+                double value = entry.getValue()[i];
+                if (matrix[i][entry.getKey()] != value) {
+                    if (!copied) {
+                        matrix[i] = matrix[i].clone();
+                        copied = true;
+                    }
+                    matrix[i][entry.getKey()] = value;
+                }
+            }
+        }
+        if (newObjectRanges.isEmpty()) {
+            return new Problem(new DenseDistances(matrix), problem.getRanges());
+        }
+
+        // insertions: old index i moves to mapping[i], new objects go at the end of their range
+        ArrayList<Range> ranges = problem.getRanges();
+        int[] added = new int[ranges.size()];
+        for (int rangeIndex : newObjectRanges) {
+            checkIndex(rangeIndex, ranges.size());
+            added[rangeIndex] += 1;
+        }
+        int newSize = size + newObjectRanges.size();
+        for (int n = 0; n != newObjectRanges.size(); ++n) {
+            checkValues(newObjectRows.get(n), newSize);
+            checkValues(newObjectColumns.get(n), newSize);
+        }
+        int[] mapping = new int[size];
+        int[] nextInsertion = new int[ranges.size()];
+        ArrayList<Range> newRanges = new ArrayList<>();
+        int shift = 0;
+        for (int r = 0; r != ranges.size(); ++r) {
+            Range range = ranges.get(r);
+            for (int i = range.getFirst(); i != range.getSecond(); ++i) {
+                mapping[i] = i + shift;
+            }
+            newRanges.add(new Range(range.getFirst() + shift, range.getSecond() + shift + added[r], range.getLabel()));
+            nextInsertion[r] = range.getSecond() + shift;
+            shift += added[r];
+        }
+        int[] newIndices = new int[newObjectRanges.size()];
+        for (int n = 0; n != newIndices.length; ++n) {
+            newIndices[n] = nextInsertion[newObjectRanges.get(n)]++;
+        }
+
+        double[][] expanded = new double[newSize][];
+        for (int i = 0; i != size; ++i) {
+            double[] row = new double[newSize];
+            for (int j = 0; j != size; ++j) {
+                row[mapping[j]] = matrix[i][j];
+            }
+            expanded[mapping[i]] = row;
+        }
+        for (int n = 0; n != newIndices.length; ++n) {
+            expanded[newIndices[n]] = newObjectRows.get(n).clone();
+        }
+        for (int n = 0; n != newIndices.length; ++n) {
+            double[] column = newObjectColumns.get(n);
+            for (int i = 0; i != newSize; ++i) {
+                if (i != newIndices[n]) {
+                    expanded[i][newIndices[n]] = column[i];
+                }
+            }
+        }
+        return new Problem(new DenseDistances(expanded), newRanges);
+    }
+
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new InputMismatchException("Patch index " + index + " out of [0, " + size + ")");
+        }
+    }
+
+    private static void checkValues(double[] values, int expected) {
+        if (values.length != expected) {
+            throw new InputMismatchException("Patch values have length " + values.length + ", expected " + expected);
+        }
+        for (double value : values) {
+            if (!(value >= 0.)) {
+                throw new InputMismatchException("Patch values must be non-negative (" + value + ")");
+            }
+        }
+    }
+}
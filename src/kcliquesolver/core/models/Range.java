@@ -5,14 +5,25 @@ import java.util.InputMismatchException;
 public class Range {
     protected final int first;
     protected final int second;
+    protected final String label;
 
     public Range(int first, int second) throws InputMismatchException{
+        this(first, second, null);
+    }
+
+    /**
+     * @param first  first object index of the range (inclusive)
+     * @param second last object index of the range (exclusive)
+     * @param label  category label of the objects in the range (may be null)
+     */
+    public Range(int first, int second, String label) throws InputMismatchException{
         if(first > second){
             throw new InputMismatchException("First index must be <= to second index (first = " +
                     first +", second = " + second + ")");
         }
         this.first = first;
         this.second = second;
+        this.label = label;
     }
 
     public int getFirst() {
@@ -22,4 +33,8 @@ public class Range {
     public int getSecond() {
         return second;
     }
-}
\ No newline at end of file
+
+    public String getLabel() {
+        return label;
+    }
+}
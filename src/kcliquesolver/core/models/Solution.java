@@ -55,6 +55,20 @@ public class Solution implements Comparable<Solution> {
         return new ArrayList<>(genes);
     }
 
+    /**
+     * Read a single gene without copying the gene list
+     *
+     * @param index position of the gene
+     * @return object index chosen at that position
+     */
+    public int getGene(final int index) {
+        return genes.get(index);
+    }
+
+    public int size() {
+        return genes.size();
+    }
+
 
     /**
      * String representation for a solution is : "score,index_1,index_2,..,index_n"
@@ -96,4 +110,11 @@ public class Solution implements Comparable<Solution> {
         final Solution other = (Solution) obj;
         return score.compareTo(other.getScore()) == 0 && genes.equals(other.genes);
     }
+
+
+    @Override
+    public int hashCode() {
+        // consistent with equals, Double.hashCode follows Double.compareTo equality
+        return 31 * genes.hashCode() + score.hashCode();
+    }
 }
@@ -0,0 +1,112 @@
+package kcliquesolver.core.models;
+
+import kcliquesolver.core.distances.DistanceProvider;
+import kcliquesolver.core.distances.SubsetDistances;
+
+import java.util.ArrayList;
+
+
+/**
+ * View of a problem restricted to a subset of its ranges, the genes of the other ranges being fixed.
+ * <p/>
+ * The view is a problem of its own over the objects of the selected ranges (renumbered from 0, the ranges in the
+ * order given), whose distances are read from the original ones (see SubsetDistances). The costs between each
+ * object and the fixed genes, in both directions, are added to its diagonal, so that the score of a solution of
+ * the view is the score of the whole solution minus a constant: improving one improves the other by as much.
+ * Building the view costs O(m * k) for m objects in the selected ranges.
+ */
+public class SubProblem {
+
+    private final Problem problem;
+    private final int[] rangeIndices;
+    private final int[] firstObjects;
+
+    /**
+     * @param parent        problem to restrict
+     * @param rangeIndices  ranges of the parent kept in the view, in their order in the view
+     * @param genes         current solution of the parent, one gene per range (the fixed genes)
+     * @param cacheCapacity maximum number of rows of the view kept in memory
+     */
+    public SubProblem(Problem parent, int[] rangeIndices, int[] genes, int cacheCapacity) {
+        ArrayList<Range> parentRanges = parent.getRanges();
+        if (genes.length != parentRanges.size()) {
+            throw new IllegalArgumentException("One gene per range expected (" + genes.length + " for " +
+                    parentRanges.size() + " ranges)");
+        }
+        if (rangeIndices.length == 0) {
+            throw new IllegalArgumentException("A subproblem needs at least one range");
+        }
+        boolean[] selected = new boolean[parentRanges.size()];
+        int numObjects = 0;
+        for (int index : rangeIndices) {
+            if (index < 0 || index >= parentRanges.size() || selected[index]) {
+                throw new IllegalArgumentException("Invalid or repeated range index " + index);
+            }
+            selected[index] = true;
+            numObjects += parentRanges.get(index).getSecond() - parentRanges.get(index).getFirst();
+        }
+        this.rangeIndices = rangeIndices.clone();
+        this.firstObjects = new int[rangeIndices.length];
+
+        // renumbered objects and ranges, and the costs of each object towards and from the fixed genes
+        DistanceProvider distances = parent.getDistances();
+        int[] objects = new int[numObjects];
+        double[] fixedCosts = new double[numObjects];
+        ArrayList<Range> ranges = new ArrayList<>();
+        int local = 0;
+        for (int r = 0; r != rangeIndices.length; ++r) {
+            Range range = parentRanges.get(rangeIndices[r]);
+            firstObjects[r] = range.getFirst();
+            ranges.add(new Range(local, local + range.getSecond() - range.getFirst(), range.getLabel()));
+            for (int object = range.getFirst(); object != range.getSecond(); ++object, ++local) {
+                objects[local] = object;
+                double[] row = distances.getRow(object);
+                for (int i = 0; i != genes.length; ++i) {
+                    if (!selected[i]) {
+                        fixedCosts[local] += row[genes[i]] + distances.get(genes[i], object);
+                    }
+                }
+            }
+        }
+        this.problem = new Problem(new SubsetDistances(distances, objects, fixedCosts, cacheCapacity), ranges);
+    }
+
+    /**
+     * @return the restricted problem
+     */
+    public Problem getProblem() {
+        return problem;
+    }
+
+    /**
+     * @return ranges of the parent kept in the view, in their order in the view
+     */
+    public int[] getRangeIndices() {
+        return rangeIndices.clone();
+    }
+
+    /**
+     * @param genes solution of the parent
+     * @return genes of the selected ranges, numbered as in the view
+     */
+    public ArrayList<Integer> restrict(int[] genes) {
+        ArrayList<Integer> restricted = new ArrayList<>();
+        for (int r = 0; r != rangeIndices.length; ++r) {
+            restricted.add(genes[rangeIndices[r]] - firstObjects[r] + problem.getRanges().get(r).getFirst());
+        }
+        return restricted;
+    }
+
+    /**
+     * Write the genes of a solution of the view into a solution of the parent, the other genes are left unchanged
+     *
+     * @param solution solution of the view
+     * @param genes    solution of the parent, updated in place
+     */
+    public void expand(Solution solution, int[] genes) {
+        ArrayList<Integer> restricted = solution.getGenes();
+        for (int r = 0; r != rangeIndices.length; ++r) {
+            genes[rangeIndices[r]] = restricted.get(r) - problem.getRanges().get(r).getFirst() + firstObjects[r];
+        }
+    }
+}
@@ -285,6 +285,24 @@ public class RngStream {
     }
 
 
+    /* Jump a state to the start of the next substream, as resetNextSubstream
+       does, without any stream (the package seed is left untouched). */
+    static void nextSubstream (double state[])  {
+        int i;
+        matVecModM (A1p76, state, state, m1);
+        double temp[] = new double[3];
+        for (i = 0; i < 3; ++i) temp[i] = state[i + 3];
+        matVecModM (A2p76, temp, temp, m2);
+        for (i = 0; i < 3; ++i) state[i + 3] = temp[i];
+    }
+
+
+    /* Whether or not the seeds are legitimate values for setSeed. */
+    static boolean validSeed (long seed[])  {
+        return CheckSeed (seed) == 0;
+    }
+
+
     public void setAntithetic (boolean a)  {
         anti = a;
     }
@@ -0,0 +1,56 @@
+package kcliquesolver.core.rng;
+
+
+/**
+ * Derivation of reproducible, independent seeds from a base seed.
+ * Each derived seed is the start of a different substream of the base stream (2^76 values apart),
+ * which keeps runs reproducible without touching the package seed shared by RngStream instances: the seeds are
+ * derived by the substream jumps alone, no stream is created, so they can be derived from any thread.
+ */
+public final class StreamSeeds {
+
+    private StreamSeeds() {
+    }
+
+    /**
+     * @param seeds base seeds of the stream (6 values, as for RngStream.setSeed)
+     * @param index index of the substream to start from
+     * @return seeds of the index-th substream
+     */
+    public static long[] substream(long[] seeds, int index) {
+        return substreams(seeds, index, 1)[0];
+    }
+
+    /**
+     * Seeds of consecutive substreams, walking the base stream once (substream would restart from the base
+     * for every index)
+     *
+     * @param seeds base seeds of the stream (6 values, as for RngStream.setSeed)
+     * @param first index of the first substream
+     * @param count number of consecutive substreams
+     * @return seeds of the substreams first to first + count - 1
+     */
+    public static long[][] substreams(long[] seeds, int first, int count) {
+        if (!RngStream.validSeed(seeds)) {
+            throw new IllegalArgumentException("Invalid seeds for the random stream");
+        }
+        double[] state = new double[6];
+        for (int i = 0; i != 6; ++i) {
+            state[i] = seeds[i];
+        }
+        for (int i = 0; i != first; ++i) {
+            RngStream.nextSubstream(state);
+        }
+        long[][] derived = new long[count][];
+        for (int index = 0; index != count; ++index) {
+            if (index != 0) {
+                RngStream.nextSubstream(state);
+            }
+            derived[index] = new long[state.length];
+            for (int i = 0; i != state.length; ++i) {
+                derived[index][i] = (long) state[i];
+            }
+        }
+        return derived;
+    }
+}
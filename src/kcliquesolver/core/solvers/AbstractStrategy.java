@@ -1,5 +1,8 @@
 package kcliquesolver.core.solvers;
 
+import kcliquesolver.core.distances.BlockedDistances;
+import kcliquesolver.core.distances.DistanceProvider;
+import kcliquesolver.core.distances.SparseDistances;
 import kcliquesolver.core.models.Problem;
 import kcliquesolver.core.models.Range;
 import kcliquesolver.core.models.Solution;
@@ -8,6 +11,8 @@ import kcliquesolver.core.rng.RngStream;
 
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 
 
 /**
@@ -19,21 +24,116 @@ public abstract class AbstractStrategy {
     /**
      * calculates and assigns the sum of pairwise cost as the new score of the given solution
      *
-     * @param solution       solution to evaluate
-     * @param distanceMatrix pre-calculated get matrix
+     * @param solution  solution to evaluate
+     * @param distances pairwise costs between objects
      */
-    public static double calculateSumOfPairsScore(Solution solution, double[][] distanceMatrix) {
+    public static double calculateSumOfPairsScore(Solution solution, DistanceProvider distances) {
         double score = 0.;
         ArrayList<Integer> genes = solution.getGenes();
         for (int gene1 : genes) {
+            double[] row = distances.getRow(gene1);
             for (int gene2 : genes) {
-                score += distanceMatrix[gene1][gene2];
+                score += row[gene2];
             }
         }
         return score;
     }
 
 
+    /**
+     * Sum of pairwise costs of the genes stored in a slice of an array (see PopulationStore)
+     *
+     * @param genes     array holding the genes
+     * @param offset    position of the first gene
+     * @param length    number of genes (k)
+     * @param distances pairwise costs between objects
+     * @return score of the genes, as calculateSumOfPairsScore
+     */
+    public static double calculateSumOfPairsScore(int[] genes, int offset, int length, DistanceProvider distances) {
+        if (distances instanceof BlockedDistances) {
+            return ((BlockedDistances) distances).score(genes, offset, length);
+        }
+        if (distances instanceof SparseDistances) {
+            return ((SparseDistances) distances).score(genes, offset, length);
+        }
+        double score = 0.;
+        int end = offset + length;
+        for (int i = offset; i != end; ++i) {
+            double[] row = distances.getRow(genes[i]);
+            for (int j = offset; j != end; ++j) {
+                score += row[genes[j]];
+            }
+        }
+        return score;
+    }
+
+
+    /**
+     * Sum of pairwise costs of the genes of a slice, derived from the score of a reference slice (the parent it
+     * was copied from) by only updating the pairs involving the positions where both differ: O(changed * k)
+     * instead of O(k^2). Beyond a quarter of the genes changed, a full evaluation is cheaper and is done instead.
+     * <p/>
+     * The result is exact for integral costs, with real costs it may differ from a full evaluation by rounding.
+     *
+     * @param genes           array holding the genes
+     * @param offset          position of the first gene
+     * @param reference       array holding the genes of the reference
+     * @param referenceOffset position of the first gene of the reference
+     * @param referenceScore  score of the reference
+     * @param length          number of genes (k)
+     * @param distances       pairwise costs between objects
+     * @param changed         workspace of at least length positions
+     * @return score of the genes, as calculateSumOfPairsScore
+     */
+    public static double updateSumOfPairsScore(int[] genes, int offset, int[] reference, int referenceOffset,
+                                               double referenceScore, int length, DistanceProvider distances,
+                                               int[] changed) {
+        int numChanged = 0;
+        for (int i = 0; i != length; ++i) {
+            if (genes[offset + i] != reference[referenceOffset + i]) {
+                changed[numChanged++] = i;
+            }
+        }
+        if (numChanged == 0) {
+            return referenceScore;
+        }
+        if (4 * numChanged > length) {
+            return calculateSumOfPairsScore(genes, offset, length, distances);
+        }
+
+        // pairs from a changed position, towards every position
+        double delta = 0.;
+        for (int c = 0; c != numChanged; ++c) {
+            int i = changed[c];
+            if (distances instanceof SparseDistances) {
+                SparseDistances sparse = (SparseDistances) distances;
+                delta += sparse.rowSum(genes[offset + i], genes, offset, length) -
+                        sparse.rowSum(reference[referenceOffset + i], reference, referenceOffset, length);
+                continue;
+            }
+            double[] after = distances.getRow(genes[offset + i]);
+            double[] before = distances.getRow(reference[referenceOffset + i]);
+            for (int j = 0; j != length; ++j) {
+                delta += after[genes[offset + j]] - before[reference[referenceOffset + j]];
+            }
+        }
+        // pairs from an unchanged position towards a changed one (the changed positions are increasing)
+        int next = 0;
+        for (int j = 0; j != length; ++j) {
+            if (next != numChanged && changed[next] == j) {
+                ++next;
+                continue;
+            }
+            int gene = genes[offset + j];
+            for (int c = 0; c != numChanged; ++c) {
+                int i = changed[c];
+                delta += distances.get(gene, genes[offset + i]) - distances.get(gene, reference[referenceOffset + i]);
+            }
+        }
+        return referenceScore + delta;
+    }
+
+
     /**
      * Randomly select one gene per interval (range) and return a list of it
      *
@@ -53,28 +153,38 @@ public abstract class AbstractStrategy {
 
     /**
      * Using the distance matrix, find the change of gene
-     * that brings the most improvement (greedy)
+     * that brings the most improvement (greedy), over the whole range
+     * (the candidate lists only restrict the descents, see SteepestDescent and FirstImprovementDescent)
      *
      * @param genes               current genes chosen
      * @param replacementPosition index of the gene list to investigate
-     * @param distanceMatrix      pre-calculated matrix of cost
+     * @param distances           pairwise costs between objects
      * @param ranges              list of intervals from which to select new genes from
      * @return index of the new gene (-1 if no better) and difference in score
      */
     public static Pair<Integer, Double> findBestSubstitution(ArrayList<Integer> genes,
                                                              int replacementPosition,
-                                                             double[][] distanceMatrix,
+                                                             DistanceProvider distances,
                                                              ArrayList<Range> ranges) {
         // find the best replacement for the allele at position
         double originalCost, currentCost, bestCost;
         int originalGene, bestGene;
         int geneLength = genes.size();
 
+        // fetch the rows of the genes kept fixed once, they are read for every candidate
+        double[][] rows = new double[geneLength][];
+        for (int i = 0; i != geneLength; ++i) {
+            if (i != replacementPosition) {
+                rows[i] = distances.getRow(genes.get(i));
+            }
+        }
+
         // calculate the original cost (without change)
         originalCost = 0.;
         originalGene = genes.get(replacementPosition);
         for (int i = 0; i != geneLength; ++i) {
-            originalCost += distanceMatrix[genes.get(i)][originalGene];
+            originalCost += (i == replacementPosition) ?
+                    distances.get(originalGene, originalGene) : rows[i][originalGene];
         }
 
         // for every possible substitution of the gene at replacement position
@@ -86,10 +196,10 @@ public abstract class AbstractStrategy {
         int end = ranges.get(replacementPosition).getSecond();
         for (int current_gene = begin; current_gene != end; ++current_gene) {
             // calculate the cost with the current replacement
-            genes.set(replacementPosition, current_gene);
             currentCost = 0.;
             for (int i = 0; i != geneLength; ++i) {
-                currentCost += distanceMatrix[genes.get(i)][current_gene];
+                currentCost += (i == replacementPosition) ?
+                        distances.get(current_gene, current_gene) : rows[i][current_gene];
             }
 
             // verify if best found yet, if so, remember the new gene
@@ -107,43 +217,15 @@ public abstract class AbstractStrategy {
      * a local minima is found or maxNumIterations iterations of the substitution are done
      *
      * @param solution         solution to improve
-     * @param distanceMatrix   pre-calculated matrix of cost
+     * @param distances        pairwise costs between objects
      * @param ranges           list of intervals from which to select from
      * @param maxNumIterations maximum number of iterations to perform steepest descent
      */
     public static void steepestDescent(Solution solution,
-                                       double[][] distanceMatrix,
+                                       DistanceProvider distances,
                                        ArrayList<Range> ranges,
                                        int maxNumIterations) {
-        // forward declarations
-        int bestPosition, bestSubstitution;
-        double bestScore;
-        Pair<Integer, Double> substitution;
-        int iteration = 0;
-
-        while (iteration < maxNumIterations) {
-            iteration += 1;
-            bestPosition = -1;
-            bestSubstitution = -1;
-            bestScore = 0.;
-            for (int replacementPosition = 0; replacementPosition != solution.getGenes().size(); ++replacementPosition) {
-                substitution = findBestSubstitution(solution.getGenes(), replacementPosition, distanceMatrix, ranges);
-                if (substitution.getSecond() < bestScore) {
-                    bestPosition = replacementPosition;
-                    bestSubstitution = substitution.getFirst();
-                    bestScore = substitution.getSecond();
-                }
-            }
-            // check if a local minimum is reached
-            if (bestSubstitution == -1) {
-                break;
-            } else {
-                solution.setGene(bestPosition, bestSubstitution);
-            }
-        }
-
-        // recalculate the score
-        solution.setScore(calculateSumOfPairsScore(solution, distanceMatrix));
+        new SteepestDescent().improve(solution, distances, ranges, maxNumIterations);
     }
 
 
@@ -170,6 +252,40 @@ public abstract class AbstractStrategy {
     }
 
 
+    /**
+     * Keep the unique solutions whose score is within the tolerance of the best one.
+     * The tolerance is normalized by the number of pairs, k * (k - 1).
+     *
+     * @param solutions scored solutions (any order)
+     * @param tolerance permitted gap between kept solution and best solution, normalized
+     * @param numRanges number of genes of the solutions (k)
+     * @return unique suitable solutions, sorted by score
+     */
+    public static ArrayList<Solution> selectSuitableSolutions(ArrayList<Solution> solutions, double tolerance,
+                                                              int numRanges) {
+        ArrayList<Solution> sorted = new ArrayList<>(solutions);
+        Collections.sort(sorted);
+
+        ArrayList<Solution> suitableSolutions = new ArrayList<>();
+        if (sorted.isEmpty()) {
+            return suitableSolutions;
+        }
+        double scaledThreshold = tolerance * numRanges * (numRanges - 1);
+        double scoreThreshold = sorted.get(0).getScore() + scaledThreshold;
+        HashSet<Solution> seen = new HashSet<>();
+        for (Solution solution : sorted) {
+            if ((solution.getScore() <= scoreThreshold) && seen.add(solution)) {
+                suitableSolutions.add(new Solution(solution));
+            }
+        }
+        return suitableSolutions;
+    }
+
+
+    // telemetry of the last solve
+    protected SolverStatistics statistics = new SolverStatistics();
+
+
     /**
      * solver interface for the consensus problem
      *
@@ -184,4 +300,13 @@ public abstract class AbstractStrategy {
      * @return verbose (yes or no)
      */
     public abstract boolean isVerbose();
+
+    /**
+     * Fetch the telemetry (best score, time to best, evaluations) of the last solve
+     *
+     * @return statistics of the last call to solve
+     */
+    public SolverStatistics getStatistics() {
+        return statistics;
+    }
 }
@@ -0,0 +1,109 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.rng.RngStream;
+
+
+/**
+ * Adaptive pursuit over a set of arms (operators or operator settings).
+ * <p/>
+ * Each arm keeps an exponential moving average of its rewards (score improvement per nanosecond spent).
+ * In exclusive mode, the arm probabilities sum to one: the best arm is pursued towards pMax and the others
+ * decay towards pMin (Thierens' adaptive pursuit), and select draws a single arm.
+ * In independent mode, each probability is the chance of applying the arm on its own, and is pursued towards
+ * pMin + (pMax - pMin) * quality / bestQuality, so an operator that stops paying off is applied less often
+ * but never disappears.
+ */
+public class AdaptivePursuit {
+
+    private final boolean exclusive;
+    private final double pMin;
+    private final double pMax;
+    private final double learningRate;
+    private final double adaptationRate;
+
+    private final double[] quality;
+    private final double[] probability;
+
+    /**
+     * @param initialProbabilities starting probability of each arm (summing to one in exclusive mode)
+     * @param exclusive            whether a single arm is selected at a time or arms are applied independently
+     * @param pMin                 lowest probability of an arm, keeps every arm measured
+     * @param learningRate         weight of a new reward in the quality estimates, in ]0, 1]
+     * @param adaptationRate       speed at which the probabilities follow the qualities, in ]0, 1]
+     */
+    public AdaptivePursuit(double[] initialProbabilities, boolean exclusive, double pMin,
+                           double learningRate, double adaptationRate) {
+        int numArms = initialProbabilities.length;
+        assert (!exclusive || pMin * numArms < 1.);
+        this.exclusive = exclusive;
+        this.pMin = pMin;
+        this.pMax = exclusive ? 1. - (numArms - 1) * pMin : 1.;
+        this.learningRate = learningRate;
+        this.adaptationRate = adaptationRate;
+        this.quality = new double[numArms];
+        this.probability = initialProbabilities.clone();
+    }
+
+    public int getNumArms() {
+        return probability.length;
+    }
+
+    public double getProbability(int arm) {
+        return probability[arm];
+    }
+
+    public double getQuality(int arm) {
+        return quality[arm];
+    }
+
+    /**
+     * @param arm    arm applied
+     * @param reward measured payoff of the application (score improvement per nanosecond)
+     */
+    public void reward(int arm, double reward) {
+        quality[arm] += learningRate * (reward - quality[arm]);
+    }
+
+    /**
+     * Move the probabilities towards the arms paying off the most, once per generation
+     */
+    public void pursue() {
+        int best = 0;
+        for (int arm = 1; arm != quality.length; ++arm) {
+            if (quality[arm] > quality[best]) {
+                best = arm;
+            }
+        }
+
+        for (int arm = 0; arm != probability.length; ++arm) {
+            double target;
+            if (exclusive) {
+                target = (arm == best) ? pMax : pMin;
+            } else if (quality[best] > 0.) {
+                target = pMin + (pMax - pMin) * Math.max(0., quality[arm]) / quality[best];
+            } else {
+                // nothing pays off, keep the current rates
+                target = probability[arm];
+            }
+            probability[arm] += adaptationRate * (target - probability[arm]);
+        }
+    }
+
+    /**
+     * Roulette wheel selection of an arm (exclusive mode)
+     *
+     * @param stream pseudo-random number generator stream
+     * @return index of the arm selected
+     */
+    public int select(RngStream stream) {
+        double draw = stream.randU01();
+        double cumulative = 0.;
+        for (int arm = 0; arm != probability.length - 1; ++arm) {
+            cumulative += probability[arm];
+            if (draw < cumulative) {
+                return arm;
+            }
+        }
+        return probability.length - 1;
+    }
+}
@@ -0,0 +1,111 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.distances.DistanceProvider;
+import kcliquesolver.core.models.Range;
+
+import java.util.ArrayList;
+
+
+/**
+ * Granular neighborhoods: for every (object, range) pair, the few objects of the range closest to the object.
+ * <p/>
+ * The cost of a candidate at a position is the sum of the costs from the other genes to it, so the candidates
+ * worth examining are the ones close to at least one of the other genes. Restricting a substitution scan to the
+ * union of the lists of the other genes examines O(k * size) candidates instead of the whole range, which pays
+ * off once the ranges are much larger than k * size. The lists follow the rows of the distances: the closest
+ * objects y of a range to x minimize D[x][y].
+ * <p/>
+ * The lists take O(n * k * size) memory, and are computed in O(n^2 * size) reading every row once.
+ * They only depend on the problem, and are immutable once built: they may be shared by threads.
+ */
+public class CandidateLists {
+
+    private final int size;
+    private final int numRanges;
+    private final int[] lengths;
+    private final int[] lists;
+
+    /**
+     * @param distances pairwise costs between objects
+     * @param ranges    list of intervals from which to select from
+     * @param size      number of closest objects kept per (object, range) pair
+     */
+    public CandidateLists(DistanceProvider distances, ArrayList<Range> ranges, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Candidate list size must be positive, got " + size);
+        }
+        long numEntries = (long) distances.size() * ranges.size() * size;
+        if (numEntries > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Candidate lists too large (" + numEntries + " entries)");
+        }
+        this.size = size;
+        this.numRanges = ranges.size();
+        this.lengths = new int[numRanges];
+        for (int b = 0; b != numRanges; ++b) {
+            lengths[b] = Math.min(size, ranges.get(b).getSecond() - ranges.get(b).getFirst());
+        }
+        this.lists = new int[(int) numEntries];
+
+        // insertion into the sorted closest objects, ties keep the lowest index first
+        double[] closestCosts = new double[size];
+        for (Range range : ranges) {
+            for (int object = range.getFirst(); object != range.getSecond(); ++object) {
+                double[] row = distances.getRow(object);
+                for (int b = 0; b != numRanges; ++b) {
+                    int offset = offset(object, b);
+                    int count = 0;
+                    Range other = ranges.get(b);
+                    for (int candidate = other.getFirst(); candidate != other.getSecond(); ++candidate) {
+                        double cost = row[candidate];
+                        if (count == lengths[b] && cost >= closestCosts[count - 1]) {
+                            continue;
+                        }
+                        int position = (count == lengths[b]) ? count - 1 : count++;
+                        while (position > 0 && closestCosts[position - 1] > cost) {
+                            closestCosts[position] = closestCosts[position - 1];
+                            lists[offset + position] = lists[offset + position - 1];
+                            --position;
+                        }
+                        closestCosts[position] = cost;
+                        lists[offset + position] = candidate;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return maximum number of objects per list
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return number of objects in the lists of a range, min(size, |range|)
+     */
+    public int length(int range) {
+        return lengths[range];
+    }
+
+    /**
+     * @return position in getLists of the list of the object towards the range
+     */
+    public int offset(int object, int range) {
+        return (object * numRanges + range) * size;
+    }
+
+    /**
+     * @return every list, each one sorted from the closest object (see offset and length)
+     */
+    public int[] getLists() {
+        return lists;
+    }
+
+    /**
+     * @return index-th closest object of the range to the object
+     */
+    public int get(int object, int range, int index) {
+        return lists[offset(object, range) + index];
+    }
+}
@@ -0,0 +1,172 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.distances.DistanceProvider;
+
+
+/**
+ * Genes of a solution with their rows and per-position contributions, shared by the searches scoring
+ * substitutions incrementally (FirstImprovementDescent, PathRelinking, OptimalRecombination).
+ * <p/>
+ * The contribution of a position is the sum of the costs from and to the other genes, plus its own diagonal
+ * cost: substituting the gene of a position changes the score by the difference of its contributions. A
+ * substitution is evaluated in O(k) and applied in O(k), updating the contributions of every position.
+ * <p/>
+ * The arrays are kept between calls, an instance must not be shared between threads.
+ */
+class ContributionWorkspace {
+
+    private int[] genes = new int[0];
+    private double[][] rows = new double[0][];
+    private double[] contributions = new double[0];
+    // change of the contribution of each position caused by the last move
+    private double[] changes = new double[0];
+
+    /**
+     * @param size number of genes (k)
+     */
+    void allocate(int size) {
+        if (genes.length != size) {
+            genes = new int[size];
+            rows = new double[size][];
+            contributions = new double[size];
+            changes = new double[size];
+        }
+    }
+
+    int size() {
+        return genes.length;
+    }
+
+    /**
+     * @return genes of the workspace, to fill before load and read after the moves
+     */
+    int[] getGenes() {
+        return genes;
+    }
+
+    /**
+     * @return row of the gene at position
+     */
+    double[] getRow(int position) {
+        return rows[position];
+    }
+
+    double getContribution(int position) {
+        return contributions[position];
+    }
+
+    /**
+     * @return change of the contribution of each position caused by the last move (0 at the moved position)
+     */
+    double[] getChanges() {
+        return changes;
+    }
+
+
+    /**
+     * Fetch the rows of the genes and compute their contributions
+     *
+     * @param distances pairwise costs between objects
+     * @return score of the genes
+     */
+    double load(DistanceProvider distances) {
+        int size = genes.length;
+        for (int i = 0; i != size; ++i) {
+            rows[i] = distances.getRow(genes[i]);
+        }
+        double score = 0.;
+        for (int p = 0; p != size; ++p) {
+            contributions[p] = 0.;
+        }
+        for (int i = 0; i != size; ++i) {
+            double[] row = rows[i];
+            for (int j = 0; j != size; ++j) {
+                double distance = row[genes[j]];
+                score += distance;
+                contributions[i] += distance;
+                if (i != j) {
+                    contributions[j] += distance;
+                }
+            }
+        }
+        return score;
+    }
+
+
+    /**
+     * @return score of the genes computed from scratch, free of the rounding errors of the moves
+     */
+    double score() {
+        double score = 0.;
+        for (int i = 0; i != genes.length; ++i) {
+            double[] row = rows[i];
+            for (int j = 0; j != genes.length; ++j) {
+                score += row[genes[j]];
+            }
+        }
+        return score;
+    }
+
+
+    /**
+     * Contribution the candidate would have at position, the other genes being unchanged. The row of the
+     * candidate is not fetched (only the rows of the genes are likely cached), the sum stops once it reaches
+     * the limit.
+     *
+     * @param limit cost beyond which the exact contribution is not needed
+     * @return contribution of the candidate, or a partial sum at least the limit
+     */
+    double substitutionCost(int position, int candidate, DistanceProvider distances, double limit) {
+        double cost = distances.get(candidate, candidate);
+        for (int j = 0; j != genes.length && cost < limit; ++j) {
+            if (j != position) {
+                cost += rows[j][candidate] + distances.get(candidate, genes[j]);
+            }
+        }
+        return cost;
+    }
+
+
+    /**
+     * @param candidateRow row of the candidate
+     * @return contribution the candidate would have at position, the other genes being unchanged
+     */
+    double substitutionCost(int position, int candidate, double[] candidateRow) {
+        double cost = candidateRow[candidate];
+        for (int j = 0; j != genes.length; ++j) {
+            if (j != position) {
+                cost += rows[j][candidate] + candidateRow[genes[j]];
+            }
+        }
+        return cost;
+    }
+
+
+    /**
+     * Substitute the gene at position and update the contributions (and their changes)
+     *
+     * @param candidateRow row of the candidate
+     * @return difference in score caused by the move
+     */
+    double move(int position, int candidate, double[] candidateRow) {
+        double[] previousRow = rows[position];
+        int previous = genes[position];
+
+        double newContribution = candidateRow[candidate];
+        for (int j = 0; j != genes.length; ++j) {
+            if (j == position) {
+                changes[j] = 0.;
+                continue;
+            }
+            double incoming = rows[j][candidate] + candidateRow[genes[j]];
+            changes[j] = incoming - rows[j][previous] - previousRow[genes[j]];
+            contributions[j] += changes[j];
+            newContribution += incoming;
+        }
+        double delta = newContribution - contributions[position];
+        contributions[position] = newContribution;
+        genes[position] = candidate;
+        rows[position] = candidateRow;
+        return delta;
+    }
+}
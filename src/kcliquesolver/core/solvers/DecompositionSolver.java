@@ -0,0 +1,327 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.models.Problem;
+import kcliquesolver.core.models.Range;
+import kcliquesolver.core.models.Solution;
+import kcliquesolver.core.models.SubProblem;
+import kcliquesolver.core.rng.RngStream;
+import kcliquesolver.core.rng.StreamSeeds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Block coordinate descent over clusters of interacting ranges, for instances with very many ranges.
+ * <p/>
+ * The ranges are grouped into clusters of at most rangesPerCluster ranges, merging first the pairs of ranges with
+ * the strongest interaction (see RangeReoptimization.interaction): ranges without interaction can be optimized
+ * separately, so the clusters keep together what cannot. Each range is compared with every other one on small
+ * instances, and with a random sample of partners otherwise.
+ * <p/>
+ * Starting from a greedy construction, every round solves the clusters in parallel, each one as a subproblem (see
+ * SubProblem) whose other genes are fixed to the current solution, seeded with the current genes so that it never
+ * gets worse. The improvements of a round are then applied one cluster after the other, each one only if it still
+ * improves the solution updated by the previous ones, since they were found against the same fixed genes. The
+ * rounds stop when none of the clusters improves, or after maxRounds.
+ * <p/>
+ * The results only depend on the seeds, not on the number of threads.
+ */
+public class DecompositionSolver extends AbstractStrategy {
+
+    // ranges compared with every other one up to this number of ranges, with a sample of partners above
+    private static final int ALL_PAIRS_LIMIT = 256;
+
+    // partners sampled per range on large instances
+    private static final int NUM_PARTNERS = 32;
+
+    // improvements smaller than this are considered rounding noise
+    private static final double EPSILON = 1e-9;
+
+    // values of the rows cached by the views of the clusters solved at the same time, all together
+    private static final int CACHE_VALUES = 1 << 24;
+
+    private final HybridGeneticAlgorithm subSolver;
+    private final int rangesPerCluster;
+    private final int maxRounds;
+    private final int numThreads;
+    private final long[] seeds;
+    private final boolean verbose;
+
+    /**
+     * @param subSolver        configuration of the strategy solving the subproblems (its seeds and initial
+     *                         solutions are replaced, its greedy initialization alpha also builds the start)
+     * @param rangesPerCluster maximum number of ranges of a subproblem
+     * @param maxRounds        maximum number of rounds over every cluster
+     * @param numThreads       number of subproblems solved concurrently
+     * @param seeds            seeds of the pseudo-random stream (6 values)
+     * @param verbose          report the score after every round
+     */
+    public DecompositionSolver(HybridGeneticAlgorithm subSolver, int rangesPerCluster, int maxRounds,
+                               int numThreads, long[] seeds, boolean verbose) {
+        if (rangesPerCluster < 1 || maxRounds < 1 || numThreads < 1) {
+            throw new IllegalArgumentException("The cluster size, the number of rounds and the number of threads " +
+                    "must be positive");
+        }
+        if (seeds.length != 6) {
+            throw new IllegalArgumentException("6 seeds are required, got " + seeds.length);
+        }
+        this.subSolver = subSolver;
+        this.rangesPerCluster = rangesPerCluster;
+        this.maxRounds = maxRounds;
+        this.numThreads = numThreads;
+        this.seeds = seeds.clone();
+        this.verbose = verbose;
+    }
+
+
+    @Override
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+
+    @Override
+    public ArrayList<Solution> solve(final Problem problem) {
+        SolverStatistics statistics = new SolverStatistics();
+        statistics.start();
+        ArrayList<Range> ranges = problem.getRanges();
+        int numGenes = ranges.size();
+        RngStream stream = new RngStream();
+        if (!stream.setSeed(seeds)) {
+            throw new IllegalArgumentException("Invalid seeds for the random stream");
+        }
+
+        // start from a greedy construction
+        int[] genes = new int[numGenes];
+        new GreedyRandomizedConstruction().construct(genes, 0, problem.getDistances(), ranges,
+                Math.max(0., subSolver.getGraspAlpha()), stream);
+        double score = calculateSumOfPairsScore(genes, 0, numGenes, problem.getDistances());
+        statistics.countEvaluations(1);
+        statistics.offer(score);
+
+        ArrayList<int[]> clusters = clusterRanges(problem, rangesPerCluster, stream);
+        int[] candidate = new int[numGenes];
+        int[] changed = new int[numGenes];
+        final AtomicLong subEvaluations = new AtomicLong();
+        // the budget of the row caches is shared by the clusters solved at the same time
+        final int cacheValues = CACHE_VALUES / Math.max(1, Math.min(numThreads, clusters.size()));
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+        try {
+            for (int round = 0; round != maxRounds; ++round) {
+                // every cluster against the same fixed genes, cluster c of round r solved from substream
+                // 1 + r * clusters + c of the seeds (substream 0 is the stream of the decomposition)
+                final int[] fixed = genes.clone();
+                long[][] clusterSeeds = StreamSeeds.substreams(seeds, 1 + round * clusters.size(), clusters.size());
+                ArrayList<Future<int[]>> futures = new ArrayList<>();
+                for (int c = 0; c != clusters.size(); ++c) {
+                    final int[] cluster = clusters.get(c);
+                    final HybridGeneticAlgorithm.Builder builder = subSolver.toBuilder().seeds(clusterSeeds[c])
+                            .verbose(false);
+                    futures.add(pool.submit(new Callable<int[]>() {
+                        @Override
+                        public int[] call() {
+                            return solveCluster(problem, cluster, fixed, builder, cacheValues, subEvaluations);
+                        }
+                    }));
+                }
+
+                // apply the improvements which still improve the solution updated by the previous ones
+                int numImproved = 0;
+                for (int c = 0; c != clusters.size(); ++c) {
+                    int[] clusterGenes = futures.get(c).get();
+                    if (clusterGenes == null) {
+                        continue;
+                    }
+                    System.arraycopy(genes, 0, candidate, 0, numGenes);
+                    for (int r = 0; r != clusterGenes.length; ++r) {
+                        candidate[clusters.get(c)[r]] = clusterGenes[r];
+                    }
+                    double candidateScore = updateSumOfPairsScore(candidate, 0, genes, 0, score, numGenes,
+                            problem.getDistances(), changed);
+                    statistics.countEvaluations(1);
+                    if (candidateScore < score - EPSILON) {
+                        System.arraycopy(candidate, 0, genes, 0, numGenes);
+                        score = candidateScore;
+                        statistics.offer(score);
+                        numImproved += 1;
+                    }
+                }
+                statistics.countEvaluations(subEvaluations.getAndSet(0));
+                statistics.countGeneration();
+                if (verbose) {
+                    System.err.println("round " + (round + 1) + ": score " + score + ", " + numImproved + "/" +
+                            clusters.size() + " clusters improved");
+                }
+                if (numImproved == 0) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            // keep the solution of the rounds completed
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Subproblem solve failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // the score was updated incrementally, evaluated once more from scratch
+        score = calculateSumOfPairsScore(genes, 0, numGenes, problem.getDistances());
+        ArrayList<Integer> solutionGenes = new ArrayList<>();
+        for (int gene : genes) {
+            solutionGenes.add(gene);
+        }
+        statistics.stop();
+        this.statistics = statistics;
+        return new ArrayList<>(Collections.singletonList(new Solution(solutionGenes, score)));
+    }
+
+
+    /**
+     * Solve the subproblem of a cluster, the other genes being fixed
+     *
+     * @return genes of the ranges of the cluster (in its order) if they improve on the fixed genes, null otherwise
+     */
+    private static int[] solveCluster(Problem problem, int[] cluster, int[] fixed,
+                                      HybridGeneticAlgorithm.Builder builder, int cacheValues,
+                                      AtomicLong evaluations) {
+        int numObjects = 0;
+        for (int range : cluster) {
+            numObjects += problem.getRanges().get(range).getSecond() - problem.getRanges().get(range).getFirst();
+        }
+        // as many rows as fit in the share of the cluster, at least the rows of two solutions
+        int cacheCapacity = Math.max(2 * cluster.length, Math.min(numObjects, cacheValues / numObjects));
+        SubProblem subProblem = new SubProblem(problem, cluster, fixed, cacheCapacity);
+        Problem view = subProblem.getProblem();
+        Solution start = new Solution(subProblem.restrict(fixed), 0.);
+        start.setScore(calculateSumOfPairsScore(start, view.getDistances()));
+
+        HybridGeneticAlgorithm strategy = builder.initialSolutions(
+                new ArrayList<>(Collections.singletonList(start))).build();
+        Solution best = null;
+        for (Solution solution : strategy.solve(view)) {
+            if (best == null || solution.getScore() < best.getScore()) {
+                best = solution;
+            }
+        }
+        evaluations.addAndGet(strategy.getStatistics().getNumEvaluations());
+        if (best == null || best.getScore() >= start.getScore() - EPSILON) {
+            return null;
+        }
+        int[] genes = fixed.clone();
+        subProblem.expand(best, genes);
+        int[] clusterGenes = new int[cluster.length];
+        for (int r = 0; r != cluster.length; ++r) {
+            clusterGenes[r] = genes[cluster[r]];
+        }
+        return clusterGenes;
+    }
+
+
+    /**
+     * Group the ranges into clusters of at most maxSize ranges, merging the strongest interactions first
+     *
+     * @param problem instance whose ranges are grouped
+     * @param maxSize maximum number of ranges per cluster
+     * @param stream  pseudo-random number generator stream, draws the partners on large instances
+     * @return ranges of each cluster, in increasing order, the clusters ordered by their first range
+     */
+    static ArrayList<int[]> clusterRanges(Problem problem, int maxSize, RngStream stream) {
+        final int numRanges = problem.getRanges().size();
+        RangeReoptimization strengths = new RangeReoptimization(problem.getDistances(), problem.getRanges());
+
+        // candidate pairs (a < b) and their interaction strength
+        ArrayList<long[]> pairs = new ArrayList<>();
+        final ArrayList<Double> pairStrengths = new ArrayList<>();
+        for (int a = 0; a != numRanges; ++a) {
+            if (numRanges <= ALL_PAIRS_LIMIT) {
+                for (int b = a + 1; b < numRanges; ++b) {
+                    pairs.add(new long[]{a, b, pairStrengths.size()});
+                    pairStrengths.add(strengths.interaction(a, b));
+                }
+            } else {
+                for (int s = 0; s != NUM_PARTNERS; ++s) {
+                    int b = stream.randInt(0, numRanges - 2);
+                    b = (b >= a) ? b + 1 : b;
+                    pairs.add(new long[]{Math.min(a, b), Math.max(a, b), pairStrengths.size()});
+                    pairStrengths.add(strengths.interaction(a, b));
+                }
+            }
+        }
+        Collections.sort(pairs, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] first, long[] second) {
+                int comparison = Double.compare(pairStrengths.get((int) second[2]), pairStrengths.get((int) first[2]));
+                return (comparison != 0) ? comparison : Long.compare(first[2], second[2]);
+            }
+        });
+
+        // union-find merging the strongest pairs as long as the merged cluster stays small enough
+        int[] parent = new int[numRanges];
+        int[] sizes = new int[numRanges];
+        for (int a = 0; a != numRanges; ++a) {
+            parent[a] = a;
+            sizes[a] = 1;
+        }
+        for (long[] pair : pairs) {
+            int rootA = find(parent, (int) pair[0]), rootB = find(parent, (int) pair[1]);
+            if (rootA != rootB && sizes[rootA] + sizes[rootB] <= maxSize && pairStrengths.get((int) pair[2]) > 0.) {
+                parent[rootB] = rootA;
+                sizes[rootA] += sizes[rootB];
+            }
+        }
+
+        // members of each cluster, then the small clusters packed together (without interaction between them,
+        // solving them together costs nothing and makes fewer, larger tasks)
+        ArrayList<ArrayList<Integer>> members = new ArrayList<>();
+        int[] clusterOf = new int[numRanges];
+        Arrays.fill(clusterOf, -1);
+        for (int a = 0; a != numRanges; ++a) {
+            int root = find(parent, a);
+            if (clusterOf[root] == -1) {
+                clusterOf[root] = members.size();
+                members.add(new ArrayList<Integer>());
+            }
+            members.get(clusterOf[root]).add(a);
+        }
+        ArrayList<int[]> clusters = new ArrayList<>();
+        ArrayList<Integer> packed = new ArrayList<>();
+        for (ArrayList<Integer> cluster : members) {
+            if (packed.size() + cluster.size() > maxSize) {
+                clusters.add(toArray(packed));
+                packed.clear();
+            }
+            packed.addAll(cluster);
+        }
+        clusters.add(toArray(packed));
+        return clusters;
+    }
+
+
+    private static int find(int[] parent, int a) {
+        while (parent[a] != a) {
+            parent[a] = parent[parent[a]];
+            a = parent[a];
+        }
+        return a;
+    }
+
+
+    private static int[] toArray(ArrayList<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i != array.length; ++i) {
+            array[i] = values.get(i);
+        }
+        Arrays.sort(array);
+        return array;
+    }
+}
@@ -0,0 +1,242 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.distances.DistanceProvider;
+import kcliquesolver.core.models.Range;
+import kcliquesolver.core.models.Solution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+
+/**
+ * Local search applying the first improving substitution found, instead of the best one of a full sweep.
+ * <p/>
+ * Positions are examined in decreasing order of their estimated gain, their current contribution
+ * to the score (sum of the costs from and to the other genes). A position without improving move gets
+ * its don't-look bit set, and is only examined again once a later move increases its contribution.
+ * Contributions and the score are maintained incrementally in O(k) per move (see ContributionWorkspace),
+ * so the score is only computed from scratch once per call. When the queue runs dry, a verification sweep
+ * over the remaining positions guarantees a local minimum (unless the move limit is reached first).
+ * <p/>
+ * With candidate lists, a position only examines the objects close to the other genes (see CandidateLists),
+ * the verification sweep still examining whole ranges: the local minima are those of the full neighborhood.
+ * <p/>
+ * The workspaces are kept between calls, an instance must not be shared between threads.
+ */
+public class FirstImprovementDescent {
+
+    // improvements smaller than this are considered rounding noise (avoids cycling)
+    private static final double EPSILON = 1e-9;
+
+    private final ContributionWorkspace workspace = new ContributionWorkspace();
+    private boolean[] dontLook = new boolean[0];
+    private int[] versions = new int[0];
+    private double score = 0.;
+    // positions by decreasing estimated gain, tagged with the version of the position when pushed
+    private final MaxHeap queue = new MaxHeap(16);
+
+    // granular neighborhoods, and the candidates already examined at a position
+    private CandidateLists candidateLists = null;
+    private int[] marks = new int[0];
+    private int stamp = 0;
+
+    /**
+     * @param candidateLists closest objects examined outside of the verification sweeps, null for whole ranges
+     */
+    public void setCandidateLists(CandidateLists candidateLists) {
+        this.candidateLists = candidateLists;
+    }
+
+
+    /**
+     * Improve the solution in place until a local minimum or maxNumMoves moves, and set its score
+     *
+     * @param solution    solution to improve
+     * @param distances   pairwise costs between objects
+     * @param ranges      list of intervals from which to select from
+     * @param maxNumMoves maximum number of substitutions applied
+     * @return number of substitutions applied
+     */
+    public int improve(Solution solution, DistanceProvider distances, ArrayList<Range> ranges, int maxNumMoves) {
+        int size = solution.size();
+        allocate(size);
+        int[] genes = workspace.getGenes();
+        for (int i = 0; i != size; ++i) {
+            genes[i] = solution.getGene(i);
+        }
+        int numMoves = descend(distances, ranges, maxNumMoves);
+        for (int i = 0; i != size; ++i) {
+            solution.setGene(i, genes[i]);
+        }
+        solution.setScore(score);
+        return numMoves;
+    }
+
+
+    /**
+     * Improve the k genes starting at offset in place (see PopulationStore)
+     *
+     * @param population  gene array holding the solution
+     * @param offset      position of the first gene of the solution
+     * @param distances   pairwise costs between objects
+     * @param ranges      list of intervals from which to select from (k ranges)
+     * @param maxNumMoves maximum number of substitutions applied
+     * @return score of the improved solution
+     */
+    public double improve(int[] population, int offset, DistanceProvider distances, ArrayList<Range> ranges,
+                          int maxNumMoves) {
+        int size = ranges.size();
+        allocate(size);
+        System.arraycopy(population, offset, workspace.getGenes(), 0, size);
+        descend(distances, ranges, maxNumMoves);
+        System.arraycopy(workspace.getGenes(), 0, population, offset, size);
+        return score;
+    }
+
+
+    /**
+     * Descent on the workspace genes, leaves the final score in the score field
+     *
+     * @return number of substitutions applied
+     */
+    private int descend(DistanceProvider distances, ArrayList<Range> ranges, int maxNumMoves) {
+        int size = workspace.size();
+        score = workspace.load(distances);
+
+        queue.clear();
+        for (int p = 0; p != size; ++p) {
+            dontLook[p] = false;
+            versions[p] = 0;
+            queue.add(workspace.getContribution(p), p, 0);
+        }
+
+        int numMoves = 0;
+        boolean verified = false;
+        while (numMoves < maxNumMoves) {
+            int position;
+            if (!queue.isEmpty()) {
+                // entries pushed before the last change of their position are stale
+                position = queue.peekValue();
+                int version = queue.peekTag();
+                queue.remove();
+                if (version != versions[position] || dontLook[position]) {
+                    continue;
+                }
+            } else if (!verified) {
+                // queue exhausted, look once more at every position before concluding
+                verified = true;
+                for (int p = 0; p != size; ++p) {
+                    dontLook[p] = false;
+                    versions[p] += 1;
+                    queue.add(workspace.getContribution(p), p, versions[p]);
+                }
+                continue;
+            } else {
+                break;
+            }
+
+            int candidate = (candidateLists != null && !verified) ?
+                    findFirstCandidate(position, distances, ranges.get(position)) :
+                    findFirstImprovement(position, distances, ranges.get(position));
+            if (candidate == -1) {
+                dontLook[position] = true;
+                continue;
+            }
+
+            score += applyMove(position, candidate, distances);
+            numMoves += 1;
+            verified = false;
+        }
+        return numMoves;
+    }
+
+
+    private void allocate(int size) {
+        workspace.allocate(size);
+        if (dontLook.length != size) {
+            dontLook = new boolean[size];
+            versions = new int[size];
+        }
+    }
+
+
+    /**
+     * @return first candidate of the range lowering the contribution of the position, -1 if none
+     */
+    private int findFirstImprovement(int position, DistanceProvider distances, Range range) {
+        int gene = workspace.getGenes()[position];
+        for (int candidate = range.getFirst(); candidate != range.getSecond(); ++candidate) {
+            if (candidate != gene && improves(position, candidate, distances)) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * @return first candidate of the lists of the other genes lowering the contribution of the position, -1 if none
+     */
+    private int findFirstCandidate(int position, DistanceProvider distances, Range range) {
+        int rangeSize = range.getSecond() - range.getFirst();
+        if (marks.length < rangeSize) {
+            marks = new int[rangeSize];
+            stamp = 0;
+        }
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(marks, 0);
+            stamp = 1;
+        }
+        int[] genes = workspace.getGenes();
+        int[] lists = candidateLists.getLists();
+        int length = candidateLists.length(position);
+        for (int i = 0; i != genes.length; ++i) {
+            if (i == position) {
+                continue;
+            }
+            int offset = candidateLists.offset(genes[i], position);
+            for (int index = 0; index != length; ++index) {
+                int candidate = lists[offset + index];
+                if (marks[candidate - range.getFirst()] == stamp || candidate == genes[position]) {
+                    continue;
+                }
+                marks[candidate - range.getFirst()] = stamp;
+                if (improves(position, candidate, distances)) {
+                    return candidate;
+                }
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * @return whether or not the candidate at position lowers its contribution
+     */
+    private boolean improves(int position, int candidate, DistanceProvider distances) {
+        double limit = workspace.getContribution(position) - EPSILON;
+        return workspace.substitutionCost(position, candidate, distances, limit) < limit;
+    }
+
+
+    /**
+     * Substitute the gene at position and update the contributions, the don't-look bits and the queue
+     *
+     * @return difference in score caused by the move
+     */
+    private double applyMove(int position, int candidate, DistanceProvider distances) {
+        double delta = workspace.move(position, candidate, distances.getRow(candidate));
+        double[] changes = workspace.getChanges();
+        for (int j = 0; j != changes.length; ++j) {
+            // the current gene of j got more expensive, an improving move may have appeared
+            if (changes[j] > 0.) {
+                dontLook[j] = false;
+                versions[j] += 1;
+                queue.add(workspace.getContribution(j), j, versions[j]);
+            }
+        }
+        versions[position] += 1;
+        queue.add(workspace.getContribution(position), position, versions[position]);
+        return delta;
+    }
+}
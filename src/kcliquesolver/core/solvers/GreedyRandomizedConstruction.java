@@ -0,0 +1,97 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.distances.DistanceProvider;
+import kcliquesolver.core.models.Range;
+import kcliquesolver.core.rng.RngStream;
+
+import java.util.ArrayList;
+
+
+/**
+ * Greedy randomized construction (GRASP) of a solution, range by range.
+ * <p/>
+ * The ranges are filled in a random order. At each step, the cost of every object of the range is its cost
+ * towards the genes already chosen (both directions, plus its own diagonal cost), and the gene is drawn uniformly
+ * from the restricted candidate list: the objects whose cost is at most min + alpha * (max - min). alpha = 0 is
+ * a randomized greedy (ties only), alpha = 1 a uniform random draw. The costs of the objects towards the partial
+ * clique are maintained incrementally, so a construction costs O(n) per gene, O(k * n) in total.
+ * <p/>
+ * The workspaces are kept between calls, an instance must not be shared between threads.
+ */
+public class GreedyRandomizedConstruction {
+
+    private double[] partialCosts = new double[0];
+    private int[] order = new int[0];
+    private int[] restricted = new int[0];
+
+    /**
+     * Build a solution into the k genes starting at offset
+     *
+     * @param population gene array receiving the solution
+     * @param offset     position of the first gene of the solution
+     * @param distances  pairwise costs between objects
+     * @param ranges     list of intervals from which to select from (k ranges)
+     * @param alpha      greediness of the restricted candidate lists, in [0, 1]
+     * @param stream     pseudo-random number generator stream
+     */
+    public void construct(int[] population, int offset, DistanceProvider distances, ArrayList<Range> ranges,
+                          double alpha, RngStream stream) {
+        int numGenes = ranges.size();
+        allocate(distances.size(), numGenes);
+
+        // random order of the ranges (Fisher-Yates), the costs of their objects start from their diagonal
+        for (int i = 0; i != numGenes; ++i) {
+            order[i] = i;
+            Range range = ranges.get(i);
+            for (int object = range.getFirst(); object != range.getSecond(); ++object) {
+                partialCosts[object] = distances.get(object, object);
+            }
+        }
+        for (int i = numGenes - 1; i > 0; --i) {
+            int j = stream.randInt(0, i);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+
+        for (int step = 0; step != numGenes; ++step) {
+            int position = order[step];
+            Range range = ranges.get(position);
+
+            double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+            for (int object = range.getFirst(); object != range.getSecond(); ++object) {
+                min = Math.min(min, partialCosts[object]);
+                max = Math.max(max, partialCosts[object]);
+            }
+            double threshold = min + alpha * (max - min);
+            int numRestricted = 0;
+            for (int object = range.getFirst(); object != range.getSecond(); ++object) {
+                if (partialCosts[object] <= threshold) {
+                    restricted[numRestricted++] = object;
+                }
+            }
+            int gene = restricted[stream.randInt(0, numRestricted - 1)];
+            population[offset + position] = gene;
+
+            // costs of the objects of the ranges left towards the new gene
+            double[] row = distances.getRow(gene);
+            for (int next = step + 1; next != numGenes; ++next) {
+                Range other = ranges.get(order[next]);
+                for (int object = other.getFirst(); object != other.getSecond(); ++object) {
+                    partialCosts[object] += row[object] + distances.get(object, gene);
+                }
+            }
+        }
+    }
+
+
+    private void allocate(int numObjects, int numGenes) {
+        if (partialCosts.length != numObjects) {
+            partialCosts = new double[numObjects];
+            restricted = new int[numObjects];
+        }
+        if (order.length != numGenes) {
+            order = new int[numGenes];
+        }
+    }
+}
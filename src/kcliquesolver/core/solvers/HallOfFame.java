@@ -0,0 +1,145 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.models.Solution;
+
+import java.util.ArrayList;
+
+
+/**
+ * Best distinct solutions seen by a genetic algorithm solve, stored in preallocated arrays.
+ * <p/>
+ * Entries are slots of a gene array (slot s at offset s * k) with their scores, ordered worst first by a MaxHeap
+ * so that the worst entry is evicted first, with the tie-breaks of a PriorityQueue. Membership compares the genes
+ * only, a hash of the genes of each slot filtering the candidates. Once built, adding, evicting and looking up
+ * entries allocate nothing; solutions are only created when the solve returns (toSolutions).
+ */
+class HallOfFame {
+
+    private final int capacity;
+    private final int numGenes;
+    private final int[] genes;
+    private final double[] scores;
+    private final int[] hashes;
+    private final boolean[] used;
+    private final int[] freeSlots;
+    private int numFree;
+    private final MaxHeap heap;
+
+    /**
+     * @param capacity number of entries kept (one more can be added before the eviction)
+     * @param numGenes number of genes of a solution (k)
+     */
+    HallOfFame(int capacity, int numGenes) {
+        this.capacity = capacity;
+        this.numGenes = numGenes;
+        int numSlots = capacity + 1;
+        this.genes = new int[numSlots * numGenes];
+        this.scores = new double[numSlots];
+        this.hashes = new int[numSlots];
+        this.used = new boolean[numSlots];
+        this.freeSlots = new int[numSlots];
+        this.heap = new MaxHeap(numSlots);
+        clear();
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    int getNumGenes() {
+        return numGenes;
+    }
+
+    int size() {
+        return heap.size();
+    }
+
+    void clear() {
+        heap.clear();
+        numFree = freeSlots.length;
+        for (int slot = 0; slot != numFree; ++slot) {
+            freeSlots[slot] = numFree - 1 - slot;
+            used[slot] = false;
+        }
+    }
+
+    /**
+     * @return score of the worst entry
+     */
+    double worstScore() {
+        return scores[heap.peekValue()];
+    }
+
+    /**
+     * @return whether or not an entry has the k genes starting at offset
+     */
+    boolean contains(int[] source, int offset) {
+        int hash = hash(source, offset);
+        for (int slot = 0; slot != used.length; ++slot) {
+            if (used[slot] && hashes[slot] == hash && sameGenes(slot, source, offset)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copy the k genes starting at offset as a new entry
+     */
+    void add(int[] source, int offset, double score) {
+        assert (numFree > 0);
+        int slot = freeSlots[--numFree];
+        System.arraycopy(source, offset, genes, slot * numGenes, numGenes);
+        scores[slot] = score;
+        hashes[slot] = hash(source, offset);
+        used[slot] = true;
+        heap.add(score, slot, 0);
+    }
+
+    /**
+     * Evict the worst entry
+     */
+    void removeWorst() {
+        int slot = heap.peekValue();
+        heap.remove();
+        used[slot] = false;
+        freeSlots[numFree++] = slot;
+    }
+
+    /**
+     * Empty the hall of fame, worst entry first
+     *
+     * @return the entries, in order of eviction
+     */
+    ArrayList<Solution> toSolutions() {
+        ArrayList<Solution> solutions = new ArrayList<>(size());
+        while (size() > 0) {
+            int slot = heap.peekValue();
+            ArrayList<Integer> values = new ArrayList<>(numGenes);
+            for (int i = slot * numGenes, end = i + numGenes; i != end; ++i) {
+                values.add(genes[i]);
+            }
+            solutions.add(new Solution(values, scores[slot]));
+            removeWorst();
+        }
+        return solutions;
+    }
+
+
+    private boolean sameGenes(int slot, int[] source, int offset) {
+        for (int i = 0, start = slot * numGenes; i != numGenes; ++i) {
+            if (genes[start + i] != source[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int hash(int[] source, int offset) {
+        int hash = 1;
+        for (int i = offset, end = offset + numGenes; i != end; ++i) {
+            hash = 31 * hash + source[i];
+        }
+        return hash;
+    }
+}
@@ -1,16 +1,23 @@
 package kcliquesolver.core.solvers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import kcliquesolver.core.bounds.LowerBounds;
+import kcliquesolver.core.distances.BlockedDistances;
+import kcliquesolver.core.distances.DistanceProvider;
 import kcliquesolver.core.models.Problem;
 import kcliquesolver.core.models.Range;
 import kcliquesolver.core.models.Solution;
 import kcliquesolver.core.models.Pair;
 
 import kcliquesolver.core.rng.RngStream;
+import kcliquesolver.core.rng.StreamSeeds;
 
 
 public class HybridGeneticAlgorithm extends AbstractStrategy {
@@ -35,6 +42,56 @@ public class HybridGeneticAlgorithm extends AbstractStrategy {
     private final double improvementProbability;
     private final int improvementDepth;
 
+    // wall clock limit of a solve in milliseconds, 0 for none (checked between generations)
+    private long timeBudget = 0;
+
+    // improvement operator
+    private LocalSearch localSearch = LocalSearch.STEEPEST_DESCENT;
+
+    // granular neighborhoods: closest objects per (object, range) pair, 0 to disable
+    private int candidateListSize = 0;
+    private int fullScanPeriod = 10;
+
+    // greedy randomized construction of the initial population, negative alpha for random solutions
+    private double graspAlpha = -1.;
+    private int graspThreads = 1;
+
+    // threads sharing the positions of each steepest descent sweep, 1 for serial sweeps
+    private int descentThreads = 1;
+
+    // crossover operator, and number of differing genes up to which the optimal recombination is exact
+    private Recombination recombination = Recombination.UNIFORM;
+    private int recombinationLimit = 12;
+
+    // path relinking between the best solutions, every relinkingInterval generations (0 for never)
+    private int relinkingInterval = 0;
+    private int relinkingPoolSize = 4;
+
+    // solutions seeding the initial population (warm start)
+    private ArrayList<Solution> initialSolutions = new ArrayList<>();
+
+    // early stop once the optimality gap is below gapThreshold (disabled when negative)
+    private double gapThreshold = -1.;
+    private int boundIterations = 50;
+
+    // exchange of solutions with other islands, every migrationInterval generations
+    private Migration migration = null;
+    private int migrationInterval = 10;
+    private int numMigrants = 2;
+
+    // near-optimal enumeration: archive of distinct solutions within the tolerance (0 for none) and niche radius
+    private int archiveSize = 0;
+    private int minDistance = 1;
+
+    // joint re-optimization of interacting ranges (large neighborhood), applied with lnsProbability
+    private double lnsProbability = 0.;
+    private int lnsMoves = 4;
+    private long lnsTripleLimit = 0;
+
+    // adaptive operator probabilities and improvement depth
+    private boolean adaptive = false;
+    private static final int CROSSOVER = 0, MUTATION = 1, IMPROVEMENT = 2;
+
     public HybridGeneticAlgorithm(boolean verbose, double tolerance, long[] seeds,
                                   int populationSize, int numGenerations, double eliteRatio,
                                   double crossoverProbability, double crossoverMixingRatio,
@@ -61,93 +118,482 @@ public class HybridGeneticAlgorithm extends AbstractStrategy {
     }
 
     /**
-     * uniform crossover operator over the genes of two solutions
+     * Stop the solve after the first generation ending past the given duration,
+     * whatever the number of generations left. Results then depend on the speed of the machine.
+     *
+     * @param timeBudget wall clock limit in milliseconds, 0 for none
+     */
+    public void setTimeBudget(long timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+
+    /**
+     * @param localSearch local search procedure used as improvement operator
+     */
+    public void setLocalSearch(LocalSearch localSearch) {
+        this.localSearch = localSearch;
+    }
+
+    public LocalSearch getLocalSearch() {
+        return localSearch;
+    }
+
+    /**
+     * Granular neighborhoods: the local search only examines the objects among the size closest ones to the
+     * other genes, and the mutation draws the new gene among the size closest ones to another gene of the child
+     * (see CandidateLists). With the steepest descent, every fullScanPeriod-th time a granular sweep finds no
+     * improving move, a full sweep is run; the first improvement descent always verifies its local minima over
+     * whole ranges. The lists are built once per session, in O(n^2 * size).
+     *
+     * @param size           number of closest objects kept per (object, range) pair, 0 to disable the lists
+     * @param fullScanPeriod number of granular sweeps without improving move per full sweep
+     */
+    public void setCandidateLists(int size, int fullScanPeriod) {
+        if (size < 0 || fullScanPeriod <= 0) {
+            throw new IllegalArgumentException("Candidate list size must be >= 0 and full scan period > 0");
+        }
+        this.candidateListSize = size;
+        this.fullScanPeriod = fullScanPeriod;
+    }
+
+    public int getCandidateListSize() {
+        return candidateListSize;
+    }
+
+    public int getFullScanPeriod() {
+        return fullScanPeriod;
+    }
+
+    /**
+     * Build the random part of the initial population with greedy randomized constructions (see
+     * GreedyRandomizedConstruction) instead of uniform random draws. Each member gets its own random stream,
+     * seeded from the stream of the solve, so the population does not depend on the number of threads.
      *
-     * @param parent1 first parent solution
-     * @param parent2 second parent solution
-     * @param stream  pseudo-random generator stream
-     * @return a crossover between both parents :P
+     * @param alpha      greediness of the restricted candidate lists in [0, 1] (0 greedy, 1 random), negative
+     *                   to draw random solutions
+     * @param numThreads number of threads building the members
      */
-    public static Solution uniformCrossover(Solution parent1, Solution parent2, double mixingRatio, RngStream stream) {
+    public void setGreedyInitialization(double alpha, int numThreads) {
+        if (alpha > 1. || numThreads <= 0) {
+            throw new IllegalArgumentException("GRASP alpha must be at most 1 and the number of threads positive");
+        }
+        this.graspAlpha = alpha;
+        this.graspThreads = numThreads;
+    }
 
-        ArrayList<Integer> newGenes = parent1.getGenes();
-        int size = parent1.getGenes().size();
+    public double getGraspAlpha() {
+        return graspAlpha;
+    }
 
-        for (int index = 0; index != size; ++index) {
+    /**
+     * Examine the positions of each steepest descent sweep with several threads (see SteepestDescent), for
+     * instances with thousands of genes where a single descent is the critical path. The results do not depend
+     * on the number of threads. Sweeps over blocked distances stay serial.
+     *
+     * @param numThreads number of threads per sweep, 1 for serial sweeps
+     */
+    public void setDescentThreads(int numThreads) {
+        if (numThreads <= 0) {
+            throw new IllegalArgumentException("Number of descent threads must be positive, got " + numThreads);
+        }
+        this.descentThreads = numThreads;
+    }
+
+    public int getDescentThreads() {
+        return descentThreads;
+    }
+
+    /**
+     * Optimal recombination replaces the random mix of the parental genes by the best child taking each gene from
+     * one of its parents (see OptimalRecombination). The crossover probability still applies, but the mixing
+     * ratio is unused. The enumeration costs O(2^d * k) for d differing genes, so the limit should stay small.
+     *
+     * @param recombination crossover operator
+     * @param exactLimit    largest number of differing genes enumerated exactly, a greedy descent beyond
+     */
+    public void setRecombination(Recombination recombination, int exactLimit) {
+        if (exactLimit < 0 || exactLimit > 30) {
+            throw new IllegalArgumentException("Recombination limit must be in [0, 30], got " + exactLimit);
+        }
+        this.recombination = recombination;
+        this.recombinationLimit = exactLimit;
+    }
+
+    public Recombination getRecombination() {
+        return recombination;
+    }
+
+    public int getRecombinationLimit() {
+        return recombinationLimit;
+    }
+
+    /**
+     * Path relinking runs between every ordered pair of the poolSize best elite solutions every interval
+     * generations, the improved intermediate solutions replacing children. It also runs between the poolSize
+     * best solutions of the final hall of fame, as a post-optimization.
+     *
+     * @param interval number of generations between two relinking stages, 0 to disable path relinking
+     * @param poolSize number of best solutions relinked together
+     */
+    public void setPathRelinking(int interval, int poolSize) {
+        this.relinkingInterval = interval;
+        this.relinkingPoolSize = poolSize;
+    }
+
+    public int getRelinkingInterval() {
+        return relinkingInterval;
+    }
+
+    public int getRelinkingPoolSize() {
+        return relinkingPoolSize;
+    }
+
+    /**
+     * Seed the initial population with solutions of a previous solve (see WarmStart.remap),
+     * the rest of the population is drawn at random. Solutions beyond the population size are ignored.
+     *
+     * @param initialSolutions solutions expressed in the indices of the problem to solve
+     */
+    public void setInitialSolutions(ArrayList<Solution> initialSolutions) {
+        this.initialSolutions = initialSolutions;
+    }
+
+    /**
+     * Compute a lower bound on the optimal score (range pair bound at the start, then the Lagrangian bound
+     * once the first generation gives an upper bound), record it in the statistics and stop the solve as soon
+     * as the relative gap between the best score and the bound is at most the threshold.
+     * Computing the bounds reads the whole distance matrix.
+     *
+     * @param gapThreshold    relative gap stopping the solve (0 stops on proven optimality), negative to disable
+     * @param boundIterations number of subgradient iterations of the Lagrangian bound
+     */
+    public void setGapStop(double gapThreshold, int boundIterations) {
+        this.gapThreshold = gapThreshold;
+        this.boundIterations = boundIterations;
+    }
+
+    /**
+     * Island model: every interval generations, the numMigrants best solutions of the population are sent
+     * through the migration channel, and the solutions received in exchange replace children.
+     *
+     * @param migration   channel to the other islands, null for an isolated solve
+     * @param interval    number of generations between two exchanges
+     * @param numMigrants number of solutions sent at each exchange
+     */
+    public void setMigration(Migration migration, int interval, int numMigrants) {
+        this.migration = migration;
+        this.migrationInterval = interval;
+        this.numMigrants = numMigrants;
+    }
+
+    /**
+     * Enumerate the distinct solutions within the tolerance instead of returning the final hall of fame.
+     * Every scored solution is offered to a NearOptimalArchive, and the population is cleared every generation:
+     * a solution closer than minDistance (Hamming distance) to a better one loses its rank to every niche
+     * winner, which keeps the elite and the parents spread over different near-optimal regions.
+     *
+     * @param archiveSize maximum number of solutions returned, 0 to disable the enumeration
+     * @param minDistance minimum number of differing genes between two solutions returned
+     */
+    public void setNiching(int archiveSize, int minDistance) {
+        this.archiveSize = archiveSize;
+        this.minDistance = minDistance;
+    }
+
+    public int getArchiveSize() {
+        return archiveSize;
+    }
+
+    public int getMinDistance() {
+        return minDistance;
+    }
+
+    /**
+     * Large neighborhood improvement operator: after the other operators, a child is improved with the given
+     * probability by exact joint re-optimizations of pairs (or triples) of interacting ranges (see
+     * RangeReoptimization), which escape the local minima of single substitutions.
+     *
+     * @param probability probability of applying the operator on a child, 0 to disable it
+     * @param numMoves    number of pairs (or triples) re-optimized per application
+     * @param tripleLimit largest product of three range sizes re-optimized as a triple, 0 for pairs only
+     */
+    public void setLargeNeighborhood(double probability, int numMoves, long tripleLimit) {
+        this.lnsProbability = probability;
+        this.lnsMoves = numMoves;
+        this.lnsTripleLimit = tripleLimit;
+    }
+
+    public double getLnsProbability() {
+        return lnsProbability;
+    }
+
+    /**
+     * In adaptive mode, the crossover, mutation and improvement probabilities and the improvement depth
+     * only are starting points: every generation they shift towards the operators (and depths) bringing
+     * the most score improvement per nanosecond spent (see AdaptivePursuit).
+     * Measuring requires scoring each child after every operator applied.
+     *
+     * @param adaptive whether or not to adapt the operator probabilities during the solve
+     */
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * uniform crossover over genes stored in arrays: each gene of the child is replaced by the one of the
+     * second parent with the mixing ratio probability
+     */
+    static void uniformCrossover(int[] child, int childOffset, int[] parent2, int parent2Offset, int numGenes,
+                                 double mixingRatio, RngStream stream) {
+        for (int index = 0; index != numGenes; ++index) {
             if (stream.randU01() < mixingRatio) {
-                newGenes.set(index, parent2.getGenes().get(index));
+                child[childOffset + index] = parent2[parent2Offset + index];
             }
         }
-        return new Solution(newGenes, Double.POSITIVE_INFINITY);
     }
 
 
     /**
-     * @param solution            solution to mutate
-     * @param ranges              (begin, end) indices of each sets of objects
-     * @param mutationProbability probability for the mutation of a gene
-     * @param stream              pseud-random number generator
-     * @return mutated solution
+     * uniform mutation of genes stored in an array: each gene is replaced by a random object of its range with
+     * the mutation probability
      */
-    public Solution uniformMutate(Solution solution,
-                                  ArrayList<Range> ranges,
-                                  double mutationProbability,
-                                  RngStream stream) {
-        // mutate the solution by simply swapping with a probability
-        ArrayList<Integer> mutated_genes = solution.getGenes();
-        int gene_size = mutated_genes.size();
-        for (int index = 0; index != gene_size; ++index) {
+    static void uniformMutate(int[] child, int offset, ArrayList<Range> ranges, double mutationProbability,
+                              RngStream stream) {
+        for (int index = 0; index != ranges.size(); ++index) {
             if (stream.randU01() < mutationProbability) {
                 // exchange for a random gene within the same range
-                mutated_genes.set(index, stream.randInt(ranges.get(index).getFirst(), ranges.get(index).getSecond() - 1));
+                child[offset + index] = stream.randInt(ranges.get(index).getFirst(), ranges.get(index).getSecond() - 1);
             }
         }
-        return new Solution(mutated_genes, Double.POSITIVE_INFINITY);
     }
 
 
-    Pair<Integer, Integer> select2(int low, int high, RngStream stream) {
-        // select 2 different random integers in the interval
-        assert (high - 1 > low);
-        int first = stream.randInt(low, high - 1);
-        int second = stream.randInt(low, high - 1);
-
-        while (first == second) {
-            second = stream.randInt(low, high - 1);
+    /**
+     * mutation of genes stored in an array, the new gene being drawn among the closest objects of its range
+     * to another gene of the child, drawn at random
+     */
+    static void candidateMutate(int[] child, int offset, ArrayList<Range> ranges, double mutationProbability,
+                                CandidateLists candidateLists, RngStream stream) {
+        int numGenes = ranges.size();
+        for (int index = 0; index != numGenes; ++index) {
+            if (stream.randU01() < mutationProbability) {
+                if (numGenes == 1) {
+                    child[offset] = stream.randInt(ranges.get(0).getFirst(), ranges.get(0).getSecond() - 1);
+                    continue;
+                }
+                int other = stream.randInt(0, numGenes - 2);
+                if (other >= index) {
+                    ++other;
+                }
+                child[offset + index] = candidateLists.get(child[offset + other], index,
+                        stream.randInt(0, candidateLists.length(index) - 1));
+            }
         }
-        return new Pair<>(first, second);
     }
 
 
     /**
-     * select parents for the next generation, using a binary tournament selection
+     * select parents for the next generation, using a binary tournament selection over the ranks
+     * of the current generation (the last ranked individual never takes part)
      *
-     * @param population  population over which the selection is applied
+     * @param store       population, ordered
      * @param numToSelect number of individuals to select from the tournament
+     * @param byRank      whether the best ranked (lowest rank) or best scored individual wins
+     * @param selected    indices (in the current generation) of the individuals selected as parents
      * @param stream      pseudo-random number generator
-     * @return list of solutions selected as parents for the next generation
      */
-    ArrayList<Solution> binaryTournamentSelection(ArrayList<Solution> population,
-                                                  int numToSelect,
-                                                  RngStream stream) {
+    static void binaryTournamentSelection(PopulationStore store, int numToSelect, boolean byRank,
+                                          int[] selected, RngStream stream) {
         // classical binary tournament selection
         assert (numToSelect > 0);
-        Pair<Integer, Integer> indices;
-        ArrayList<Solution> selected = new ArrayList<>();
-        int popSize = population.size() - 1;
+        assert (store.size() > 2);
+        int[] order = store.getOrder();
+        double[] scores = store.getScores();
+        int last = store.size() - 2;
 
         for (int index = 0; index != numToSelect; ++index) {
-            indices = select2(0, popSize, stream);
-            Solution first = population.get(indices.getFirst());
-            Solution second = population.get(indices.getSecond());
+            // 2 different random ranks
+            int first = stream.randInt(0, last);
+            int second = stream.randInt(0, last);
+            while (first == second) {
+                second = stream.randInt(0, last);
+            }
+
+            boolean firstWins = byRank ? first < second : scores[order[first]] < scores[order[second]];
+            selected[index] = firstWins ? order[first] : order[second];
+        }
+    }
+
 
-            if (first.compareTo(second) < 0) {
-                selected.add(new Solution(first));
+    /**
+     * Clearing: the winners of the niches, individuals farther than the radius from every better one,
+     * are ranked before the cleared individuals
+     *
+     * @param store   population, sorted by score, reordered winners first (both parts remain sorted by score)
+     * @param radius  Hamming distance under which two individuals share a niche
+     * @param cleared scratch space of the population capacity
+     */
+    static void clearNiches(PopulationStore store, int radius, int[] cleared) {
+        int[] order = store.getOrder();
+        int numWinners = 0, numCleared = 0;
+        for (int rank = 0; rank != store.size(); ++rank) {
+            int index = order[rank];
+            boolean winner = true;
+            for (int i = 0; i != numWinners && winner; ++i) {
+                winner = store.hammingDistance(order[i], index, radius) >= radius;
+            }
+            if (winner) {
+                order[numWinners++] = index;
             } else {
-                selected.add(new Solution(second));
+                cleared[numCleared++] = index;
+            }
+        }
+        System.arraycopy(cleared, 0, order, numWinners, numCleared);
+    }
+
+
+    /**
+     * Relink every ordered pair of the best solutions of the pool
+     *
+     * @param pool       scored solutions, sorted by score
+     * @param distances  pairwise costs between objects
+     * @param relinking  path relinking workspace
+     * @param statistics telemetry of the solve, counts the evaluations
+     * @return unique intermediate solutions better than both end points of their path, scored from scratch
+     */
+    private ArrayList<Solution> relinkPool(ArrayList<Solution> pool, DistanceProvider distances,
+                                           PathRelinking relinking, SolverStatistics statistics) {
+        ArrayList<Solution> improved = new ArrayList<>();
+        int size = Math.min(relinkingPoolSize, pool.size());
+        for (int i = 0; i != size; ++i) {
+            for (int j = 0; j != size; ++j) {
+                if (i == j) {
+                    continue;
+                }
+                Solution solution = relinking.relink(pool.get(i), pool.get(j), distances);
+                statistics.countEvaluations(1);
+                if (solution == null) {
+                    continue;
+                }
+                // the score of the path is incremental, equal genes must get equal scores (see Solution.equals)
+                solution.setScore(calculateSumOfPairsScore(solution, distances));
+                if (!improved.contains(solution)) {
+                    improved.add(solution);
+                }
             }
         }
-        return selected;
+        return improved;
+    }
+
+
+    /**
+     * Copy of an individual with its score evaluated from scratch, the population may hold incrementally updated
+     * scores (see updateSumOfPairsScore)
+     */
+    private static Solution toScoredSolution(PopulationStore store, int index, DistanceProvider distances) {
+        Solution solution = store.toSolution(index);
+        solution.setScore(calculateSumOfPairsScore(store.getGenes(), store.offset(index), store.getNumGenes(),
+                distances));
+        return solution;
+    }
+
+
+    /**
+     * Append numMembers greedy randomized constructions to the current generation, in parallel blocks
+     */
+    private void constructPopulation(final PopulationStore store, int numMembers, final DistanceProvider distances,
+                                     final ArrayList<Range> ranges, SolverSession session) {
+        // member m builds from substream m + 1 of the seeds, substream 0 being the stream of the solve
+        final long[][] memberSeeds = StreamSeeds.substreams(seeds, 1, numMembers);
+        final int first = store.size();
+        for (int member = 0; member != numMembers; ++member) {
+            store.getScores()[store.add()] = Double.POSITIVE_INFINITY;
+        }
+
+        int numBlocks = Math.min(graspThreads, numMembers);
+        if (numBlocks <= 1) {
+            constructMembers(store, first, 0, numMembers, memberSeeds, distances, ranges,
+                    session.getConstruction(), new RngStream());
+            return;
+        }
+        ArrayList<Callable<Void>> tasks = new ArrayList<>();
+        for (int block = 0; block != numBlocks; ++block) {
+            final int from = (int) ((long) block * numMembers / numBlocks);
+            final int to = (int) ((long) (block + 1) * numMembers / numBlocks);
+            // RngStream constructors are not thread-safe, the streams are created here
+            final RngStream memberStream = new RngStream();
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    constructMembers(store, first, from, to, memberSeeds, distances, ranges,
+                            new GreedyRandomizedConstruction(), memberStream);
+                    return null;
+                }
+            });
+        }
+        try {
+            for (Future<Void> future : session.getExecutor(graspThreads).invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            // rebuild serially (same members), the solve stops at its first cancellation point
+            Thread.currentThread().interrupt();
+            constructMembers(store, first, 0, numMembers, memberSeeds, distances, ranges,
+                    session.getConstruction(), new RngStream());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Construction of the initial population failed", e.getCause());
+        }
+    }
+
+
+    /**
+     * Build the members [from, to[ of the constructed part of the population, starting at index first
+     */
+    private void constructMembers(PopulationStore store, int first, int from, int to, long[][] memberSeeds,
+                                  DistanceProvider distances, ArrayList<Range> ranges,
+                                  GreedyRandomizedConstruction construction, RngStream memberStream) {
+        for (int member = from; member != to; ++member) {
+            memberStream.setSeed(memberSeeds[member]);
+            construction.construct(store.getGenes(), store.offset(first + member), distances, ranges,
+                    graspAlpha, memberStream);
+        }
+    }
+
+
+    /**
+     * Apply the configured local search on the k genes starting at offset
+     *
+     * @return score of the improved genes
+     */
+    private double improve(int[] genes, int offset, DistanceProvider distances, ArrayList<Range> ranges,
+                           int depth, SteepestDescent steepest, FirstImprovementDescent descent) {
+        switch (localSearch) {
+            case FIRST_IMPROVEMENT:
+                return descent.improve(genes, offset, distances, ranges, depth);
+            default:
+                return steepest.improve(genes, offset, distances, ranges, depth);
+        }
+    }
+
+
+    /**
+     * Reward the operator with the improvement over the previous score per nanosecond spent since the given time
+     *
+     * @return time at the end of the measure, start of the next one
+     */
+    private static long rewardOperator(AdaptivePursuit operators, int operator, double before, double after,
+                                       long time) {
+        long now = System.nanoTime();
+        operators.reward(operator, Math.max(0., before - after) / Math.max(1, now - time));
+        return now;
     }
 
 
@@ -159,6 +605,56 @@ public class HybridGeneticAlgorithm extends AbstractStrategy {
      * @return list of solutions to the consensus problem
      */
     public ArrayList<Solution> solve(Problem problem) {
+        return solve(new SolverSession(problem));
+    }
+
+
+    /**
+     * Start solving the problem in the background
+     *
+     * @param problem  instance of a consensus problem to solve
+     * @param executor runs the solve
+     * @return handle of the solve, supporting progress listeners and cooperative cancellation
+     */
+    public SolveHandle solveAsync(Problem problem, ExecutorService executor) {
+        return solveAsync(new SolverSession(problem), executor);
+    }
+
+
+    /**
+     * Start solving the problem of a session in the background, the session must not be used until the solve ends
+     *
+     * @param session  problem and workspaces kept from a solve to the next
+     * @param executor runs the solve
+     * @return handle of the solve, supporting progress listeners and cooperative cancellation
+     */
+    public SolveHandle solveAsync(SolverSession session, ExecutorService executor) {
+        return new SolveHandle(this, session, executor);
+    }
+
+
+    /**
+     * solve the problem of a session, reusing its workspaces
+     * <p/>
+     * The configuration of the strategy is only read, so a single strategy may be shared by threads solving
+     * with their own sessions (getStatistics then returns the statistics of the last solve to end).
+     * The solve stops early, returning its best solutions so far, when a stop is requested on the session or the
+     * thread is interrupted: this is checked before every child (and its descent) and at the end of every
+     * generation, after the progress listeners are notified. A stop requested before the solve is cleared.
+     *
+     * @param session problem and workspaces kept from a solve to the next
+     * @return list of solutions to the consensus problem
+     */
+    public ArrayList<Solution> solve(SolverSession session) {
+        session.clearStopRequest();
+        return run(session);
+    }
+
+
+    /**
+     * solve the problem of a session, stopping at once if a stop was already requested (see SolveHandle)
+     */
+    ArrayList<Solution> run(SolverSession session) {
         assert (populationSize > 0);
         assert (numGenerations > 0);
         assert (eliteRatio >= 0 && eliteRatio <= 1.0);
@@ -166,30 +662,82 @@ public class HybridGeneticAlgorithm extends AbstractStrategy {
         assert (0. <= crossoverMixingRatio && crossoverMixingRatio <= 1.);
         assert (0. <= mutationProbability && mutationProbability <= 1.);
 
-        class ReverseSolutionComp implements Comparator<Solution> {
+        Problem problem = session.getProblem();
+        DistanceProvider distances = problem.getDistances();
+        ArrayList<Range> ranges = problem.getRanges();
 
-            @Override
-            public int compare(Solution first, Solution second) {
-                return -1 * first.compareTo(second);
-            }
-        }
+        long startTime = System.nanoTime();
+        SolverStatistics statistics = new SolverStatistics();
+        session.startSolve(statistics);
+        statistics.start();
 
-        double[][] distanceMatrix = problem.getDistanceMatrix();
-        ArrayList<Range> ranges = problem.getRanges();
+        if (gapThreshold >= 0.) {
+            statistics.offerLowerBound(session.getRangePairBound());
+        }
 
         // seed the pseudo-random generator
-        RngStream stream = new RngStream();
-        stream.setSeed(seeds);
+        RngStream stream = session.getStream(seeds);
 
         // some declarations for later
-        PriorityQueue<Solution> hallOfFame = new PriorityQueue<>(populationSize, new ReverseSolutionComp());
+        HallOfFame hallOfFame = session.getHallOfFame(populationSize);
         int eliteSize = (int) Math.floor(eliteRatio * populationSize);
 
+        // adaptive operator probabilities, and improvement depths 1, 2, 4, .. up to 4 times the configured one
+        AdaptivePursuit operators = new AdaptivePursuit(
+                new double[]{crossoverProbability, mutationProbability, improvementProbability},
+                false, 0.01, 0.1, 0.2);
+        ArrayList<Integer> depths = new ArrayList<>();
+        for (int depth = 1; depth <= Math.max(1, 4 * improvementDepth); depth *= 2) {
+            depths.add(depth);
+        }
+        double[] uniform = new double[depths.size()];
+        Arrays.fill(uniform, 1. / depths.size());
+        AdaptivePursuit improvementDepths = new AdaptivePursuit(uniform, true, 0.05 / depths.size(), 0.1, 0.2);
+
+        NearOptimalArchive archive = (archiveSize > 0) ?
+                new NearOptimalArchive(tolerance, archiveSize, minDistance, ranges.size()) : null;
+
+        RangeReoptimization reoptimization = (lnsProbability > 0.) ? session.getReoptimization() : null;
+        SteepestDescent steepest = session.getSteepestDescent();
+        CandidateLists candidateLists = (candidateListSize > 0) ? session.getCandidateLists(candidateListSize) : null;
+        steepest.setCandidateLists(candidateLists, fullScanPeriod);
+        FirstImprovementDescent descent = session.getFirstImprovementDescent();
+        descent.setCandidateLists(candidateLists);
+        PathRelinking relinking = session.getPathRelinking();
+        OptimalRecombination recombiner = (recombination == Recombination.OPTIMAL) ?
+                session.getRecombination() : null;
+
+        // both generations, and the indices of the elite, the parents and the cleared individuals
+        int numGenes = ranges.size();
+        PopulationStore store = session.getPopulation(populationSize);
+        int[] elite = session.getElite(eliteSize);
+        int[] parents = session.getParents(2 * populationSize);
+        int[] cleared = session.getCleared(populationSize);
+        int[] changed = session.getChanged(numGenes);
+
         // start the progress meter
         //ProgressBar bar = new ProgressBar("", 40);
 
-        // initialize the population
-        ArrayList<Solution> population = initializeRandomSolutions(ranges, populationSize, stream);
+        // initialize the population, an infinite score marks an individual still to be evaluated
+        for (Solution solution : initialSolutions) {
+            if (store.size() < populationSize) {
+                store.getScores()[store.add(solution)] = Double.POSITIVE_INFINITY;
+            }
+        }
+        if (graspAlpha >= 0.) {
+            constructPopulation(store, populationSize - store.size(), distances, ranges, session);
+        }
+        while (store.size() < populationSize) {
+            int index = store.add();
+            int offset = store.offset(index);
+            for (int i = 0; i != numGenes; ++i) {
+                store.getGenes()[offset + i] = stream.randInt(ranges.get(i).getFirst(), ranges.get(i).getSecond() - 1);
+            }
+            store.getScores()[index] = Double.POSITIVE_INFINITY;
+        }
+        // after the construction, which may replace the worker pool of the session
+        steepest.setParallelism((descentThreads > 1) ? session.getExecutor(descentThreads) : null,
+                descentThreads);
 
         // main loop
         for (int generation_index = 0; generation_index != numGenerations; ++generation_index) {
@@ -199,91 +747,530 @@ public class HybridGeneticAlgorithm extends AbstractStrategy {
             //    bar.update(((float) generation_index) / numGenerations);
             //}
 
-            // score the solutions and sort the population by score
-            for (Solution solution : population) {
-                solution.setScore(calculateSumOfPairsScore(solution, distanceMatrix));
+            int[] genes = store.getGenes();
+            double[] scores = store.getScores();
+            int size = store.size();
+
+            // score the solutions not evaluated yet (the elite and the children keep theirs) and sort by score
+            int numUnscored = 0;
+            for (int index = 0; index != size; ++index) {
+                if (scores[index] == Double.POSITIVE_INFINITY) {
+                    numUnscored += 1;
+                }
+            }
+            if (numUnscored == size && distances instanceof BlockedDistances) {
+                ((BlockedDistances) distances).scoreAll(genes, size, numGenes, scores);
+            } else if (numUnscored != 0) {
+                for (int index = 0; index != size; ++index) {
+                    if (scores[index] == Double.POSITIVE_INFINITY) {
+                        scores[index] = calculateSumOfPairsScore(genes, store.offset(index), numGenes, distances);
+                    }
+                }
+            }
+            statistics.countEvaluations(numUnscored);
+            for (int index = 0; index != size; ++index) {
+                statistics.offer(scores[index]);
+            }
+            store.sort();
+            int[] order = store.getOrder();
+            if (archive != null) {
+                for (int rank = 0; rank != size; ++rank) {
+                    if (archive.admits(scores[order[rank]])) {
+                        archive.offer(toScoredSolution(store, order[rank], distances));
+                    }
+                }
+                clearNiches(store, Math.max(1, minDistance), cleared);
             }
-            Collections.sort(population);
 
 
 
-            // update the hall of fame
-            for (Solution solution : population) {
-                if (!hallOfFame.contains(solution)) {
-                    hallOfFame.add(new Solution(solution));
+            // update the hall of fame, only new solutions which would not be evicted right away are copied
+            for (int rank = 0; rank != size; ++rank) {
+                int offset = store.offset(order[rank]);
+                if (!hallOfFame.contains(genes, offset)) {
+                    if (hallOfFame.size() >= populationSize && scores[order[rank]] > hallOfFame.worstScore()) {
+                        continue;
+                    }
+                    // scored from scratch, the score of the individual may be incremental
+                    hallOfFame.add(genes, offset, calculateSumOfPairsScore(genes, offset, numGenes, distances));
                 }
                 if (hallOfFame.size() > populationSize) {
-                    hallOfFame.poll();
+                    hallOfFame.removeWorst();
                 }
             }
 
 
-            // elitist selection with only unique individuals, no repetition
-            ArrayList<Solution> elite = new ArrayList<>();
-            for (Solution solution : population) {
-                if (elite.size() >= eliteSize) {
+            // stop when the best solution is close enough to the lower bound
+            if (gapThreshold >= 0.) {
+                if (generation_index == 0) {
+                    statistics.offerLowerBound(LowerBounds.lagrangianBound(problem, statistics.getBestScore(),
+                            boundIterations));
+                }
+                if (statistics.getGap() <= gapThreshold) {
                     break;
-                } else if (!elite.contains(solution)) {
-                    elite.add(new Solution(solution));
+                }
+            }
+
+            // elitist selection with only unique individuals, no repetition
+            int numElite = 0;
+            for (int rank = 0; rank != size && numElite < eliteSize; ++rank) {
+                boolean duplicate = false;
+                for (int i = 0; i != numElite && !duplicate; ++i) {
+                    duplicate = store.isDuplicate(elite[i], order[rank]);
+                }
+                if (!duplicate) {
+                    elite[numElite++] = order[rank];
                 }
             }
 
             // selection process
-            ArrayList<Solution> parents = binaryTournamentSelection(population, ((populationSize - elite.size()) * 2), stream);
-            ArrayList<Solution> children = new ArrayList<>();
-            for (int i = 0; i != populationSize - eliteSize; ++i) {
-                Solution parent1 = parents.get(i * 2);
-                Solution parent2 = parents.get((i * 2) + 1);
-                Solution child;
+            binaryTournamentSelection(store, (populationSize - numElite) * 2, archive != null, parents, stream);
+            int numChildren = populationSize - eliteSize;
+            int[] childGenes = store.getNextGenes();
+            double[] childScores = store.getNextScores();
+            boolean stopped = false;
+            for (int i = 0; i != numChildren; ++i) {
+                // cancellation point before every child and its descent
+                if (session.isStopRequested()) {
+                    stopped = true;
+                    break;
+                }
+                int parent1 = parents[i * 2];
+                int parent2 = parents[(i * 2) + 1];
+                int child = store.copyToNext(parent1);
+                int offset = store.offset(child);
 
                 // crossover
-                if (stream.randU01() < crossoverProbability) {
-                    child = uniformCrossover(parent1, parent2, crossoverMixingRatio, stream);
-                } else {
-                    child = new Solution(parent1);
+                long time = System.nanoTime();
+                if (stream.randU01() < (adaptive ? operators.getProbability(CROSSOVER) : crossoverProbability)) {
+                    if (recombiner != null) {
+                        childScores[child] = recombiner.recombine(childGenes, offset, genes, store.offset(parent2),
+                                numGenes, distances, recombinationLimit);
+                        statistics.countEvaluations(1);
+                    } else {
+                        uniformCrossover(childGenes, offset, genes, store.offset(parent2), numGenes,
+                                crossoverMixingRatio, stream);
+                        childScores[child] = Double.POSITIVE_INFINITY;
+                    }
+                    if (adaptive && recombiner != null) {
+                        time = rewardOperator(operators, CROSSOVER, scores[parent1], childScores[child], time);
+                    } else if (adaptive) {
+                        childScores[child] = updateSumOfPairsScore(childGenes, offset, genes, store.offset(parent1),
+                                scores[parent1], numGenes, distances, changed);
+                        statistics.countEvaluations(1);
+                        time = rewardOperator(operators, CROSSOVER, scores[parent1], childScores[child], time);
+                    }
                 }
 
                 // mutation
-                if (stream.randU01() < mutationProbability) {
-                    uniformMutate(child, ranges, mutationStrength, stream);
+                if (stream.randU01() < (adaptive ? operators.getProbability(MUTATION) : mutationProbability)) {
+                    double before = childScores[child];
+                    if (candidateLists != null) {
+                        candidateMutate(childGenes, offset, ranges, mutationStrength, candidateLists, stream);
+                    } else {
+                        uniformMutate(childGenes, offset, ranges, mutationStrength, stream);
+                    }
+                    childScores[child] = Double.POSITIVE_INFINITY;
+                    if (adaptive) {
+                        childScores[child] = updateSumOfPairsScore(childGenes, offset, genes, store.offset(parent1),
+                                scores[parent1], numGenes, distances, changed);
+                        statistics.countEvaluations(1);
+                        time = rewardOperator(operators, MUTATION, before, childScores[child], time);
+                    }
                 }
 
                 // improvement
-                if (stream.randU01() < improvementProbability)
-                    steepestDescent(child, distanceMatrix, ranges, improvementDepth);
+                if (stream.randU01() < (adaptive ? operators.getProbability(IMPROVEMENT) : improvementProbability)) {
+                    if (adaptive) {
+                        double before = childScores[child];
+                        int arm = improvementDepths.select(stream);
+                        childScores[child] = improve(childGenes, offset, distances, ranges, depths.get(arm),
+                                steepest, descent);
+                        long elapsed = System.nanoTime() - time;
+                        rewardOperator(operators, IMPROVEMENT, before, childScores[child], time);
+                        improvementDepths.reward(arm, Math.max(0., before - childScores[child]) / Math.max(1, elapsed));
+                    } else {
+                        childScores[child] = improve(childGenes, offset, distances, ranges, improvementDepth,
+                                steepest, descent);
+                    }
+                    statistics.countEvaluations(1);
+                }
+
+                // joint re-optimization of interacting ranges
+                if (reoptimization != null && stream.randU01() < lnsProbability) {
+                    childScores[child] = reoptimization.improve(childGenes, offset, lnsMoves, lnsTripleLimit, stream);
+                    statistics.countEvaluations(1);
+                }
 
-                // children is complete
-                children.add(child);
+                // a child only varied by crossover and mutation is scored from its first parent
+                if (childScores[child] == Double.POSITIVE_INFINITY) {
+                    childScores[child] = updateSumOfPairsScore(childGenes, offset, genes, store.offset(parent1),
+                            scores[parent1], numGenes, distances, changed);
+                    statistics.countEvaluations(1);
+                }
+            }
+
+            // a cancelled solve returns the hall of fame of the last scored generation
+            if (stopped) {
+                break;
+            }
+
+            // intensify between the best solutions, the improvements replace the last children
+            if (relinkingInterval > 0 && (generation_index + 1) % relinkingInterval == 0) {
+                ArrayList<Solution> pool = new ArrayList<>();
+                for (int i = 0; i != Math.min(numElite, relinkingPoolSize); ++i) {
+                    pool.add(store.toSolution(elite[i]));
+                }
+                ArrayList<Solution> relinked = relinkPool(pool, distances, relinking, statistics);
+                for (int i = 0; i != Math.min(relinked.size(), numChildren); ++i) {
+                    store.setNext(numChildren - 1 - i, relinked.get(i));
+                }
+            }
+
+            // exchange with the other islands, immigrants replace the first children
+            if (migration != null && (generation_index + 1) % migrationInterval == 0) {
+                ArrayList<Solution> emigrants = new ArrayList<>();
+                for (int i = 0; i != Math.min(numMigrants, size); ++i) {
+                    emigrants.add(store.toSolution(order[i]));
+                }
+                ArrayList<Solution> immigrants = migration.exchange(emigrants);
+                for (int i = 0; i != Math.min(immigrants.size(), numChildren); ++i) {
+                    store.setNext(i, immigrants.get(i));
+                    store.getNextScores()[i] = Double.POSITIVE_INFINITY;
+                }
             }
 
             // replace the population by its children and the previous elite
-            for (Solution solution : elite) {
-                children.add(new Solution(solution));
+            for (int i = 0; i != numElite; ++i) {
+                store.copyToNext(elite[i]);
+            }
+
+            if (adaptive) {
+                operators.pursue();
+                improvementDepths.pursue();
             }
 
             // swap the two populations
-            population = children;
-        }
+            store.swap();
+            statistics.countGeneration();
+            session.notifyProgress(generation_index + 1);
+            if (session.isStopRequested()) {
+                break;
+            }
 
+            if (timeBudget > 0 && System.nanoTime() - startTime > timeBudget * 1000000L) {
+                break;
+            }
+        }
 
+        ArrayList<Solution> hallOfFameList = hallOfFame.toSolutions();
 
+        Collections.sort(hallOfFameList);
+        if (relinkingInterval > 0) {
+            // post-optimization over the final hall of fame
+            for (Solution solution : relinkPool(hallOfFameList, distances, relinking, statistics)) {
+                statistics.offer(solution.getScore());
+                if (archive != null) {
+                    archive.offer(solution);
+                }
+                if (!hallOfFameList.contains(solution)) {
+                    hallOfFameList.add(solution);
+                }
+            }
+            Collections.sort(hallOfFameList);
+        }
+        // the statistics (and the gap) include the post-optimization
+        statistics.stop();
+        this.statistics = statistics;
+        if (archive != null) {
+            return archive.getSolutions();
+        }
         // keep all the unique best solutions up to a specified suboptimal threshold
-        ArrayList<Solution> suitableSolutions = new ArrayList<>();
-        double scaledThreshold = tolerance * ranges.size() * (ranges.size() - 1);
+        return selectSuitableSolutions(hallOfFameList, tolerance, ranges.size());
+    }
+
+
+    /**
+     * @return builder with the default configuration of the command line
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
 
-        ArrayList<Solution> hallOfFameList = new ArrayList<>();
-        while (hallOfFame.size() > 0) {
-            hallOfFameList.add(hallOfFame.poll());
+    /**
+     * @return builder initialized with the configuration of this strategy
+     */
+    public Builder toBuilder() {
+        return new Builder()
+                .verbose(verbose)
+                .tolerance(tolerance)
+                .seeds(seeds)
+                .populationSize(populationSize)
+                .numGenerations(numGenerations)
+                .eliteRatio(eliteRatio)
+                .crossover(crossoverProbability, crossoverMixingRatio)
+                .mutation(mutationProbability, mutationStrength)
+                .improvement(improvementProbability, improvementDepth)
+                .timeBudget(timeBudget)
+                .localSearch(localSearch)
+                .recombination(recombination, recombinationLimit)
+                .candidateLists(candidateListSize, fullScanPeriod)
+                .descentThreads(descentThreads)
+                .greedyInitialization(graspAlpha, graspThreads)
+                .pathRelinking(relinkingInterval, relinkingPoolSize)
+                .initialSolutions(initialSolutions)
+                .gapStop(gapThreshold, boundIterations)
+                .migration(migration, migrationInterval, numMigrants)
+                .niching(archiveSize, minDistance)
+                .largeNeighborhood(lnsProbability, lnsMoves, lnsTripleLimit)
+                .adaptive(adaptive);
+    }
+
+
+    /**
+     * Fluent configuration of a HybridGeneticAlgorithm, starting from the defaults of the command line.
+     * <p/>
+     * A builder may build several strategies, each one gets the configuration at the time of the call to build.
+     */
+    public static class Builder {
+
+        private boolean verbose = false;
+        private double tolerance = 0.;
+        private long[] seeds = {42, 42, 42, 42, 42, 42};
+        private int populationSize = 250;
+        private int numGenerations = 250;
+        private double eliteRatio = 0.1;
+        private double crossoverProbability = 0.5;
+        private double crossoverMixingRatio = 0.1;
+        private double mutationProbability = 0.05;
+        private double mutationStrength = 0.2;
+        private double improvementProbability = 0.1;
+        private int improvementDepth = 4;
+
+        private long timeBudget = 0;
+        private LocalSearch localSearch = LocalSearch.STEEPEST_DESCENT;
+        private Recombination recombination = Recombination.UNIFORM;
+        private int recombinationLimit = 12;
+        private int candidateListSize = 0;
+        private int fullScanPeriod = 10;
+        private int descentThreads = 1;
+        private double graspAlpha = -1.;
+        private int graspThreads = 1;
+        private int relinkingInterval = 0;
+        private int relinkingPoolSize = 4;
+        private ArrayList<Solution> initialSolutions = new ArrayList<>();
+        private double gapThreshold = -1.;
+        private int boundIterations = 50;
+        private Migration migration = null;
+        private int migrationInterval = 10;
+        private int numMigrants = 2;
+        private int archiveSize = 0;
+        private int minDistance = 1;
+        private double lnsProbability = 0.;
+        private int lnsMoves = 4;
+        private long lnsTripleLimit = 0;
+        private boolean adaptive = false;
+
+        private Builder() {
         }
 
-        Collections.sort(hallOfFameList);
-        double scoreThreshold = hallOfFameList.get(0).getScore() + scaledThreshold;
-        for (Solution solution : hallOfFameList) {
-            if ((solution.getScore() <= scoreThreshold) && (!suitableSolutions.contains(solution))) {
-                suitableSolutions.add(new Solution(solution));
+        public Builder verbose(boolean verbose) {
+            this.verbose = verbose;
+            return this;
+        }
+
+        public Builder tolerance(double tolerance) {
+            this.tolerance = tolerance;
+            return this;
+        }
+
+        /**
+         * @param seeds the 6 seeds of the RngStream
+         */
+        public Builder seeds(long[] seeds) {
+            if (seeds.length != 6) {
+                throw new IllegalArgumentException("6 seeds are required, got " + seeds.length);
+            }
+            this.seeds = seeds.clone();
+            return this;
+        }
+
+        public Builder populationSize(int populationSize) {
+            this.populationSize = populationSize;
+            return this;
+        }
+
+        public Builder numGenerations(int numGenerations) {
+            this.numGenerations = numGenerations;
+            return this;
+        }
+
+        public Builder eliteRatio(double eliteRatio) {
+            this.eliteRatio = eliteRatio;
+            return this;
+        }
+
+        public Builder crossover(double probability, double mixingRatio) {
+            this.crossoverProbability = probability;
+            this.crossoverMixingRatio = mixingRatio;
+            return this;
+        }
+
+        public Builder mutation(double probability, double strength) {
+            this.mutationProbability = probability;
+            this.mutationStrength = strength;
+            return this;
+        }
+
+        public Builder improvement(double probability, int depth) {
+            this.improvementProbability = probability;
+            this.improvementDepth = depth;
+            return this;
+        }
+
+        /**
+         * @see HybridGeneticAlgorithm#setTimeBudget(long)
+         */
+        public Builder timeBudget(long timeBudget) {
+            this.timeBudget = timeBudget;
+            return this;
+        }
+
+        /**
+         * @see HybridGeneticAlgorithm#setLocalSearch(LocalSearch)
+         */
+        public Builder localSearch(LocalSearch localSearch) {
+            this.localSearch = localSearch;
+            return this;
+        }
+
+        /**
+         * @see HybridGeneticAlgorithm#setRecombination(Recombination, int)
+         */
+        public Builder recombination(Recombination recombination, int exactLimit) {
+            this.recombination = recombination;
+            this.recombinationLimit = exactLimit;
+            return this;
+        }
+
+        /**
+         * @see HybridGeneticAlgorithm#setCandidateLists(int, int)
+         */
+        public Builder candidateLists(int size, int fullScanPeriod) {
+            this.candidateListSize = size;
+            this.fullScanPeriod = fullScanPeriod;
+            return this;
+        }
+
+        /**
+         * @see HybridGeneticAlgorithm#setDescentThreads(int)
+         */
+        public Builder descentThreads(int numThreads) {
+            this.descentThreads = numThreads;
+            return this;
+        }
+
+        /**
+         * @see HybridGeneticAlgorithm#setGreedyInitialization(double, int)
+         */
+        public Builder greedyInitialization(double alpha, int numThreads) {
+            this.graspAlpha = alpha;
+            this.graspThreads = numThreads;
+            return this;
+        }
+
+        /**
+         * @see HybridGeneticAlgorithm#setPathRelinking(int, int)
+         */
+        public Builder pathRelinking(int interval, int poolSize) {
+            this.relinkingInterval = interval;
+            this.relinkingPoolSize = poolSize;
+            return this;
+        }
+
+        /**
+         * @see HybridGeneticAlgorithm#setInitialSolutions(ArrayList)
+         */
+        public Builder initialSolutions(ArrayList<Solution> initialSolutions) {
+            this.initialSolutions = initialSolutions;
+            return this;
+        }
+
+        /**
+         * @see HybridGeneticAlgorithm#setGapStop(double, int)
+         */
+        public Builder gapStop(double gapThreshold, int boundIterations) {
+            this.gapThreshold = gapThreshold;
+            this.boundIterations = boundIterations;
+            return this;
+        }
+
+        /**
+         * @see HybridGeneticAlgorithm#setMigration(Migration, int, int)
+         */
+        public Builder migration(Migration migration, int interval, int numMigrants) {
+            this.migration = migration;
+            this.migrationInterval = interval;
+            this.numMigrants = numMigrants;
+            return this;
+        }
+
+        /**
+         * @see HybridGeneticAlgorithm#setNiching(int, int)
+         */
+        public Builder niching(int archiveSize, int minDistance) {
+            this.archiveSize = archiveSize;
+            this.minDistance = minDistance;
+            return this;
+        }
+
+        /**
+         * @see HybridGeneticAlgorithm#setLargeNeighborhood(double, int, long)
+         */
+        public Builder largeNeighborhood(double probability, int numMoves, long tripleLimit) {
+            this.lnsProbability = probability;
+            this.lnsMoves = numMoves;
+            this.lnsTripleLimit = tripleLimit;
+            return this;
+        }
+
+        /**
+         * @see HybridGeneticAlgorithm#setAdaptive(boolean)
+         */
+        public Builder adaptive(boolean adaptive) {
+            this.adaptive = adaptive;
+            return this;
+        }
+
+        /**
+         * @return strategy with the current configuration of the builder
+         */
+        public HybridGeneticAlgorithm build() {
+            if (populationSize <= 0 || numGenerations <= 0) {
+                throw new IllegalArgumentException("Population size and number of generations must be positive");
             }
+            if (eliteRatio < 0. || eliteRatio > 1.) {
+                throw new IllegalArgumentException("Elite ratio must be in [0, 1], got " + eliteRatio);
+            }
+            HybridGeneticAlgorithm strategy = new HybridGeneticAlgorithm(verbose, tolerance, seeds.clone(),
+                    populationSize, numGenerations, eliteRatio,
+                    crossoverProbability, crossoverMixingRatio,
+                    mutationProbability, mutationStrength,
+                    improvementProbability, improvementDepth);
+            strategy.setTimeBudget(timeBudget);
+            strategy.setLocalSearch(localSearch);
+            strategy.setRecombination(recombination, recombinationLimit);
+            strategy.setCandidateLists(candidateListSize, fullScanPeriod);
+            strategy.setDescentThreads(descentThreads);
+            strategy.setGreedyInitialization(graspAlpha, graspThreads);
+            strategy.setPathRelinking(relinkingInterval, relinkingPoolSize);
+            strategy.setInitialSolutions(initialSolutions);
+            strategy.setGapStop(gapThreshold, boundIterations);
+            strategy.setMigration(migration, migrationInterval, numMigrants);
+            strategy.setNiching(archiveSize, minDistance);
+            strategy.setLargeNeighborhood(lnsProbability, lnsMoves, lnsTripleLimit);
+            strategy.setAdaptive(adaptive);
+            return strategy;
         }
-        return suitableSolutions;
     }
 }
-
@@ -0,0 +1,12 @@
+package kcliquesolver.core.solvers;
+
+
+/**
+ * Local search procedures available as improvement operator.
+ */
+public enum LocalSearch {
+    // best substitution of a full sweep per iteration (AbstractStrategy.steepestDescent)
+    STEEPEST_DESCENT,
+    // first improving substitution, don't-look bits and incremental score (FirstImprovementDescent)
+    FIRST_IMPROVEMENT
+}
@@ -0,0 +1,110 @@
+package kcliquesolver.core.solvers;
+
+import java.util.Arrays;
+
+
+/**
+ * Binary heap of (key, value, tag) entries, largest key first, stored in primitive arrays.
+ * <p/>
+ * Same sift procedures as java.util.PriorityQueue, so entries of equal keys come out in the same order as from a
+ * PriorityQueue fed the same sequence, without allocating an object per entry. The arrays only grow, once warm
+ * the heap allocates nothing.
+ */
+class MaxHeap {
+
+    private double[] keys;
+    private int[] values;
+    private int[] tags;
+    private int size = 0;
+
+    /**
+     * @param capacity initial number of entries held without growing
+     */
+    MaxHeap(int capacity) {
+        capacity = Math.max(1, capacity);
+        keys = new double[capacity];
+        values = new int[capacity];
+        tags = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return key of the first entry (the largest)
+     */
+    double peekKey() {
+        return keys[0];
+    }
+
+    int peekValue() {
+        return values[0];
+    }
+
+    int peekTag() {
+        return tags[0];
+    }
+
+    void add(double key, int value, int tag) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * size);
+            values = Arrays.copyOf(values, 2 * size);
+            tags = Arrays.copyOf(tags, 2 * size);
+        }
+        // sift up
+        int k = size++;
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            if (Double.compare(key, keys[parent]) <= 0) {
+                break;
+            }
+            set(k, keys[parent], values[parent], tags[parent]);
+            k = parent;
+        }
+        set(k, key, value, tag);
+    }
+
+    /**
+     * Remove the first entry (the largest key)
+     */
+    void remove() {
+        int last = --size;
+        if (last == 0) {
+            return;
+        }
+        double key = keys[last];
+        int value = values[last];
+        int tag = tags[last];
+        // sift down
+        int k = 0;
+        int half = size >>> 1;
+        while (k < half) {
+            int child = 2 * k + 1;
+            int right = child + 1;
+            if (right < size && Double.compare(keys[child], keys[right]) < 0) {
+                child = right;
+            }
+            if (Double.compare(key, keys[child]) >= 0) {
+                break;
+            }
+            set(k, keys[child], values[child], tags[child]);
+            k = child;
+        }
+        set(k, key, value, tag);
+    }
+
+    private void set(int k, double key, int value, int tag) {
+        keys[k] = key;
+        values[k] = value;
+        tags[k] = tag;
+    }
+}
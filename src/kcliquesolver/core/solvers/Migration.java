@@ -0,0 +1,21 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.models.Solution;
+
+import java.util.ArrayList;
+
+
+/**
+ * Channel between a genetic algorithm island and the other islands of an island model.
+ */
+public interface Migration {
+
+    /**
+     * Send the best solutions of the island and receive solutions of other islands in exchange.
+     * Implementations must not block waiting for the other islands.
+     *
+     * @param emigrants best solutions of the island (scored), best first
+     * @return solutions of other islands (possibly none), in the indices of the same problem
+     */
+    ArrayList<Solution> exchange(ArrayList<Solution> emigrants);
+}
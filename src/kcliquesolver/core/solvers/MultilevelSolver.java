@@ -0,0 +1,351 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.distances.DistanceProvider;
+import kcliquesolver.core.distances.SubsetDistances;
+import kcliquesolver.core.models.Problem;
+import kcliquesolver.core.models.Range;
+import kcliquesolver.core.models.Solution;
+import kcliquesolver.core.rng.RngStream;
+import kcliquesolver.core.rng.StreamSeeds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+
+/**
+ * Multilevel strategy for very large ranges: coarsen the ranges, solve the coarse problem, refine level by level.
+ * <p/>
+ * A coarsening step pairs the objects of every range with similar distance rows and keeps one representative per
+ * pair (the one with the lowest costs), roughly halving the ranges. Rows are compared on a sketch, their costs
+ * towards and from a sample of objects, and each object is only compared with its next unmatched neighbors in the
+ * order of a random projection of the sketches (heavy edge matching), which costs O(m log m) per range of m
+ * objects. The steps are repeated until the largest range has at most coarseRangeSize objects.
+ * <p/>
+ * Every level is a view of the original distances over the objects left (see SubsetDistances), so the solutions of
+ * a level are solutions of every finer level, with the same score. The coarsest problem is solved by the genetic
+ * algorithm, then its best solution goes back down the levels, improved at each one by a local search to a local
+ * optimum over the objects of that level. Single substitutions cannot move a whole clique towards the objects
+ * made available by a finer level, so each level can also be refined by a few generations of the genetic
+ * algorithm seeded with the projected solution, much cheaper than solving that level from scratch.
+ * <p/>
+ * Further cycles coarsen again with other sketches, keeping the genes of the best solution so far at every level,
+ * and seed the coarse problem with it: each cycle explores other coarse neighborhoods and never ends worse.
+ */
+public class MultilevelSolver extends AbstractStrategy {
+
+    // objects whose costs make up the sketch of a row
+    private static final int SKETCH_SIZE = 32;
+
+    // unmatched neighbors (in projection order) compared with each object
+    private static final int WINDOW = 8;
+
+    // coarsening stops when a step removes less than this fraction of the objects
+    private static final double MIN_REDUCTION = 0.1;
+
+    // substitutions per gene of the local search of a level: the descents only weigh the costs towards the gene
+    // substituted, so with asymmetric costs they may not converge (and the projected genes are kept if they end worse)
+    private static final int MOVES_PER_GENE = 4;
+
+    // rows cached by the view of a level, at most this many values in total (and at least 2 rows per range)
+    private static final int CACHE_VALUES = 1 << 24;
+
+    private final HybridGeneticAlgorithm coarseSolver;
+    private final int coarseRangeSize;
+    private final int refineGenerations;
+    private final int numCycles;
+    private final long[] seeds;
+    private final boolean verbose;
+
+    /**
+     * @param coarseSolver      configuration of the strategy solving the coarsest problem (its local search also
+     *                          refines the levels)
+     * @param coarseRangeSize   largest range size of the coarsest level
+     * @param refineGenerations generations of the genetic algorithm refining every finer level after its local
+     *                          search, seeded with the projected solution (0 for the local search only)
+     * @param numCycles         number of coarsen-solve-refine cycles
+     * @param seeds             seeds of the pseudo-random streams (6 values)
+     * @param verbose           report the size and the score of every level
+     */
+    public MultilevelSolver(HybridGeneticAlgorithm coarseSolver, int coarseRangeSize, int refineGenerations,
+                            int numCycles, long[] seeds, boolean verbose) {
+        if (coarseRangeSize < 1 || numCycles < 1 || refineGenerations < 0) {
+            throw new IllegalArgumentException("The coarse range size and the number of cycles must be positive, " +
+                    "the number of refinement generations non-negative");
+        }
+        if (seeds.length != 6) {
+            throw new IllegalArgumentException("6 seeds are required, got " + seeds.length);
+        }
+        this.coarseSolver = coarseSolver;
+        this.coarseRangeSize = coarseRangeSize;
+        this.refineGenerations = refineGenerations;
+        this.numCycles = numCycles;
+        this.seeds = seeds.clone();
+        this.verbose = verbose;
+    }
+
+
+    @Override
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+
+    @Override
+    public ArrayList<Solution> solve(Problem problem) {
+        SolverStatistics statistics = new SolverStatistics();
+        statistics.start();
+        DistanceProvider distances = problem.getDistances();
+        ArrayList<Range> ranges = problem.getRanges();
+        int numGenes = ranges.size();
+        RngStream stream = new RngStream();
+        if (!stream.setSeed(seeds)) {
+            throw new IllegalArgumentException("Invalid seeds for the random stream");
+        }
+
+        int[] genes = null;
+        double score = Double.POSITIVE_INFINITY;
+        // every solve of a level starts a new substream of the seeds, substream 0 is the stream of the cycles
+        int numSubstreams = 1;
+        SteepestDescent steepest = new SteepestDescent();
+        FirstImprovementDescent descent = new FirstImprovementDescent();
+        int[] local = new int[numGenes];
+        int[] projected = new int[numGenes];
+        for (int cycle = 0; cycle != numCycles; ++cycle) {
+            // objects of every level (sorted, level 0 holds every object) and the bounds of their ranges,
+            // the genes of the incumbent are kept at every level
+            ArrayList<int[]> levelObjects = new ArrayList<>();
+            ArrayList<int[]> levelBounds = new ArrayList<>();
+            int[] objects = new int[distances.size()];
+            int[] bounds = new int[numGenes + 1];
+            for (int object = 0; object != objects.length; ++object) {
+                objects[object] = object;
+            }
+            for (int r = 0; r != numGenes; ++r) {
+                bounds[r + 1] = ranges.get(r).getSecond();
+            }
+            levelObjects.add(objects);
+            levelBounds.add(bounds);
+            while (largestRange(bounds) > coarseRangeSize) {
+                int[] coarseBounds = new int[numGenes + 1];
+                int[] coarseObjects = coarsen(distances, objects, bounds, genes, coarseBounds, stream);
+                if (coarseObjects.length > (1. - MIN_REDUCTION) * objects.length) {
+                    break;
+                }
+                objects = coarseObjects;
+                bounds = coarseBounds;
+                levelObjects.add(objects);
+                levelBounds.add(bounds);
+            }
+            int coarsest = levelObjects.size() - 1;
+
+            // solve the coarsest level, its genes are objects of the original problem
+            long[] cycleSeeds = StreamSeeds.substream(seeds, numSubstreams++);
+            HybridGeneticAlgorithm.Builder builder = coarseSolver.toBuilder().seeds(cycleSeeds).verbose(false);
+            if (genes != null) {
+                ArrayList<Integer> incumbent = new ArrayList<>();
+                for (int gene : genes) {
+                    incumbent.add(Arrays.binarySearch(objects, gene));
+                }
+                builder.initialSolutions(new ArrayList<>(Collections.singletonList(new Solution(incumbent, score))));
+            }
+            HybridGeneticAlgorithm strategy = builder.build();
+            Solution best = Collections.min(strategy.solve(levelProblem(problem, objects, bounds)));
+            statistics.countEvaluations(strategy.getStatistics().getNumEvaluations());
+            int[] cycleGenes = new int[numGenes];
+            for (int i = 0; i != numGenes; ++i) {
+                cycleGenes[i] = objects[best.getGene(i)];
+            }
+            double cycleScore = best.getScore();
+            statistics.offer(cycleScore);
+            if (verbose) {
+                System.err.println("cycle " + (cycle + 1) + ", level " + coarsest + ": " + objects.length +
+                        " objects, score " + cycleScore);
+            }
+
+            // refine down to the original problem
+            for (int level = coarsest - 1; level >= 0; --level) {
+                objects = levelObjects.get(level);
+                bounds = levelBounds.get(level);
+                Problem levelProblem = (level == 0) ? problem : levelProblem(problem, objects, bounds);
+                for (int i = 0; i != numGenes; ++i) {
+                    local[i] = (level == 0) ? cycleGenes[i] : Arrays.binarySearch(objects, cycleGenes[i]);
+                }
+                System.arraycopy(local, 0, projected, 0, numGenes);
+                double refinedScore;
+                if (coarseSolver.getLocalSearch() == LocalSearch.FIRST_IMPROVEMENT) {
+                    refinedScore = descent.improve(local, 0, levelProblem.getDistances(), levelProblem.getRanges(),
+                            MOVES_PER_GENE * numGenes);
+                } else {
+                    refinedScore = steepest.improve(local, 0, levelProblem.getDistances(), levelProblem.getRanges(),
+                            MOVES_PER_GENE * numGenes);
+                }
+                if (refinedScore <= cycleScore) {
+                    cycleScore = refinedScore;
+                } else {
+                    System.arraycopy(projected, 0, local, 0, numGenes);
+                }
+                if (refineGenerations > 0) {
+                    long[] levelSeeds = StreamSeeds.substream(seeds, numSubstreams++);
+                    ArrayList<Integer> start = new ArrayList<>();
+                    for (int gene : local) {
+                        start.add(gene);
+                    }
+                    HybridGeneticAlgorithm refiner = coarseSolver.toBuilder().seeds(levelSeeds).verbose(false)
+                            .numGenerations(refineGenerations)
+                            .initialSolutions(new ArrayList<>(Collections.singletonList(
+                                    new Solution(start, cycleScore))))
+                            .build();
+                    Solution refined = Collections.min(refiner.solve(levelProblem));
+                    statistics.countEvaluations(refiner.getStatistics().getNumEvaluations());
+                    for (int i = 0; i != numGenes; ++i) {
+                        local[i] = refined.getGene(i);
+                    }
+                    cycleScore = refined.getScore();
+                }
+                for (int i = 0; i != numGenes; ++i) {
+                    cycleGenes[i] = objects[local[i]];
+                }
+                statistics.countEvaluations(1);
+                statistics.offer(cycleScore);
+                if (verbose) {
+                    System.err.println("cycle " + (cycle + 1) + ", level " + level + ": " + objects.length +
+                            " objects, score " + cycleScore);
+                }
+            }
+            statistics.countGeneration();
+
+            // the incumbent is part of every level, a cycle never ends worse than the previous one
+            if (cycleScore <= score) {
+                genes = cycleGenes;
+                score = cycleScore;
+            }
+        }
+
+        ArrayList<Integer> solutionGenes = new ArrayList<>();
+        for (int gene : genes) {
+            solutionGenes.add(gene);
+        }
+        statistics.stop();
+        this.statistics = statistics;
+        return new ArrayList<>(Collections.singletonList(new Solution(solutionGenes, score)));
+    }
+
+
+    /**
+     * View of the problem over the objects of a level, caching as many rows as fit in CACHE_VALUES values
+     */
+    private static Problem levelProblem(Problem problem, int[] objects, int[] bounds) {
+        ArrayList<Range> ranges = new ArrayList<>();
+        for (int r = 0; r + 1 != bounds.length; ++r) {
+            ranges.add(new Range(bounds[r], bounds[r + 1], problem.getRanges().get(r).getLabel()));
+        }
+        int cacheCapacity = Math.max(2 * ranges.size(), Math.min(objects.length, CACHE_VALUES / objects.length));
+        return new Problem(new SubsetDistances(problem.getDistances(), objects, null, cacheCapacity), ranges);
+    }
+
+
+    private static int largestRange(int[] bounds) {
+        int largest = 0;
+        for (int r = 0; r + 1 != bounds.length; ++r) {
+            largest = Math.max(largest, bounds[r + 1] - bounds[r]);
+        }
+        return largest;
+    }
+
+
+    /**
+     * One coarsening step: pair the objects of every range with similar rows, keep one representative per pair
+     *
+     * @param distances    pairwise costs between the original objects
+     * @param objects      original objects of the level, sorted, range after range
+     * @param bounds       positions in objects of the first object of every range, and the number of objects
+     * @param keep         original object kept as representative in every range (null for none)
+     * @param coarseBounds receives the bounds of the coarse level
+     * @param stream       pseudo-random number generator stream, draws the sketch and the projection
+     * @return original objects of the coarse level, sorted
+     */
+    static int[] coarsen(DistanceProvider distances, int[] objects, int[] bounds, int[] keep, int[] coarseBounds,
+                         RngStream stream) {
+        // sketch of every row: costs towards and from a sample of the objects of the level
+        int sketchSize = Math.min(SKETCH_SIZE, objects.length);
+        int[] sample = new int[sketchSize];
+        for (int s = 0; s != sketchSize; ++s) {
+            sample[s] = objects[stream.randInt(0, objects.length - 1)];
+        }
+        double[] direction = new double[2 * sketchSize];
+        for (int s = 0; s != direction.length; ++s) {
+            direction[s] = stream.randU01() - 0.5;
+        }
+
+        int[] coarse = new int[objects.length];
+        int numCoarse = 0;
+        for (int r = 0; r + 1 != bounds.length; ++r) {
+            int size = bounds[r + 1] - bounds[r];
+            final double[][] sketches = new double[size][2 * sketchSize];
+            final double[] keys = new double[size];
+            double[] costs = new double[size];
+            Integer[] order = new Integer[size];
+            for (int x = 0; x != size; ++x) {
+                int object = objects[bounds[r] + x];
+                for (int s = 0; s != sketchSize; ++s) {
+                    sketches[x][2 * s] = distances.get(object, sample[s]);
+                    sketches[x][2 * s + 1] = distances.get(sample[s], object);
+                }
+                for (int s = 0; s != direction.length; ++s) {
+                    keys[x] += direction[s] * sketches[x][s];
+                    costs[x] += sketches[x][s];
+                }
+                order[x] = x;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer first, Integer second) {
+                    return Double.compare(keys[first], keys[second]);
+                }
+            });
+
+            // each unmatched object is paired with the most similar of its next unmatched neighbors
+            boolean[] matched = new boolean[size];
+            int first = numCoarse;
+            for (int p = 0; p != size; ++p) {
+                int x = order[p];
+                if (matched[x]) {
+                    continue;
+                }
+                matched[x] = true;
+                int partner = -1;
+                double closest = Double.POSITIVE_INFINITY;
+                for (int q = p + 1, seen = 0; q != size && seen != WINDOW; ++q) {
+                    int y = order[q];
+                    if (matched[y]) {
+                        continue;
+                    }
+                    seen += 1;
+                    double difference = 0.;
+                    for (int s = 0; s != 2 * sketchSize; ++s) {
+                        difference += Math.abs(sketches[x][s] - sketches[y][s]);
+                    }
+                    if (difference < closest) {
+                        closest = difference;
+                        partner = y;
+                    }
+                }
+                int representative = x;
+                if (partner != -1) {
+                    matched[partner] = true;
+                    if (keep != null && objects[bounds[r] + partner] == keep[r]) {
+                        representative = partner;
+                    } else if (keep == null || objects[bounds[r] + x] != keep[r]) {
+                        representative = (costs[partner] < costs[x]) ? partner : x;
+                    }
+                }
+                coarse[numCoarse++] = objects[bounds[r] + representative];
+            }
+            Arrays.sort(coarse, first, numCoarse);
+            coarseBounds[r + 1] = numCoarse;
+        }
+        return Arrays.copyOf(coarse, numCoarse);
+    }
+}
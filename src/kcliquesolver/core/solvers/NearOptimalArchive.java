@@ -0,0 +1,182 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.models.Solution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+
+
+/**
+ * Bounded archive of distinct solutions within the tolerance window of the best score seen.
+ * <p/>
+ * Solutions are indexed by a hash of their genes, so duplicates are rejected without comparing the genes
+ * of every archived solution. Archived solutions are also kept at least minDistance genes apart (Hamming
+ * distance): a solution too close to a better archived one is rejected, and replaces the archived ones it is
+ * too close to when it is better than all of them. Past the maximum count, the worst solution is evicted.
+ * When the best score improves, solutions falling out of the window are evicted.
+ */
+public class NearOptimalArchive {
+
+    private final double window;
+    private final int maxCount;
+    private final int minDistance;
+
+    private final HashMap<Long, ArrayList<Solution>> buckets = new HashMap<>();
+    private final ArrayList<Solution> solutions = new ArrayList<>();
+    private double bestScore = Double.POSITIVE_INFINITY;
+
+    /**
+     * @param tolerance   permitted gap between archived solutions and the best one, normalized by k * (k - 1)
+     * @param maxCount    maximum number of solutions archived
+     * @param minDistance minimum number of differing genes between two archived solutions (1 or less: distinct)
+     * @param numGenes    number of genes of the solutions (k)
+     */
+    public NearOptimalArchive(double tolerance, int maxCount, int minDistance, int numGenes) {
+        assert (maxCount > 0);
+        this.window = tolerance * numGenes * (numGenes - 1);
+        this.maxCount = maxCount;
+        this.minDistance = minDistance;
+    }
+
+    public int size() {
+        return solutions.size();
+    }
+
+    public double getBestScore() {
+        return bestScore;
+    }
+
+    /**
+     * @return whether or not a solution of this score currently falls within the window
+     */
+    public boolean admits(double score) {
+        return score <= bestScore + window;
+    }
+
+
+    /**
+     * Archive a copy of the solution if it is within the window, new and far enough from better ones
+     *
+     * @param solution scored solution
+     * @return whether or not the solution was archived
+     */
+    public boolean offer(Solution solution) {
+        double score = solution.getScore();
+        if (!admits(score)) {
+            return false;
+        }
+        long hash = genomeHash(solution);
+        ArrayList<Solution> bucket = buckets.get(hash);
+        if (bucket != null) {
+            for (Solution archived : bucket) {
+                if (sameGenes(archived, solution)) {
+                    return false;
+                }
+            }
+        }
+
+        // niche of the solution: archived solutions closer than the minimum distance
+        ArrayList<Solution> neighbours = new ArrayList<>();
+        if (minDistance > 1) {
+            for (Solution archived : solutions) {
+                if (hammingDistance(archived, solution, minDistance) < minDistance) {
+                    if (archived.getScore() <= score) {
+                        return false;
+                    }
+                    neighbours.add(archived);
+                }
+            }
+        }
+        for (Solution neighbour : neighbours) {
+            remove(neighbour);
+        }
+
+        Solution copy = new Solution(solution);
+        solutions.add(copy);
+        if (bucket == null) {
+            bucket = new ArrayList<>(1);
+            buckets.put(hash, bucket);
+        }
+        bucket.add(copy);
+
+        if (score < bestScore) {
+            bestScore = score;
+            for (int i = solutions.size() - 1; i >= 0; --i) {
+                if (solutions.get(i).getScore() > bestScore + window) {
+                    remove(solutions.get(i));
+                }
+            }
+        }
+        if (solutions.size() > maxCount) {
+            Solution worst = solutions.get(0);
+            for (Solution archived : solutions) {
+                if (archived.getScore() > worst.getScore()) {
+                    worst = archived;
+                }
+            }
+            remove(worst);
+        }
+        return solutions.contains(copy);
+    }
+
+
+    /**
+     * @return copies of the archived solutions, sorted by score
+     */
+    public ArrayList<Solution> getSolutions() {
+        ArrayList<Solution> sorted = new ArrayList<>(solutions.size());
+        for (Solution solution : solutions) {
+            sorted.add(new Solution(solution));
+        }
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+
+    private void remove(Solution solution) {
+        solutions.remove(solution);
+        long hash = genomeHash(solution);
+        ArrayList<Solution> bucket = buckets.get(hash);
+        bucket.remove(solution);
+        if (bucket.isEmpty()) {
+            buckets.remove(hash);
+        }
+    }
+
+
+    /**
+     * 64 bits polynomial hash of the genes, independent of the score
+     */
+    static long genomeHash(Solution solution) {
+        long hash = 1125899906842597L;
+        for (int i = 0; i != solution.size(); ++i) {
+            hash = 31 * hash + solution.getGene(i);
+        }
+        return hash;
+    }
+
+
+    private static boolean sameGenes(Solution first, Solution second) {
+        for (int i = 0; i != first.size(); ++i) {
+            if (first.getGene(i) != second.getGene(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Number of positions at which the genes differ, counting stops at limit
+     */
+    static int hammingDistance(Solution first, Solution second, int limit) {
+        int distance = 0;
+        for (int i = 0; i != first.size() && distance < limit; ++i) {
+            if (first.getGene(i) != second.getGene(i)) {
+                ++distance;
+            }
+        }
+        return distance;
+    }
+}
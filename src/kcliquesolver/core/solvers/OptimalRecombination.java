@@ -0,0 +1,151 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.distances.DistanceProvider;
+
+
+/**
+ * Cost-aware crossover: best child among those taking each gene from one of its two parents.
+ * <p/>
+ * Where the parents agree, the child keeps their common gene. With d differing positions, the reduced problem
+ * only has 2^d children. Up to the exact limit, all of them are enumerated in Gray code order: consecutive
+ * children differ by a single gene, so each one is scored incrementally in O(k) from the per-position
+ * contributions (see ContributionWorkspace). Beyond the limit, a steepest descent restricted to the parental genes is applied instead,
+ * starting from the first parent.
+ * <p/>
+ * The workspaces are kept between calls, an instance must not be shared between threads.
+ */
+public class OptimalRecombination {
+
+    // improvements smaller than this are considered rounding noise
+    private static final double EPSILON = 1e-9;
+
+    private final ContributionWorkspace workspace = new ContributionWorkspace();
+
+    // differing positions, with the gene of the other parent and its row
+    private int[] differences = new int[0];
+    private int[] alternatives = new int[0];
+    private double[][] alternativeRows = new double[0][];
+
+    /**
+     * Replace the child, a copy of the first parent, by the best recombination of both parents
+     *
+     * @param child        gene array holding the child
+     * @param childOffset  position of the first gene of the child
+     * @param parent       gene array holding the second parent
+     * @param parentOffset position of the first gene of the second parent
+     * @param length       number of genes (k)
+     * @param distances    pairwise costs between objects
+     * @param exactLimit   largest number of differing positions enumerated exactly (at most 30)
+     * @return score of the child
+     */
+    public double recombine(int[] child, int childOffset, int[] parent, int parentOffset, int length,
+                            DistanceProvider distances, int exactLimit) {
+        assert (exactLimit <= 30);
+        allocate(length);
+        int[] genes = workspace.getGenes();
+
+        int numDifferences = 0;
+        for (int i = 0; i != length; ++i) {
+            genes[i] = child[childOffset + i];
+            int other = parent[parentOffset + i];
+            if (other != genes[i]) {
+                differences[numDifferences] = i;
+                alternatives[numDifferences] = other;
+                alternativeRows[numDifferences] = distances.getRow(other);
+                ++numDifferences;
+            }
+        }
+
+        double score = workspace.load(distances);
+        // identical parents
+        if (numDifferences == 0) {
+            return score;
+        }
+
+        if (numDifferences <= exactLimit) {
+            enumerate(numDifferences, score);
+        } else {
+            descend(numDifferences);
+        }
+
+        // rescore from scratch, the incremental updates accumulate rounding errors
+        System.arraycopy(genes, 0, child, childOffset, length);
+        return workspace.score();
+    }
+
+
+    /**
+     * Visit the 2^d children in Gray code order, and leave the workspace on the best one
+     */
+    private void enumerate(int numDifferences, double score) {
+        // bit b of a mask set: the gene of the other parent is used at differences[b]
+        int mask = 0;
+        int bestMask = 0;
+        double bestScore = score;
+        int numChildren = 1 << numDifferences;
+        for (int step = 1; step != numChildren; ++step) {
+            int bit = Integer.numberOfTrailingZeros(step);
+            score += flip(bit);
+            mask ^= 1 << bit;
+            if (score < bestScore - EPSILON) {
+                bestScore = score;
+                bestMask = mask;
+            }
+        }
+        for (int toggle = mask ^ bestMask; toggle != 0; toggle &= toggle - 1) {
+            flip(Integer.numberOfTrailingZeros(toggle));
+        }
+    }
+
+
+    /**
+     * Steepest descent over the flips of the differing positions, at most one flip per position
+     */
+    private void descend(int numDifferences) {
+        for (int move = 0; move != numDifferences; ++move) {
+            int bestBit = -1;
+            double bestDelta = -EPSILON;
+            for (int bit = 0; bit != numDifferences; ++bit) {
+                int position = differences[bit];
+                double delta = workspace.substitutionCost(position, alternatives[bit], alternativeRows[bit]) -
+                        workspace.getContribution(position);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestBit = bit;
+                }
+            }
+            if (bestBit == -1) {
+                return;
+            }
+            flip(bestBit);
+        }
+    }
+
+
+    private void allocate(int size) {
+        workspace.allocate(size);
+        if (differences.length != size) {
+            differences = new int[size];
+            alternatives = new int[size];
+            alternativeRows = new double[size][];
+        }
+    }
+
+
+    /**
+     * Swap the gene at a differing position with the one of the other parent, and update the contributions
+     *
+     * @return difference in score caused by the flip
+     */
+    private double flip(int bit) {
+        int position = differences[bit];
+        int previous = workspace.getGenes()[position];
+        double[] previousRow = workspace.getRow(position);
+        double delta = workspace.move(position, alternatives[bit], alternativeRows[bit]);
+
+        // flipping again restores the previous gene
+        alternatives[bit] = previous;
+        alternativeRows[bit] = previousRow;
+        return delta;
+    }
+}
@@ -0,0 +1,87 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.distances.DistanceProvider;
+import kcliquesolver.core.models.Solution;
+
+import java.util.ArrayList;
+
+
+/**
+ * Greedy path relinking between two solutions.
+ * <p/>
+ * Starting from the initiating solution, each step copies one gene of the guiding solution, the one
+ * lowering the score the most, until both solutions are identical. Every intermediate solution is scored
+ * incrementally from the per-position contributions (see ContributionWorkspace), in O(k) per candidate step,
+ * and the best one is kept.
+ * <p/>
+ * The workspaces are kept between calls, an instance must not be shared between threads.
+ */
+public class PathRelinking {
+
+    private final ContributionWorkspace workspace = new ContributionWorkspace();
+    private int[] differences = new int[0];
+
+    /**
+     * Walk the path from the initiating solution to the guiding one
+     *
+     * @param initiating starting point of the path
+     * @param guiding    end point of the path
+     * @param distances  pairwise costs between objects
+     * @return best intermediate solution (scored), null if none is better than both end points
+     */
+    public Solution relink(Solution initiating, Solution guiding, DistanceProvider distances) {
+        int size = initiating.size();
+        workspace.allocate(size);
+        if (differences.length != size) {
+            differences = new int[size];
+        }
+        int[] genes = workspace.getGenes();
+
+        int numDifferences = 0;
+        for (int i = 0; i != size; ++i) {
+            genes[i] = initiating.getGene(i);
+            if (genes[i] != guiding.getGene(i)) {
+                differences[numDifferences++] = i;
+            }
+        }
+        // intermediate solutions only exist with at least 2 differences
+        if (numDifferences < 2) {
+            return null;
+        }
+
+        double score = workspace.load(distances);
+
+        double bestScore = Math.min(score, guiding.getScore());
+        ArrayList<Integer> bestGenes = null;
+
+        // the last step would reach the guiding solution itself
+        while (numDifferences > 1) {
+            int bestIndex = -1;
+            double bestDelta = Double.POSITIVE_INFINITY;
+            for (int index = 0; index != numDifferences; ++index) {
+                int position = differences[index];
+                double delta = workspace.substitutionCost(position, guiding.getGene(position), distances,
+                        Double.POSITIVE_INFINITY) - workspace.getContribution(position);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestIndex = index;
+                }
+            }
+
+            int position = differences[bestIndex];
+            int candidate = guiding.getGene(position);
+            workspace.move(position, candidate, distances.getRow(candidate));
+            score += bestDelta;
+            differences[bestIndex] = differences[--numDifferences];
+
+            if (score < bestScore) {
+                bestScore = score;
+                bestGenes = new ArrayList<>(size);
+                for (int i = 0; i != size; ++i) {
+                    bestGenes.add(genes[i]);
+                }
+            }
+        }
+        return (bestGenes == null) ? null : new Solution(bestGenes, bestScore);
+    }
+}
@@ -0,0 +1,249 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.models.Solution;
+
+import java.util.ArrayList;
+
+
+/**
+ * Structure of arrays storage of a genetic algorithm population, double buffered.
+ * <p/>
+ * The genes of the current generation are stored contiguously in a single int array (individual i at
+ * offset i * k), with their scores in a parallel double array. The next generation is built in a second pair
+ * of arrays, and both are swapped between generations, so no individual is allocated once the store exists.
+ * Individuals are referred to by index, and ordered by an index sort of the scores.
+ */
+public class PopulationStore {
+
+    private final int capacity;
+    private final int numGenes;
+
+    private int[] genes;
+    private double[] scores;
+    private int size = 0;
+
+    private int[] nextGenes;
+    private double[] nextScores;
+    private int nextSize = 0;
+
+    // indices of the current generation, sorted by score by sort()
+    private final int[] order;
+    private final int[] buffer;
+
+    /**
+     * @param capacity maximum number of individuals of a generation
+     * @param numGenes number of genes of an individual (k)
+     */
+    public PopulationStore(int capacity, int numGenes) {
+        this.capacity = capacity;
+        this.numGenes = numGenes;
+        this.genes = new int[capacity * numGenes];
+        this.scores = new double[capacity];
+        this.nextGenes = new int[capacity * numGenes];
+        this.nextScores = new double[capacity];
+        this.order = new int[capacity];
+        this.buffer = new int[capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getNumGenes() {
+        return numGenes;
+    }
+
+    /**
+     * @return number of individuals of the current generation
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getNextSize() {
+        return nextSize;
+    }
+
+    /**
+     * @return genes of the current generation, individual i starting at offset(i)
+     */
+    public int[] getGenes() {
+        return genes;
+    }
+
+    public double[] getScores() {
+        return scores;
+    }
+
+    public int[] getNextGenes() {
+        return nextGenes;
+    }
+
+    public double[] getNextScores() {
+        return nextScores;
+    }
+
+    public int offset(int index) {
+        return index * numGenes;
+    }
+
+    /**
+     * @return indices of the current generation, in the order of the last sort (or reordering)
+     */
+    public int[] getOrder() {
+        return order;
+    }
+
+
+    /**
+     * Empty both generations, the arrays are kept
+     */
+    public void clear() {
+        size = 0;
+        nextSize = 0;
+    }
+
+    /**
+     * Reserve an individual at the end of the current generation (initialization)
+     *
+     * @return index of the individual, genes and score to be filled by the caller
+     */
+    public int add() {
+        assert (size < capacity);
+        order[size] = size;
+        return size++;
+    }
+
+    /**
+     * Append a copy of a solution to the current generation
+     *
+     * @return index of the individual
+     */
+    public int add(Solution solution) {
+        int index = add();
+        load(genes, scores, index, solution);
+        return index;
+    }
+
+    /**
+     * Reserve an individual at the end of the next generation
+     *
+     * @return index of the individual in the next generation, genes and score to be filled by the caller
+     */
+    public int addNext() {
+        assert (nextSize < capacity);
+        return nextSize++;
+    }
+
+    /**
+     * Append a copy of an individual of the current generation to the next one
+     *
+     * @param index index of the individual in the current generation
+     * @return index of the copy in the next generation
+     */
+    public int copyToNext(int index) {
+        int next = addNext();
+        System.arraycopy(genes, index * numGenes, nextGenes, next * numGenes, numGenes);
+        nextScores[next] = scores[index];
+        return next;
+    }
+
+    /**
+     * Overwrite an individual of the next generation by a solution
+     */
+    public void setNext(int index, Solution solution) {
+        assert (index < nextSize);
+        load(nextGenes, nextScores, index, solution);
+    }
+
+    /**
+     * The next generation becomes the current one, the previous current one is recycled as the next one
+     */
+    public void swap() {
+        int[] swapGenes = genes;
+        genes = nextGenes;
+        nextGenes = swapGenes;
+        double[] swapScores = scores;
+        scores = nextScores;
+        nextScores = swapScores;
+        size = nextSize;
+        nextSize = 0;
+        for (int i = 0; i != size; ++i) {
+            order[i] = i;
+        }
+    }
+
+
+    /**
+     * Stable index sort of the current generation by score (merge sort, without allocation)
+     */
+    public void sort() {
+        for (int i = 0; i != size; ++i) {
+            order[i] = i;
+        }
+        for (int width = 1; width < size; width *= 2) {
+            for (int low = 0; low < size - width; low += 2 * width) {
+                int middle = low + width;
+                int high = Math.min(low + 2 * width, size);
+                if (Double.compare(scores[order[middle - 1]], scores[order[middle]]) <= 0) {
+                    continue;
+                }
+                System.arraycopy(order, low, buffer, low, high - low);
+                int left = low, right = middle;
+                for (int k = low; k != high; ++k) {
+                    if (right == high || (left != middle && Double.compare(scores[buffer[left]], scores[buffer[right]]) <= 0)) {
+                        order[k] = buffer[left++];
+                    } else {
+                        order[k] = buffer[right++];
+                    }
+                }
+            }
+        }
+    }
+
+
+    /**
+     * @return copy of an individual of the current generation
+     */
+    public Solution toSolution(int index) {
+        ArrayList<Integer> values = new ArrayList<>(numGenes);
+        for (int i = index * numGenes, end = i + numGenes; i != end; ++i) {
+            values.add(genes[i]);
+        }
+        return new Solution(values, scores[index]);
+    }
+
+    /**
+     * Only the genes are compared: scores derived incrementally (see AbstractStrategy.updateSumOfPairsScore) may
+     * differ by rounding for the same genes
+     *
+     * @return whether or not both individuals of the current generation have the same genes
+     */
+    public boolean isDuplicate(int first, int second) {
+        return hammingDistance(first, second, 1) == 0;
+    }
+
+    /**
+     * Number of positions at which the genes of two individuals of the current generation differ,
+     * counting stops at limit
+     */
+    public int hammingDistance(int first, int second, int limit) {
+        int distance = 0;
+        int firstOffset = first * numGenes, secondOffset = second * numGenes;
+        for (int i = 0; i != numGenes && distance < limit; ++i) {
+            if (genes[firstOffset + i] != genes[secondOffset + i]) {
+                ++distance;
+            }
+        }
+        return distance;
+    }
+
+
+    private void load(int[] target, double[] targetScores, int index, Solution solution) {
+        assert (solution.size() == numGenes);
+        for (int i = 0, offset = index * numGenes; i != numGenes; ++i) {
+            target[offset + i] = solution.getGene(i);
+        }
+        targetScores[index] = solution.getScore();
+    }
+}
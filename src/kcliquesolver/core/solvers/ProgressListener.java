@@ -0,0 +1,17 @@
+package kcliquesolver.core.solvers;
+
+
+/**
+ * Callback of a solve, notified at the end of every generation.
+ */
+public interface ProgressListener {
+
+    /**
+     * Called by the solving thread, the solve waits for the listener to return.
+     * The statistics are those of the running solve and keep changing once the listener returns.
+     *
+     * @param generation number of generations completed
+     * @param statistics telemetry of the running solve (best score so far, evaluations, bound)
+     */
+    void onGeneration(int generation, SolverStatistics statistics);
+}
@@ -0,0 +1,319 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.distances.DistanceProvider;
+import kcliquesolver.core.models.Range;
+import kcliquesolver.core.rng.RngStream;
+
+import java.util.ArrayList;
+
+
+/**
+ * Large neighborhood: exact joint re-optimization of the genes of two (or three) ranges, the others being fixed.
+ * <p/>
+ * With the other genes fixed, the score only depends on the chosen genes through their contributions towards the
+ * fixed genes (one vector per range, computed in O(|R| * k)) and their pairwise costs. A pair move therefore costs
+ * O(|R_a| * |R_b|) once the contribution vectors are known, and a triple move O(|R_a| * |R_b| * |R_c|).
+ * This escapes the local minima of single substitutions where two genes must change together.
+ * <p/>
+ * The ranges re-optimized together are drawn according to their interaction strength: the part of their pairwise
+ * costs D[x][y] + D[y][x] which is not explained by x and y separately (root mean square of the residual of a
+ * two-way additive fit), measured on a sample of each block. Pairs without interaction gain nothing over two
+ * single substitutions. The strengths of a range are measured the first time the range is drawn.
+ * <p/>
+ * The workspaces are kept between calls, an instance must not be shared between threads.
+ */
+public class RangeReoptimization {
+
+    // objects sampled per range when measuring an interaction
+    private static final int SAMPLES = 8;
+
+    // improvements smaller than this are considered rounding noise
+    private static final double EPSILON = 1e-9;
+
+    private final DistanceProvider distances;
+    private final ArrayList<Range> ranges;
+
+    // cumulative interaction strengths of each range towards the others, measured lazily
+    private final double[][] cumulativeStrengths;
+
+    private int[] genes = new int[0];
+    private double[][] rows = new double[0][];
+    private double[][] contributions = new double[3][0];
+    private double[][][] candidateRows = new double[3][][];
+    private double[] pairCosts = new double[0];
+
+    /**
+     * @param distances pairwise costs between objects
+     * @param ranges    list of intervals from which to select from
+     */
+    public RangeReoptimization(DistanceProvider distances, ArrayList<Range> ranges) {
+        this.distances = distances;
+        this.ranges = ranges;
+        this.cumulativeStrengths = new double[ranges.size()][];
+    }
+
+
+    /**
+     * Interaction strength between two ranges (symmetric), measured on a sample of their block
+     */
+    public double interaction(int a, int b) {
+        Range first = ranges.get(a), second = ranges.get(b);
+        int numX = Math.min(SAMPLES, first.getSecond() - first.getFirst());
+        int numY = Math.min(SAMPLES, second.getSecond() - second.getFirst());
+        double[][] costs = new double[numX][numY];
+        double[] rowMeans = new double[numX];
+        double[] columnMeans = new double[numY];
+        double mean = 0.;
+        for (int s = 0; s != numX; ++s) {
+            int x = sample(first, s, numX);
+            for (int t = 0; t != numY; ++t) {
+                int y = sample(second, t, numY);
+                costs[s][t] = distances.get(x, y) + distances.get(y, x);
+                rowMeans[s] += costs[s][t] / numY;
+                columnMeans[t] += costs[s][t] / numX;
+                mean += costs[s][t] / (numX * numY);
+            }
+        }
+        double residual = 0.;
+        for (int s = 0; s != numX; ++s) {
+            for (int t = 0; t != numY; ++t) {
+                double deviation = costs[s][t] - rowMeans[s] - columnMeans[t] + mean;
+                residual += deviation * deviation;
+            }
+        }
+        return Math.sqrt(residual / (numX * numY));
+    }
+
+
+    /**
+     * Apply joint re-optimizations to the k genes starting at offset, in place
+     *
+     * @param population gene array holding the solution
+     * @param offset     position of the first gene of the solution
+     * @param numMoves    number of pairs (or triples) re-optimized
+     * @param tripleLimit largest |R_a| * |R_b| * |R_c| re-optimized as a triple, pairs only when larger
+     * @param stream      pseudo-random number generator stream, draws the ranges
+     * @return score of the improved solution
+     */
+    public double improve(int[] population, int offset, int numMoves, long tripleLimit, RngStream stream) {
+        int size = ranges.size();
+        if (genes.length != size) {
+            genes = new int[size];
+            rows = new double[size][];
+        }
+        System.arraycopy(population, offset, genes, 0, size);
+        for (int i = 0; i != size; ++i) {
+            rows[i] = distances.getRow(genes[i]);
+        }
+        double score = AbstractStrategy.calculateSumOfPairsScore(genes, 0, size, distances);
+        if (size < 2) {
+            return score;
+        }
+
+        for (int move = 0; move != numMoves; ++move) {
+            int a = stream.randInt(0, size - 1);
+            int b = drawPartner(a, -1, stream);
+            long pairSize = (long) rangeSize(a) * rangeSize(b);
+            if (size >= 3 && tripleLimit > 0) {
+                int c = drawPartner(a, b, stream);
+                if (pairSize * rangeSize(c) <= tripleLimit) {
+                    score += reoptimizeTriple(a, b, c);
+                    continue;
+                }
+            }
+            score += reoptimizePair(a, b);
+        }
+
+        System.arraycopy(genes, 0, population, offset, size);
+        return score;
+    }
+
+
+    /**
+     * @return change of score, genes and rows of a and b updated when improving
+     */
+    private double reoptimizePair(int a, int b) {
+        double[] ca = contributions(0, a, a, b, b);
+        double[] cb = contributions(1, b, a, b, b);
+        Range rangeA = ranges.get(a), rangeB = ranges.get(b);
+        double[][] rowsB = fetchRows(1, rangeB);
+
+        double current = ca[genes[a] - rangeA.getFirst()] + cb[genes[b] - rangeB.getFirst()]
+                + rows[a][genes[b]] + rows[b][genes[a]];
+        double best = current;
+        int bestX = genes[a], bestY = genes[b];
+        for (int x = rangeA.getFirst(); x != rangeA.getSecond(); ++x) {
+            double[] rowX = distances.getRow(x);
+            double costX = ca[x - rangeA.getFirst()];
+            for (int y = rangeB.getFirst(); y != rangeB.getSecond(); ++y) {
+                double value = costX + cb[y - rangeB.getFirst()] + rowX[y] + rowsB[y - rangeB.getFirst()][x];
+                if (value < best - EPSILON) {
+                    best = value;
+                    bestX = x;
+                    bestY = y;
+                }
+            }
+        }
+        setGene(a, bestX);
+        setGene(b, bestY);
+        return best - current;
+    }
+
+
+    /**
+     * @return change of score, genes and rows of a, b and c updated when improving
+     */
+    private double reoptimizeTriple(int a, int b, int c) {
+        double[] ca = contributions(0, a, a, b, c);
+        double[] cb = contributions(1, b, a, b, c);
+        double[] cc = contributions(2, c, a, b, c);
+        Range rangeA = ranges.get(a), rangeB = ranges.get(b), rangeC = ranges.get(c);
+        int sizeB = rangeSize(b), sizeC = rangeSize(c);
+        double[][] rowsB = fetchRows(1, rangeB);
+        double[][] rowsC = fetchRows(2, rangeC);
+
+        // pairwise costs between the candidates of b and c, plus their contributions
+        if (pairCosts.length < sizeB * sizeC) {
+            pairCosts = new double[sizeB * sizeC];
+        }
+        for (int y = 0; y != sizeB; ++y) {
+            for (int z = 0; z != sizeC; ++z) {
+                pairCosts[y * sizeC + z] = cb[y] + cc[z]
+                        + rowsB[y][rangeC.getFirst() + z] + rowsC[z][rangeB.getFirst() + y];
+            }
+        }
+
+        int currentY = genes[b] - rangeB.getFirst(), currentZ = genes[c] - rangeC.getFirst();
+        double current = ca[genes[a] - rangeA.getFirst()] + pairCosts[currentY * sizeC + currentZ]
+                + rows[a][genes[b]] + rows[b][genes[a]] + rows[a][genes[c]] + rows[c][genes[a]];
+        double best = current;
+        int bestX = genes[a], bestY = currentY, bestZ = currentZ;
+        for (int x = rangeA.getFirst(); x != rangeA.getSecond(); ++x) {
+            double[] rowX = distances.getRow(x);
+            double costX = ca[x - rangeA.getFirst()];
+            for (int y = 0; y != sizeB; ++y) {
+                double costXY = costX + rowX[rangeB.getFirst() + y] + rowsB[y][x];
+                for (int z = 0; z != sizeC; ++z) {
+                    double value = costXY + pairCosts[y * sizeC + z] + rowX[rangeC.getFirst() + z] + rowsC[z][x];
+                    if (value < best - EPSILON) {
+                        best = value;
+                        bestX = x;
+                        bestY = y;
+                        bestZ = z;
+                    }
+                }
+            }
+        }
+        setGene(a, bestX);
+        setGene(b, rangeB.getFirst() + bestY);
+        setGene(c, rangeC.getFirst() + bestZ);
+        return best - current;
+    }
+
+
+    /**
+     * Contribution of every candidate of a range towards the fixed genes (all but those of a, b and c),
+     * plus its own diagonal cost
+     */
+    private double[] contributions(int slot, int range, int a, int b, int c) {
+        Range candidates = ranges.get(range);
+        int size = candidates.getSecond() - candidates.getFirst();
+        if (contributions[slot].length < size) {
+            contributions[slot] = new double[size];
+        }
+        double[] vector = contributions[slot];
+        for (int x = 0; x != size; ++x) {
+            int object = candidates.getFirst() + x;
+            double[] row = distances.getRow(object);
+            double cost = row[object];
+            for (int j = 0; j != genes.length; ++j) {
+                if (j != a && j != b && j != c) {
+                    cost += row[genes[j]] + rows[j][object];
+                }
+            }
+            vector[x] = cost;
+        }
+        return vector;
+    }
+
+
+    private double[][] fetchRows(int slot, Range range) {
+        int size = range.getSecond() - range.getFirst();
+        if (candidateRows[slot] == null || candidateRows[slot].length < size) {
+            candidateRows[slot] = new double[size][];
+        }
+        for (int y = 0; y != size; ++y) {
+            candidateRows[slot][y] = distances.getRow(range.getFirst() + y);
+        }
+        return candidateRows[slot];
+    }
+
+
+    private void setGene(int position, int gene) {
+        if (genes[position] != gene) {
+            genes[position] = gene;
+            rows[position] = distances.getRow(gene);
+        }
+    }
+
+
+    /**
+     * Roulette wheel over the interaction strengths of range a, excluding range a itself and range excluded
+     */
+    private int drawPartner(int a, int excluded, RngStream stream) {
+        double[] cumulative = cumulativeStrengths[a];
+        if (cumulative == null) {
+            cumulative = new double[ranges.size()];
+            double total = 0.;
+            for (int b = 0; b != ranges.size(); ++b) {
+                total += (b == a) ? 0. : interaction(a, b);
+                cumulative[b] = total;
+            }
+            cumulativeStrengths[a] = cumulative;
+        }
+
+        double total = cumulative[cumulative.length - 1];
+        double excludedStrength = (excluded < 0) ? 0. : weight(cumulative, excluded);
+        if (total - excludedStrength <= 0.) {
+            // no measurable interaction, uniform over the other ranges
+            int partner;
+            do {
+                partner = stream.randInt(0, ranges.size() - 1);
+            } while (partner == a || partner == excluded);
+            return partner;
+        }
+
+        double draw = stream.randU01() * (total - excludedStrength);
+        double cumulated = 0.;
+        int partner = -1;
+        for (int b = 0; b != cumulative.length; ++b) {
+            double strength = weight(cumulative, b);
+            if (b == a || b == excluded || strength <= 0.) {
+                continue;
+            }
+            partner = b;
+            cumulated += strength;
+            if (draw < cumulated) {
+                break;
+            }
+        }
+        return partner;
+    }
+
+
+    private static double weight(double[] cumulative, int index) {
+        return cumulative[index] - ((index == 0) ? 0. : cumulative[index - 1]);
+    }
+
+    private int rangeSize(int range) {
+        return ranges.get(range).getSecond() - ranges.get(range).getFirst();
+    }
+
+    /**
+     * @return object of index s among numSamples evenly spread over the range
+     */
+    private static int sample(Range range, int s, int numSamples) {
+        int size = range.getSecond() - range.getFirst();
+        return range.getFirst() + (int) ((long) s * size / numSamples);
+    }
+}
@@ -0,0 +1,12 @@
+package kcliquesolver.core.solvers;
+
+
+/**
+ * Crossover operators available to the genetic algorithm.
+ */
+public enum Recombination {
+    // random mix of the parental genes (HybridGeneticAlgorithm.uniformCrossover)
+    UNIFORM,
+    // best child restricted to the parental genes (OptimalRecombination)
+    OPTIMAL
+}
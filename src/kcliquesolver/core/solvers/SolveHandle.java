@@ -0,0 +1,114 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.models.Solution;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+
+/**
+ * Handle of a solve running in the background (see HybridGeneticAlgorithm.solveAsync).
+ * <p/>
+ * Cancellation is cooperative: cancel only asks the solve to stop, which it does at its next generation or
+ * descent boundary, and the solve then returns the best solutions found so far. Unlike a FutureTask, get
+ * therefore never throws a CancellationException: it waits for the stop and returns the partial results.
+ * Interrupting the solving thread (e.g. ExecutorService.shutdownNow) stops the solve the same way.
+ */
+public class SolveHandle implements Future<ArrayList<Solution>> {
+
+    private final SolverSession session;
+    private final FutureTask<ArrayList<Solution>> task;
+    private volatile boolean cancelled = false;
+
+    /**
+     * Submit the solve of the session problem by the strategy to the executor
+     *
+     * @param strategy configured solver, only read
+     * @param session  problem and workspaces, owned by the handle until the solve ends
+     * @param executor runs the solve
+     */
+    SolveHandle(final HybridGeneticAlgorithm strategy, final SolverSession session, ExecutorService executor) {
+        this.session = session;
+        session.clearStopRequest();
+        this.task = new FutureTask<>(new Callable<ArrayList<Solution>>() {
+            @Override
+            public ArrayList<Solution> call() {
+                return strategy.run(session);
+            }
+        });
+        executor.execute(task);
+    }
+
+    /**
+     * @param listener notified at the end of every generation, by the solving thread
+     */
+    public void addProgressListener(ProgressListener listener) {
+        session.addProgressListener(listener);
+    }
+
+    public void removeProgressListener(ProgressListener listener) {
+        session.removeProgressListener(listener);
+    }
+
+    /**
+     * @return telemetry of the solve, updated while it runs
+     */
+    public SolverStatistics getStatistics() {
+        return session.getStatistics();
+    }
+
+    /**
+     * Ask the solve to stop and return its best solutions so far
+     *
+     * @param mayInterruptIfRunning ignored, the solve stops cooperatively
+     * @return false if the solve already ended, true otherwise
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (task.isDone()) {
+            return false;
+        }
+        cancelled = true;
+        session.requestStop();
+        return true;
+    }
+
+    /**
+     * @return whether or not the handle was cancelled before the end of the solve
+     */
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Unlike a FutureTask, a cancelled solve is only done once it stopped: get does not block after isDone returns
+     * true, and then returns the partial results of a cancelled solve.
+     *
+     * @return whether or not the solve ended
+     */
+    @Override
+    public boolean isDone() {
+        return task.isDone();
+    }
+
+    /**
+     * @return solutions of the solve, the best so far when it was cancelled
+     */
+    @Override
+    public ArrayList<Solution> get() throws InterruptedException, ExecutionException {
+        return task.get();
+    }
+
+    @Override
+    public ArrayList<Solution> get(long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return task.get(timeout, unit);
+    }
+}
@@ -0,0 +1,283 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.bounds.LowerBounds;
+import kcliquesolver.core.models.Problem;
+import kcliquesolver.core.models.Solution;
+import kcliquesolver.core.rng.RngStream;
+
+import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Workspaces of repeated solves of the same problem (parameter sweeps, racing, restarts).
+ * <p/>
+ * A fresh solve allocates its population arrays, index arrays, local search workspaces and random stream, and
+ * recomputes whatever only depends on the problem (range pair bound, interaction strengths of the ranges,
+ * candidate lists).
+ * A session keeps all of them between solves: the population store is reused as long as it is large enough,
+ * the random stream is reseeded, and the problem-level caches are computed once. Results are identical to
+ * solves of the same strategy on a fresh session.
+ * <p/>
+ * A session is not thread-safe: in a thread pool, use one session per worker thread (the problem itself is
+ * only read, and may be shared by the sessions). The stop requests and the progress listeners are the exception:
+ * they may come from any thread, and are checked (resp. notified) by the solving thread at the end of every
+ * generation and before every descent.
+ */
+public class SolverSession {
+
+    private final Problem problem;
+
+    private final RngStream stream = new RngStream();
+    private final SteepestDescent steepestDescent = new SteepestDescent();
+    private final FirstImprovementDescent firstImprovementDescent = new FirstImprovementDescent();
+    private final PathRelinking pathRelinking = new PathRelinking();
+    private final OptimalRecombination recombination = new OptimalRecombination();
+    private RangeReoptimization reoptimization = null;
+    private CandidateLists candidateLists = null;
+    private ThreadPoolExecutor executor = null;
+    private final GreedyRandomizedConstruction construction = new GreedyRandomizedConstruction();
+    private PopulationStore population = null;
+    private HallOfFame hallOfFame = null;
+    private int[] elite = new int[0];
+    private int[] parents = new int[0];
+    private int[] cleared = new int[0];
+    private int[] changed = new int[0];
+    private double rangePairBound = Double.NaN;
+
+    private volatile SolverStatistics statistics = new SolverStatistics();
+    private int numSolves = 0;
+
+    private volatile boolean stopRequested = false;
+    private final CopyOnWriteArrayList<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param problem instance solved by every call of the session
+     */
+    public SolverSession(Problem problem) {
+        this.problem = problem;
+    }
+
+    public Problem getProblem() {
+        return problem;
+    }
+
+    /**
+     * Solve the problem of the session with the given strategy
+     *
+     * @param strategy configured solver
+     * @return list of the best(s) solution(s) found
+     */
+    public ArrayList<Solution> solve(HybridGeneticAlgorithm strategy) {
+        return strategy.solve(this);
+    }
+
+    /**
+     * @return statistics of the last solve of the session
+     */
+    public SolverStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return number of solves run on the session
+     */
+    public int getNumSolves() {
+        return numSolves;
+    }
+
+
+    /**
+     * Ask the running solve to stop as soon as possible, it returns its best solutions so far.
+     * The request stays until clearStopRequest, which every solve calls when it starts.
+     */
+    public void requestStop() {
+        stopRequested = true;
+    }
+
+    public void clearStopRequest() {
+        stopRequested = false;
+    }
+
+    /**
+     * @return whether or not the solve must stop, on request or interruption of the solving thread
+     */
+    public boolean isStopRequested() {
+        return stopRequested || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * @param listener notified at the end of every generation of the solves of the session
+     */
+    public void addProgressListener(ProgressListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeProgressListener(ProgressListener listener) {
+        listeners.remove(listener);
+    }
+
+
+    /**
+     * Notify the progress listeners, from the solving thread
+     */
+    void notifyProgress(int generation) {
+        for (ProgressListener listener : listeners) {
+            listener.onGeneration(generation, statistics);
+        }
+    }
+
+    /**
+     * @return random stream of the session, reset to the given seeds
+     */
+    RngStream getStream(long[] seeds) {
+        stream.setSeed(seeds);
+        return stream;
+    }
+
+    SteepestDescent getSteepestDescent() {
+        return steepestDescent;
+    }
+
+    FirstImprovementDescent getFirstImprovementDescent() {
+        return firstImprovementDescent;
+    }
+
+    PathRelinking getPathRelinking() {
+        return pathRelinking;
+    }
+
+    OptimalRecombination getRecombination() {
+        return recombination;
+    }
+
+    /**
+     * @return range re-optimization workspace, keeping the interaction strengths measured by the previous solves
+     */
+    RangeReoptimization getReoptimization() {
+        if (reoptimization == null) {
+            reoptimization = new RangeReoptimization(problem.getDistances(), problem.getRanges());
+        }
+        return reoptimization;
+    }
+
+    /**
+     * @return candidate lists of the problem with the given size, built once per size
+     */
+    CandidateLists getCandidateLists(int size) {
+        if (candidateLists == null || candidateLists.getSize() != size) {
+            candidateLists = new CandidateLists(problem.getDistances(), problem.getRanges(), size);
+        }
+        return candidateLists;
+    }
+
+    /**
+     * The pool only grows: a smaller request reuses the current pool, a larger one replaces it, which must
+     * not happen while work is pending on the current pool.
+     *
+     * @return pool of at least minThreads daemon threads running the parallel work of the solves (descent sweeps,
+     * constructions), idle threads end after a minute
+     */
+    ExecutorService getExecutor(int minThreads) {
+        if (executor == null || executor.getCorePoolSize() < minThreads) {
+            if (executor != null) {
+                executor.shutdown();
+            }
+            executor = new ThreadPoolExecutor(minThreads, minThreads, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "solver-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    GreedyRandomizedConstruction getConstruction() {
+        return construction;
+    }
+
+    /**
+     * @return empty population store holding at least capacity individuals
+     */
+    PopulationStore getPopulation(int capacity) {
+        int numGenes = problem.getRanges().size();
+        if (population == null || population.getCapacity() < capacity) {
+            population = new PopulationStore(capacity, numGenes);
+        } else {
+            population.clear();
+        }
+        return population;
+    }
+
+    /**
+     * @return empty hall of fame keeping capacity solutions
+     */
+    HallOfFame getHallOfFame(int capacity) {
+        int numGenes = problem.getRanges().size();
+        if (hallOfFame == null || hallOfFame.getCapacity() != capacity) {
+            hallOfFame = new HallOfFame(capacity, numGenes);
+        } else {
+            hallOfFame.clear();
+        }
+        return hallOfFame;
+    }
+
+    int[] getElite(int size) {
+        if (elite.length < size) {
+            elite = new int[size];
+        }
+        return elite;
+    }
+
+    int[] getParents(int size) {
+        if (parents.length < size) {
+            parents = new int[size];
+        }
+        return parents;
+    }
+
+    int[] getCleared(int size) {
+        if (cleared.length < size) {
+            cleared = new int[size];
+        }
+        return cleared;
+    }
+
+    /**
+     * @return workspace of the incremental scores (see AbstractStrategy.updateSumOfPairsScore)
+     */
+    int[] getChanged(int size) {
+        if (changed.length < size) {
+            changed = new int[size];
+        }
+        return changed;
+    }
+
+    /**
+     * @return range pair lower bound of the problem, computed once
+     */
+    double getRangePairBound() {
+        if (Double.isNaN(rangePairBound)) {
+            rangePairBound = LowerBounds.rangePairBound(problem);
+        }
+        return rangePairBound;
+    }
+
+    /**
+     * Record the statistics of a solve starting on the session
+     */
+    void startSolve(SolverStatistics statistics) {
+        this.statistics = statistics;
+        numSolves += 1;
+    }
+}
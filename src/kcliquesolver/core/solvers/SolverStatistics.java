@@ -0,0 +1,117 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.bounds.LowerBounds;
+
+
+/**
+ * Telemetry of a single solve: best score found, when it was found and the work done to find it.
+ */
+public class SolverStatistics {
+
+    private long startTime;
+    private long endTime;
+    private long timeToBest;
+    private long evaluationsToBest;
+    private long numEvaluations;
+    private int numGenerations;
+    private double bestScore = Double.POSITIVE_INFINITY;
+    private double lowerBound = Double.NaN;
+
+    /**
+     * Mark the beginning of the solve, every time measured is relative to it
+     */
+    public void start() {
+        startTime = System.nanoTime();
+        endTime = startTime;
+    }
+
+    /**
+     * Mark the end of the solve
+     */
+    public void stop() {
+        endTime = System.nanoTime();
+    }
+
+    /**
+     * @param count number of (full) solution evaluations done
+     */
+    public void countEvaluations(long count) {
+        numEvaluations += count;
+    }
+
+    public void countGeneration() {
+        numGenerations += 1;
+    }
+
+    /**
+     * Remember the score if it improves on the best one seen so far
+     *
+     * @param score score of a solution just evaluated
+     * @return whether or not the score is a new best
+     */
+    public boolean offer(double score) {
+        if (score < bestScore) {
+            bestScore = score;
+            timeToBest = System.nanoTime() - startTime;
+            evaluationsToBest = numEvaluations;
+            return true;
+        }
+        return false;
+    }
+
+    public double getBestScore() {
+        return bestScore;
+    }
+
+    /**
+     * @return nanoseconds between the start of the solve and the discovery of the best score
+     */
+    public long getTimeToBest() {
+        return timeToBest;
+    }
+
+    /**
+     * @param lowerBound lower bound on the optimal score, only kept if tighter than the current one
+     */
+    public void offerLowerBound(double lowerBound) {
+        if (Double.isNaN(this.lowerBound) || lowerBound > this.lowerBound) {
+            this.lowerBound = lowerBound;
+        }
+    }
+
+    /**
+     * @return lower bound on the optimal score, NaN if none was computed
+     */
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * @return relative optimality gap of the best score, NaN without lower bound
+     */
+    public double getGap() {
+        if (Double.isNaN(lowerBound)) {
+            return Double.NaN;
+        }
+        return LowerBounds.gap(bestScore, lowerBound);
+    }
+
+    public long getEvaluationsToBest() {
+        return evaluationsToBest;
+    }
+
+    public long getNumEvaluations() {
+        return numEvaluations;
+    }
+
+    public int getNumGenerations() {
+        return numGenerations;
+    }
+
+    /**
+     * @return nanoseconds between the start and the end of the solve
+     */
+    public long getElapsedTime() {
+        return endTime - startTime;
+    }
+}
@@ -0,0 +1,375 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.distances.BlockedDistances;
+import kcliquesolver.core.distances.DistanceProvider;
+import kcliquesolver.core.distances.SparseDistances;
+import kcliquesolver.core.models.Range;
+import kcliquesolver.core.models.Solution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+
+/**
+ * Steepest descent over single gene substitutions: every iteration applies the best substitution over all
+ * positions (see AbstractStrategy.findBestSubstitution, same moves and tie-breaks), until a local minimum or
+ * the maximum number of iterations.
+ * <p/>
+ * Works in place on a slice of a gene array (see PopulationStore), the rows of the genes are fetched once per
+ * move instead of once per examined position. With blocked distances, the costs of all the candidates of a
+ * position are accumulated one gene at a time, streaming through the blocks (BlockedDistances.substitutionCosts).
+ * With sparse distances, they are accumulated from the stored entries of the other genes that fall in the range
+ * (SparseDistances.substitutionCosts), no row being assembled.
+ * <p/>
+ * With candidate lists, a sweep only examines at each position the objects close to the other genes (see
+ * CandidateLists), whatever the layout of the distances. When such a granular sweep finds no improving move,
+ * every fullScanPeriod-th time a full sweep is run before concluding: a period of 1 keeps the local minima of the
+ * full neighborhood, larger periods trade some of them for speed.
+ * <p/>
+ * With an executor, the positions of a sweep over the row layout are examined by parallel tasks (contiguous
+ * blocks of positions), each keeping the best move of its block with the serial tie-breaks. The blocks are merged
+ * in position order with the same strict comparison, so the moves, and the results, are exactly those of the
+ * serial descent whatever the scheduling. Only worth it for thousands of genes, a sweep being O(k * |R| * k).
+ * Once the solving thread is interrupted, the sweeps run serially on workspaces of their own, the cancelled
+ * blocks possibly still running.
+ * <p/>
+ * The workspaces are kept between calls, an instance must not be
+ * shared between threads.
+ */
+public class SteepestDescent {
+
+    private int[] genes = new int[0];
+    private double[][] rows = new double[0][];
+    private double[] costs = new double[0];
+
+    private CandidateLists candidateLists = null;
+    private int fullScanPeriod = 1;
+    private int numStalls = 0;
+
+    // parallel sweeps, one scan workspace per block of positions
+    private ExecutorService executor = null;
+    private Scan[] scans = {new Scan()};
+
+    // best move of the last sweep, -1 if none improves
+    private int bestPosition;
+    private int bestSubstitution;
+
+    // best move over a block of positions, and the examined candidates of the granular sweeps
+    private static class Scan {
+        int[] marks = new int[0];
+        int stamp = 0;
+        int bestPosition;
+        int bestSubstitution;
+        double bestDelta;
+    }
+
+    /**
+     * Also restarts the count of granular sweeps without improving move, so that every solve starts alike
+     *
+     * @param candidateLists closest objects examined by the granular sweeps, null for full sweeps only
+     * @param fullScanPeriod number of granular sweeps without improving move per full sweep run
+     */
+    public void setCandidateLists(CandidateLists candidateLists, int fullScanPeriod) {
+        if (fullScanPeriod <= 0) {
+            throw new IllegalArgumentException("Full scan period must be positive, got " + fullScanPeriod);
+        }
+        this.candidateLists = candidateLists;
+        this.fullScanPeriod = fullScanPeriod;
+        this.numStalls = 0;
+    }
+
+    /**
+     * @param executor  runs the blocks of positions of a sweep in parallel, null for serial sweeps
+     * @param numBlocks number of blocks of positions per sweep
+     */
+    public void setParallelism(ExecutorService executor, int numBlocks) {
+        if (numBlocks <= 0) {
+            throw new IllegalArgumentException("Number of blocks must be positive, got " + numBlocks);
+        }
+        this.executor = executor;
+        if (scans.length != numBlocks) {
+            scans = newScans(numBlocks);
+        }
+    }
+
+    private static Scan[] newScans(int numBlocks) {
+        Scan[] scans = new Scan[numBlocks];
+        for (int block = 0; block != numBlocks; ++block) {
+            scans[block] = new Scan();
+        }
+        return scans;
+    }
+
+    /**
+     * Improve the solution in place and set its score
+     *
+     * @param solution         solution to improve
+     * @param distances        pairwise costs between objects
+     * @param ranges           list of intervals from which to select from
+     * @param maxNumIterations maximum number of substitutions applied
+     */
+    public void improve(Solution solution, DistanceProvider distances, ArrayList<Range> ranges, int maxNumIterations) {
+        int size = solution.size();
+        allocate(size);
+        for (int i = 0; i != size; ++i) {
+            genes[i] = solution.getGene(i);
+        }
+        descend(distances, ranges, maxNumIterations);
+        for (int i = 0; i != size; ++i) {
+            solution.setGene(i, genes[i]);
+        }
+        solution.setScore(AbstractStrategy.calculateSumOfPairsScore(genes, 0, size, distances));
+    }
+
+    /**
+     * Improve the k genes starting at offset in place
+     *
+     * @param population       gene array holding the solution
+     * @param offset           position of the first gene of the solution
+     * @param distances        pairwise costs between objects
+     * @param ranges           list of intervals from which to select from (k ranges)
+     * @param maxNumIterations maximum number of substitutions applied
+     * @return score of the improved solution
+     */
+    public double improve(int[] population, int offset, DistanceProvider distances, ArrayList<Range> ranges,
+                          int maxNumIterations) {
+        int size = ranges.size();
+        allocate(size);
+        System.arraycopy(population, offset, genes, 0, size);
+        descend(distances, ranges, maxNumIterations);
+        System.arraycopy(genes, 0, population, offset, size);
+        return AbstractStrategy.calculateSumOfPairsScore(population, offset, size, distances);
+    }
+
+
+    private void allocate(int size) {
+        if (genes.length != size) {
+            genes = new int[size];
+            rows = new double[size][];
+        }
+    }
+
+
+    private void descend(DistanceProvider distances, ArrayList<Range> ranges, int maxNumIterations) {
+        boolean rangeKernels = distances instanceof BlockedDistances || distances instanceof SparseDistances;
+        if (rangeKernels && candidateLists == null) {
+            descendByRange(distances, ranges, maxNumIterations);
+            return;
+        }
+        int size = genes.length;
+        for (int i = 0; i != size; ++i) {
+            rows[i] = distances.getRow(genes[i]);
+        }
+
+        for (int iteration = 0; iteration < maxNumIterations; ++iteration) {
+            boolean improved = candidateLists != null && sweep(distances, ranges, true);
+            if (!improved && (candidateLists == null || ++numStalls % fullScanPeriod == 0)) {
+                improved = sweep(distances, ranges, false);
+            }
+
+            // check if a local minimum is reached
+            if (!improved) {
+                break;
+            }
+            genes[bestPosition] = bestSubstitution;
+            rows[bestPosition] = distances.getRow(bestSubstitution);
+        }
+    }
+
+
+    /**
+     * Find the best substitution over all positions, among the candidate lists only if granular
+     *
+     * @return whether or not an improving substitution was found (bestPosition, bestSubstitution)
+     */
+    private boolean sweep(final DistanceProvider distances, final ArrayList<Range> ranges, final boolean granular) {
+        final int size = genes.length;
+        int numBlocks = Math.min(scans.length, size);
+        // once interrupted, invokeAll would cancel the blocks at once: the sweeps are serial until the solve stops
+        if (executor == null || numBlocks < 2 || Thread.currentThread().isInterrupted()) {
+            scan(scans[0], 0, size, distances, ranges, granular);
+            bestPosition = scans[0].bestPosition;
+            bestSubstitution = scans[0].bestSubstitution;
+            return bestSubstitution != -1;
+        }
+
+        ArrayList<Callable<Void>> tasks = new ArrayList<>(numBlocks);
+        for (int block = 0; block != numBlocks; ++block) {
+            final Scan scan = scans[block];
+            final int from = (int) ((long) block * size / numBlocks);
+            final int to = (int) ((long) (block + 1) * size / numBlocks);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    scan(scan, from, to, distances, ranges, granular);
+                    return null;
+                }
+            });
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            // the cancelled blocks may still be running on their scans: leave them these workspaces and finish the
+            // sweep serially on new ones, the solve stops at its next cancellation point
+            Thread.currentThread().interrupt();
+            scans = newScans(scans.length);
+            scan(scans[0], 0, size, distances, ranges, granular);
+            numBlocks = 1;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Parallel sweep failed", e.getCause());
+        }
+
+        // merge in position order, the first block of lowest delta wins as in a serial sweep
+        bestPosition = -1;
+        bestSubstitution = -1;
+        double bestDelta = 0.;
+        for (int block = 0; block != numBlocks; ++block) {
+            Scan scan = scans[block];
+            if (scan.bestSubstitution != -1 && scan.bestDelta < bestDelta) {
+                bestPosition = scan.bestPosition;
+                bestSubstitution = scan.bestSubstitution;
+                bestDelta = scan.bestDelta;
+            }
+        }
+        return bestSubstitution != -1;
+    }
+
+
+    /**
+     * Find the best substitution over the positions [from, to[, among the candidate lists only if granular
+     */
+    private void scan(Scan scan, int from, int to, DistanceProvider distances, ArrayList<Range> ranges,
+                      boolean granular) {
+        int size = genes.length;
+        scan.bestPosition = -1;
+        scan.bestSubstitution = -1;
+        scan.bestDelta = 0.;
+        for (int position = from; position != to; ++position) {
+            int originalGene = genes[position];
+            double originalCost = substitutionCost(position, originalGene, distances);
+
+            // last candidate of lowest cost, as findBestSubstitution
+            int bestGene = originalGene;
+            double bestCost = Double.POSITIVE_INFINITY;
+            Range range = ranges.get(position);
+            if (granular) {
+                int[] lists = candidateLists.getLists();
+                int length = candidateLists.length(position);
+                nextStamp(scan, range.getSecond() - range.getFirst());
+                int[] marks = scan.marks;
+                for (int i = 0; i != size; ++i) {
+                    if (i == position) {
+                        continue;
+                    }
+                    int offset = candidateLists.offset(genes[i], position);
+                    for (int index = 0; index != length; ++index) {
+                        int candidate = lists[offset + index];
+                        if (marks[candidate - range.getFirst()] == scan.stamp) {
+                            continue;
+                        }
+                        marks[candidate - range.getFirst()] = scan.stamp;
+                        double cost = substitutionCost(position, candidate, distances);
+                        if (cost < bestCost || (cost == bestCost && candidate > bestGene)) {
+                            bestGene = candidate;
+                            bestCost = cost;
+                        }
+                    }
+                }
+            } else {
+                for (int candidate = range.getFirst(); candidate != range.getSecond(); ++candidate) {
+                    double cost = substitutionCost(position, candidate, distances);
+                    if (cost <= bestCost) {
+                        bestGene = candidate;
+                        bestCost = cost;
+                    }
+                }
+            }
+
+            if (bestCost - originalCost < scan.bestDelta) {
+                scan.bestPosition = position;
+                scan.bestSubstitution = bestGene;
+                scan.bestDelta = bestCost - originalCost;
+            }
+        }
+    }
+
+
+    /**
+     * @return sum of the costs from the genes (the candidate itself at position) to the candidate
+     */
+    private double substitutionCost(int position, int candidate, DistanceProvider distances) {
+        double cost = 0.;
+        for (int i = 0; i != genes.length; ++i) {
+            cost += (i == position) ? distances.get(candidate, candidate) : rows[i][candidate];
+        }
+        return cost;
+    }
+
+
+    /**
+     * Start a new set of examined candidates over a range of the given size
+     */
+    private static void nextStamp(Scan scan, int rangeSize) {
+        if (scan.marks.length < rangeSize) {
+            scan.marks = new int[rangeSize];
+            scan.stamp = 0;
+        }
+        if (++scan.stamp == Integer.MAX_VALUE) {
+            Arrays.fill(scan.marks, 0);
+            scan.stamp = 1;
+        }
+    }
+
+
+    /**
+     * Descent over the costs of all the candidates of a range at once, from the blocked or sparse kernels
+     */
+    private void descendByRange(DistanceProvider distances, ArrayList<Range> ranges, int maxNumIterations) {
+        int size = genes.length;
+        for (int iteration = 0; iteration < maxNumIterations; ++iteration) {
+            int bestPosition = -1;
+            int bestSubstitution = -1;
+            double bestDelta = 0.;
+            for (int position = 0; position != size; ++position) {
+                Range range = ranges.get(position);
+                int numCandidates = range.getSecond() - range.getFirst();
+                if (costs.length < numCandidates) {
+                    costs = new double[numCandidates];
+                }
+                if (distances instanceof BlockedDistances) {
+                    ((BlockedDistances) distances).substitutionCosts(genes, 0, size, position, costs);
+                } else {
+                    ((SparseDistances) distances).substitutionCosts(genes, 0, size, position, range.getFirst(),
+                            range.getSecond(), costs);
+                }
+                double originalCost = costs[genes[position] - range.getFirst()];
+
+                // last candidate of lowest cost, as findBestSubstitution
+                int bestCandidate = 0;
+                for (int c = 1; c != numCandidates; ++c) {
+                    if (costs[c] <= costs[bestCandidate]) {
+                        bestCandidate = c;
+                    }
+                }
+
+                if (costs[bestCandidate] - originalCost < bestDelta) {
+                    bestPosition = position;
+                    bestSubstitution = range.getFirst() + bestCandidate;
+                    bestDelta = costs[bestCandidate] - originalCost;
+                }
+            }
+
+            // check if a local minimum is reached
+            if (bestSubstitution == -1) {
+                break;
+            }
+            genes[bestPosition] = bestSubstitution;
+        }
+    }
+}
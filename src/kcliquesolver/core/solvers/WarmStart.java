@@ -0,0 +1,91 @@
+package kcliquesolver.core.solvers;
+
+import kcliquesolver.core.models.Range;
+import kcliquesolver.core.models.Solution;
+import kcliquesolver.core.rng.RngStream;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+
+/**
+ * Helpers to reuse the solutions of a previous solve as a starting point after the problem changed.
+ */
+public final class WarmStart {
+
+    private WarmStart() {
+    }
+
+
+    /**
+     * Translate the genes of previous solutions into the indices of the current problem.
+     * <p/>
+     * Ranges are matched by label when every range is labelled, by position otherwise. A gene keeps its
+     * offset within its range, which is exact when objects were appended at the end of their range
+     * (as done by ProblemPatch). Genes whose range disappeared or whose offset no longer exists are drawn
+     * at random in the current range. Without previous ranges, genes are assumed to be already in the
+     * current indices and only the invalid ones are redrawn.
+     *
+     * @param solutions      solutions of the previous problem
+     * @param previousRanges ranges of the previous problem, null if unknown
+     * @param ranges         ranges of the current problem
+     * @param stream         pseudo-random number generator stream
+     * @return remapped solutions (not scored)
+     */
+    public static ArrayList<Solution> remap(ArrayList<Solution> solutions, ArrayList<Range> previousRanges,
+                                            ArrayList<Range> ranges, RngStream stream) {
+        // current range index -> previous range index (-1 if none)
+        int[] matching = new int[ranges.size()];
+        if (previousRanges == null) {
+            for (int r = 0; r != ranges.size(); ++r) {
+                matching[r] = -1;
+            }
+        } else if (allLabelled(previousRanges) && allLabelled(ranges)) {
+            HashMap<String, Integer> previousIndices = new HashMap<>();
+            for (int r = 0; r != previousRanges.size(); ++r) {
+                previousIndices.put(previousRanges.get(r).getLabel(), r);
+            }
+            for (int r = 0; r != ranges.size(); ++r) {
+                Integer previous = previousIndices.get(ranges.get(r).getLabel());
+                matching[r] = (previous == null) ? -1 : previous;
+            }
+        } else {
+            for (int r = 0; r != ranges.size(); ++r) {
+                matching[r] = (r < previousRanges.size()) ? r : -1;
+            }
+        }
+
+        ArrayList<Solution> remapped = new ArrayList<>();
+        for (Solution solution : solutions) {
+            ArrayList<Integer> genes = new ArrayList<>(ranges.size());
+            for (int r = 0; r != ranges.size(); ++r) {
+                Range range = ranges.get(r);
+                int gene = -1;
+                if (previousRanges == null) {
+                    if (r < solution.size()) {
+                        gene = solution.getGene(r);
+                    }
+                } else if (matching[r] != -1 && matching[r] < solution.size()) {
+                    int offset = solution.getGene(matching[r]) - previousRanges.get(matching[r]).getFirst();
+                    gene = range.getFirst() + offset;
+                }
+                if (gene < range.getFirst() || gene >= range.getSecond()) {
+                    gene = stream.randInt(range.getFirst(), range.getSecond() - 1);
+                }
+                genes.add(gene);
+            }
+            remapped.add(new Solution(genes, Double.POSITIVE_INFINITY));
+        }
+        return remapped;
+    }
+
+
+    private static boolean allLabelled(ArrayList<Range> ranges) {
+        for (Range range : ranges) {
+            if (range.getLabel() == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,170 @@
+package kcliquesolver.core.tuning;
+
+import kcliquesolver.core.solvers.HybridGeneticAlgorithm;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.InputMismatchException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Named values for the parameters of the hybrid genetic algorithm.
+ * Unspecified parameters take the same default values as the command line interface.
+ */
+public class Configuration {
+
+    // parameter names (as on the command line) and their default values
+    private static final LinkedHashMap<String, Double> DEFAULTS = new LinkedHashMap<>();
+    static {
+        DEFAULTS.put("popSize", 250.);
+        DEFAULTS.put("numGenerations", 250.);
+        DEFAULTS.put("eliteRatio", 0.1);
+        DEFAULTS.put("crossoverProbability", 0.5);
+        DEFAULTS.put("crossoverMixingRatio", 0.1);
+        DEFAULTS.put("mutationProbability", 0.05);
+        DEFAULTS.put("mutationStrength", 0.2);
+        DEFAULTS.put("improvementProbability", 0.1);
+        DEFAULTS.put("improvementDepth", 4.);
+    }
+
+    private final LinkedHashMap<String, Double> values;
+
+    public Configuration() {
+        this.values = new LinkedHashMap<>(DEFAULTS);
+    }
+
+    /**
+     * Copy constructor
+     *
+     * @param other configuration to copy
+     */
+    public Configuration(Configuration other) {
+        this.values = new LinkedHashMap<>(other.values);
+    }
+
+    /**
+     * @param name parameter name
+     * @return whether or not the name is one of the genetic algorithm parameters
+     */
+    public static boolean isParameter(String name) {
+        return DEFAULTS.containsKey(name);
+    }
+
+    /**
+     * @return names of the genetic algorithm parameters, as on the command line
+     */
+    public static ArrayList<String> getParameterNames() {
+        return new ArrayList<>(DEFAULTS.keySet());
+    }
+
+    /**
+     * @param name  parameter name
+     * @param value new value (rounded for integer parameters when the strategy is created)
+     */
+    public void set(String name, double value) {
+        if (!isParameter(name)) {
+            throw new InputMismatchException("Unknown parameter: " + name);
+        }
+        values.put(name, value);
+    }
+
+    public double get(String name) {
+        if (!isParameter(name)) {
+            throw new InputMismatchException("Unknown parameter: " + name);
+        }
+        return values.get(name);
+    }
+
+    public int getInt(String name) {
+        return (int) Math.round(get(name));
+    }
+
+    /**
+     * Instantiate the genetic algorithm with this configuration, every other setting (local search, crossover,
+     * candidate lists, ...) being the one of the base builder
+     *
+     * @param base  configuration of the settings which are not parameters, left unchanged
+     * @param seeds seeds of the pseudo-random stream
+     * @return strategy ready to solve
+     */
+    public HybridGeneticAlgorithm createStrategy(HybridGeneticAlgorithm.Builder base, long[] seeds) {
+        // a copy of the base, which may still build other strategies
+        return base.build().toBuilder()
+                .seeds(seeds)
+                .populationSize(getInt("popSize"))
+                .numGenerations(getInt("numGenerations"))
+                .eliteRatio(get("eliteRatio"))
+                .crossover(get("crossoverProbability"), get("crossoverMixingRatio"))
+                .mutation(get("mutationProbability"), get("mutationStrength"))
+                .improvement(get("improvementProbability"), getInt("improvementDepth"))
+                .build();
+    }
+
+
+    /**
+     * Read a parameter file, with one "name value" pair per line (lines starting with # are comments)
+     *
+     * @param fileName path of the parameter file
+     * @param base     configuration providing the values of the parameters absent from the file
+     * @return configuration with the values of the file
+     */
+    public static Configuration read(String fileName, Configuration base) throws IOException {
+        Configuration configuration = new Configuration(base);
+        BufferedReader reader = new BufferedReader(new FileReader(fileName));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] tokens = line.split("\\s+");
+                if (tokens.length != 2) {
+                    throw new InputMismatchException("Invalid parameter file line: " + line);
+                }
+                configuration.set(tokens[0], Double.parseDouble(tokens[1]));
+            }
+        } finally {
+            reader.close();
+        }
+        return configuration;
+    }
+
+
+    /**
+     * Write the configuration as a parameter file, readable with read
+     *
+     * @param writer destination of the parameter file (flushed, not closed)
+     */
+    public void write(Writer writer) throws IOException {
+        for (Map.Entry<String, Double> entry : values.entrySet()) {
+            writer.write(entry.getKey() + " " + entry.getValue());
+            writer.write(System.lineSeparator());
+        }
+        writer.flush();
+    }
+
+
+    /**
+     * String representation for a configuration is : "name_1=value_1;name_2=value_2;.."
+     *
+     * @return string representation of every parameter value
+     */
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Double> entry : values.entrySet()) {
+            if (builder.length() != 0) {
+                builder.append(';');
+            }
+            builder.append(entry.getKey());
+            builder.append('=');
+            builder.append(entry.getValue());
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package kcliquesolver.core.tuning;
+
+import kcliquesolver.core.models.Problem;
+import kcliquesolver.core.rng.StreamSeeds;
+import kcliquesolver.core.solvers.HybridGeneticAlgorithm;
+import kcliquesolver.core.solvers.SolverSession;
+import kcliquesolver.core.solvers.SolverStatistics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * Runs every repetition of every configuration concurrently on a worker pool,
+ * all of them against the same problem instance (parsed once, only read by the solvers).
+ * <p/>
+ * Repetition r of every configuration uses the r-th substream of the base seeds,
+ * so configurations are compared on the same random numbers and the sweep is reproducible.
+ */
+public class ParameterSweep {
+
+    private final Problem problem;
+    private final int numThreads;
+    private final HybridGeneticAlgorithm.Builder base;
+    private final long[] seeds;
+
+    /**
+     * @param problem    problem instance shared by every run
+     * @param numThreads size of the worker pool
+     * @param base       settings of the runs other than the swept parameters (see Configuration.createStrategy)
+     * @param seeds      base seeds of the pseudo-random streams
+     */
+    public ParameterSweep(Problem problem, int numThreads, HybridGeneticAlgorithm.Builder base, long[] seeds) {
+        this.problem = problem;
+        this.numThreads = numThreads;
+        this.base = base;
+        this.seeds = seeds;
+    }
+
+
+    /**
+     * @param configurations configurations to evaluate
+     * @param repetitions    number of runs (seeds) per configuration
+     * @return one result per configuration, in the same order
+     */
+    public ArrayList<SweepResult> run(ArrayList<Configuration> configurations, int repetitions)
+            throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+        // the runs of a worker thread reuse its workspaces
+        final ThreadLocal<SolverSession> sessions = new ThreadLocal<SolverSession>() {
+            @Override
+            protected SolverSession initialValue() {
+                return new SolverSession(problem);
+            }
+        };
+        try {
+            ArrayList<ArrayList<Future<SolverStatistics>>> futures = new ArrayList<>();
+            for (Configuration configuration : configurations) {
+                ArrayList<Future<SolverStatistics>> runs = new ArrayList<>();
+                for (int repetition = 0; repetition != repetitions; ++repetition) {
+                    final HybridGeneticAlgorithm strategy =
+                            configuration.createStrategy(base, StreamSeeds.substream(seeds, repetition));
+                    runs.add(pool.submit(new Callable<SolverStatistics>() {
+                        @Override
+                        public SolverStatistics call() {
+                            SolverSession session = sessions.get();
+                            session.solve(strategy);
+                            return session.getStatistics();
+                        }
+                    }));
+                }
+                futures.add(runs);
+            }
+
+            ArrayList<SweepResult> results = new ArrayList<>();
+            for (int index = 0; index != configurations.size(); ++index) {
+                SweepResult result = new SweepResult(configurations.get(index));
+                for (Future<SolverStatistics> run : futures.get(index)) {
+                    result.add(run.get());
+                }
+                results.add(result);
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+
+    /**
+     * Write a tab separated summary table, one line per configuration
+     *
+     * @param results sweep results
+     * @param writer  destination of the table (flushed, not closed)
+     */
+    public static void writeSummary(ArrayList<SweepResult> results, Writer writer) throws IOException {
+        writer.write("configuration\trepetitions\tbestScore\tmeanBestScore\tmeanTimeToBestMs\tmeanEvaluations\tparameters");
+        writer.write(System.lineSeparator());
+        for (int index = 0; index != results.size(); ++index) {
+            SweepResult result = results.get(index);
+            writer.write(index + "\t" + result.getRuns().size() + "\t" + result.getBestScore() + "\t" +
+                    result.getMeanBestScore() + "\t" + String.format(Locale.ROOT, "%.3f", result.getMeanTimeToBest()) + "\t" +
+                    String.format(Locale.ROOT, "%.1f", result.getMeanEvaluations()) + "\t" + result.getConfiguration());
+            writer.write(System.lineSeparator());
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,232 @@
+package kcliquesolver.core.tuning;
+
+import kcliquesolver.core.models.Problem;
+import kcliquesolver.core.rng.StreamSeeds;
+import kcliquesolver.core.solvers.HybridGeneticAlgorithm;
+import kcliquesolver.core.solvers.SolverStatistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * Offline parameter tuning by racing (F-Race).
+ * <p/>
+ * Candidate configurations are evaluated block by block, a block being one training instance
+ * solved with one seed (the b-th substream of the base seeds, identical for every candidate).
+ * Once enough blocks are done, candidates significantly worse than the best one according to the
+ * Friedman and Conover tests on the best scores reached are eliminated, so the remaining budget
+ * is spent on the promising ones. The race ends with a single survivor or after the last block.
+ * <p/>
+ * Several blocks are run concurrently when few candidates remain, but eliminations are decided
+ * block after block, so the outcome does not depend on the number of threads. It is fully
+ * reproducible when runs are bounded by their number of generations rather than by a time budget.
+ */
+public class RacingTuner {
+
+    private final ArrayList<Problem> instances;
+    private final int numThreads;
+    private final HybridGeneticAlgorithm.Builder base;
+    private final long[] seeds;
+    private final long timeBudget;
+    private final double alpha;
+    private final int minBlocks;
+    private final int maxBlocks;
+
+    private ArrayList<SweepResult> results;
+    private boolean[] alive;
+    private int numBlocks;
+
+    /**
+     * @param instances  training instances (of a same family)
+     * @param numThreads size of the worker pool
+     * @param base       settings of the runs other than the raced parameters (see Configuration.createStrategy)
+     * @param seeds      base seeds of the pseudo-random streams
+     * @param timeBudget wall clock limit of each run in milliseconds, 0 to only use the number of generations
+     * @param alpha      significance level of the statistical tests
+     * @param minBlocks  number of blocks before the first elimination test
+     * @param maxBlocks  total number of blocks of the race
+     */
+    public RacingTuner(ArrayList<Problem> instances, int numThreads, HybridGeneticAlgorithm.Builder base,
+                       long[] seeds, long timeBudget, double alpha, int minBlocks, int maxBlocks) {
+        assert (instances.size() > 0);
+        assert (minBlocks > 1 && maxBlocks >= minBlocks);
+        this.instances = instances;
+        this.numThreads = numThreads;
+        this.base = base;
+        this.seeds = seeds;
+        this.timeBudget = timeBudget;
+        this.alpha = alpha;
+        this.minBlocks = minBlocks;
+        this.maxBlocks = maxBlocks;
+    }
+
+
+    /**
+     * Race the candidates
+     *
+     * @param candidates configurations to race
+     * @return surviving configurations, best first (lowest rank sum, then fastest to reach its best score)
+     */
+    public ArrayList<SweepResult> race(ArrayList<Configuration> candidates)
+            throws InterruptedException, ExecutionException {
+        results = new ArrayList<>();
+        for (Configuration candidate : candidates) {
+            results.add(new SweepResult(candidate));
+        }
+        alive = new boolean[candidates.size()];
+        Arrays.fill(alive, true);
+        numBlocks = 0;
+
+        ArrayList<double[]> blocks = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+        try {
+            while (numBlocks < maxBlocks && countAlive() > 1) {
+                // keep every thread busy, even with few survivors
+                int batchSize = Math.min(maxBlocks - numBlocks, Math.max(1, numThreads / countAlive()));
+                ArrayList<ArrayList<Future<SolverStatistics>>> batch = new ArrayList<>();
+                for (int b = numBlocks; b != numBlocks + batchSize; ++b) {
+                    batch.add(submitBlock(pool, candidates, b));
+                }
+
+                for (ArrayList<Future<SolverStatistics>> block : batch) {
+                    if (countAlive() <= 1) {
+                        break;
+                    }
+                    double[] scores = new double[candidates.size()];
+                    for (int j = 0; j != candidates.size(); ++j) {
+                        Future<SolverStatistics> run = block.get(j);
+                        if (run != null && alive[j]) {
+                            SolverStatistics statistics = run.get();
+                            scores[j] = statistics.getBestScore();
+                            results.get(j).add(statistics);
+                        }
+                    }
+                    blocks.add(scores);
+                    numBlocks += 1;
+
+                    if (numBlocks >= minBlocks) {
+                        eliminate(blocks);
+                    }
+                }
+                for (ArrayList<Future<SolverStatistics>> block : batch) {
+                    for (Future<SolverStatistics> run : block) {
+                        if (run != null) {
+                            run.cancel(false);
+                        }
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // rank the survivors over every block
+        final double[] rankSums = new double[candidates.size()];
+        final ArrayList<Integer> survivors = aliveIndices();
+        for (double[] block : blocks) {
+            double[] ranks = RankTests.rank(restrict(block, survivors));
+            for (int i = 0; i != survivors.size(); ++i) {
+                rankSums[survivors.get(i)] += ranks[i];
+            }
+        }
+        Collections.sort(survivors, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                int comparison = Double.compare(rankSums[first], rankSums[second]);
+                if (comparison == 0) {
+                    comparison = Double.compare(results.get(first).getMeanTimeToBest(),
+                            results.get(second).getMeanTimeToBest());
+                }
+                return comparison;
+            }
+        });
+
+        ArrayList<SweepResult> ranked = new ArrayList<>();
+        for (int index : survivors) {
+            ranked.add(results.get(index));
+        }
+        return ranked;
+    }
+
+
+    /**
+     * @return number of blocks evaluated by the last race
+     */
+    public int getNumBlocks() {
+        return numBlocks;
+    }
+
+
+    private ArrayList<Future<SolverStatistics>> submitBlock(ExecutorService pool,
+                                                            ArrayList<Configuration> candidates,
+                                                            int blockIndex) {
+        final Problem instance = instances.get(blockIndex % instances.size());
+        long[] blockSeeds = StreamSeeds.substream(seeds, blockIndex);
+
+        ArrayList<Future<SolverStatistics>> runs = new ArrayList<>();
+        for (int j = 0; j != candidates.size(); ++j) {
+            if (!alive[j]) {
+                runs.add(null);
+                continue;
+            }
+            final HybridGeneticAlgorithm strategy = candidates.get(j).createStrategy(base, blockSeeds);
+            strategy.setTimeBudget(timeBudget);
+            runs.add(pool.submit(new Callable<SolverStatistics>() {
+                @Override
+                public SolverStatistics call() {
+                    strategy.solve(instance);
+                    return strategy.getStatistics();
+                }
+            }));
+        }
+        return runs;
+    }
+
+
+    private void eliminate(ArrayList<double[]> blocks) {
+        ArrayList<Integer> survivors = aliveIndices();
+        ArrayList<double[]> restricted = new ArrayList<>();
+        for (double[] block : blocks) {
+            restricted.add(restrict(block, survivors));
+        }
+        boolean[] inferior = RankTests.inferiorToBest(restricted, alpha);
+        for (int i = 0; i != survivors.size(); ++i) {
+            if (inferior[i]) {
+                alive[survivors.get(i)] = false;
+            }
+        }
+    }
+
+
+    private static double[] restrict(double[] block, ArrayList<Integer> indices) {
+        double[] values = new double[indices.size()];
+        for (int i = 0; i != indices.size(); ++i) {
+            values[i] = block[indices.get(i)];
+        }
+        return values;
+    }
+
+
+    private ArrayList<Integer> aliveIndices() {
+        ArrayList<Integer> indices = new ArrayList<>();
+        for (int j = 0; j != alive.length; ++j) {
+            if (alive[j]) {
+                indices.add(j);
+            }
+        }
+        return indices;
+    }
+
+
+    private int countAlive() {
+        return aliveIndices().size();
+    }
+}
@@ -0,0 +1,178 @@
+package kcliquesolver.core.tuning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+
+/**
+ * Non-parametric tests over blocks of results (one block per instance and seed, one result per candidate),
+ * as used by F-Race: Friedman test for a global difference, then Conover's post-hoc comparison
+ * of each candidate with the best one.
+ */
+public final class RankTests {
+
+    private RankTests() {
+    }
+
+
+    /**
+     * Rank the values of a block, lowest value first (rank 1), ties get their average rank
+     *
+     * @param values one value per candidate
+     * @return rank of each candidate
+     */
+    public static double[] rank(double[] values) {
+        Integer[] order = new Integer[values.length];
+        for (int i = 0; i != order.length; ++i) {
+            order[i] = i;
+        }
+        final double[] keys = values;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                return Double.compare(keys[first], keys[second]);
+            }
+        });
+
+        double[] ranks = new double[values.length];
+        int begin = 0;
+        while (begin != order.length) {
+            int end = begin + 1;
+            while (end != order.length && values[order[end]] == values[order[begin]]) {
+                ++end;
+            }
+            // average of the ranks begin+1 .. end
+            double rank = (begin + 1 + end) / 2.;
+            for (int i = begin; i != end; ++i) {
+                ranks[order[i]] = rank;
+            }
+            begin = end;
+        }
+        return ranks;
+    }
+
+
+    /**
+     * Friedman test followed by Conover's post-hoc test against the candidate with the lowest rank sum.
+     * <p/>
+     * With A1 the sum of the squared ranks and R_j the rank sums of the b blocks and k candidates, two candidates
+     * differ when their rank sums differ by more than t(1 - alpha/2, (b-1)(k-1)) * sqrt(2b (A1 - sum R_j^2 / b) /
+     * ((b-1)(k-1))), as in the F-Race of irace. For example, the 5 blocks of ranks (1 2 3 4), (1 3 2 4),
+     * (2 1 3 4), (1 2 4 3), (1 2 3 4) give A1 = 150, R = (6 10 15 19) and a Friedman statistic of 11.64
+     * (above the 7.81 of alpha = 0.05). The variance is 2 * 5 * (150 - 722 / 5) / 12 = 4.667, the critical
+     * difference 2.179 * 2.160 = 4.71: candidates 3 and 4 are worse than the first one, candidate 2 is not.
+     *
+     * @param blocks list of blocks, each holding one value per candidate (lower is better)
+     * @param alpha  significance level
+     * @return for each candidate, whether or not it is significantly worse than the best candidate
+     */
+    public static boolean[] inferiorToBest(ArrayList<double[]> blocks, double alpha) {
+        int numBlocks = blocks.size();
+        int numCandidates = blocks.get(0).length;
+        boolean[] inferior = new boolean[numCandidates];
+        if (numBlocks < 2 || numCandidates < 2) {
+            return inferior;
+        }
+
+        double[] rankSums = new double[numCandidates];
+        double sumOfSquaredRanks = 0.;
+        for (double[] block : blocks) {
+            double[] ranks = rank(block);
+            for (int j = 0; j != numCandidates; ++j) {
+                rankSums[j] += ranks[j];
+                sumOfSquaredRanks += ranks[j] * ranks[j];
+            }
+        }
+
+        // Friedman statistic, with the correction for ties
+        double correction = numBlocks * numCandidates * (numCandidates + 1) * (numCandidates + 1) / 4.;
+        double denominator = sumOfSquaredRanks - correction;
+        if (denominator <= 0.) {
+            // every block is a complete tie
+            return inferior;
+        }
+        double deviation = 0.;
+        for (double rankSum : rankSums) {
+            double difference = rankSum - numBlocks * (numCandidates + 1) / 2.;
+            deviation += difference * difference;
+        }
+        double friedman = (numCandidates - 1) * deviation / denominator;
+        if (friedman <= chiSquaredQuantile(1. - alpha, numCandidates - 1)) {
+            return inferior;
+        }
+
+        // Conover post-hoc: critical difference of rank sums
+        double sumOfSquaredRankSums = 0.;
+        int best = 0;
+        for (int j = 0; j != numCandidates; ++j) {
+            sumOfSquaredRankSums += rankSums[j] * rankSums[j];
+            if (rankSums[j] < rankSums[best]) {
+                best = j;
+            }
+        }
+        int degreesOfFreedom = (numBlocks - 1) * (numCandidates - 1);
+        // (A1 - C1)(1 - T / (b(k-1))) is A1 - sum R_j^2 / b, the tie correction is already in A1
+        double variance = 2. * numBlocks * (sumOfSquaredRanks - sumOfSquaredRankSums / numBlocks) / degreesOfFreedom;
+        double criticalDifference = studentQuantile(1. - alpha / 2., degreesOfFreedom) * Math.sqrt(Math.max(0., variance));
+        for (int j = 0; j != numCandidates; ++j) {
+            inferior[j] = rankSums[j] - rankSums[best] > criticalDifference;
+        }
+        return inferior;
+    }
+
+
+    /**
+     * Inverse of the standard normal cumulative distribution (Acklam's rational approximation,
+     * relative error below 1.15e-9)
+     *
+     * @param p probability, in ]0, 1[
+     * @return quantile of the standard normal distribution
+     */
+    static double normalQuantile(double p) {
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00};
+        final double low = 0.02425;
+
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5]) /
+                    ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        } else if (p > 1 - low) {
+            return -normalQuantile(1 - p);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q /
+                (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+
+    /**
+     * Quantile of the chi-squared distribution (Wilson-Hilferty approximation)
+     */
+    static double chiSquaredQuantile(double p, int degreesOfFreedom) {
+        double z = normalQuantile(p);
+        double ratio = 2. / (9. * degreesOfFreedom);
+        double cube = 1. - ratio + z * Math.sqrt(ratio);
+        return degreesOfFreedom * cube * cube * cube;
+    }
+
+
+    /**
+     * Quantile of the Student t distribution (Cornish-Fisher expansion around the normal quantile)
+     */
+    static double studentQuantile(double p, int degreesOfFreedom) {
+        double z = normalQuantile(p);
+        double z3 = z * z * z;
+        double z5 = z3 * z * z;
+        double v = degreesOfFreedom;
+        return z + (z3 + z) / (4. * v) + (5. * z5 + 16. * z3 + 3. * z) / (96. * v * v);
+    }
+}
@@ -0,0 +1,66 @@
+package kcliquesolver.core.tuning;
+
+import kcliquesolver.core.solvers.SolverStatistics;
+
+import java.util.ArrayList;
+
+
+/**
+ * Statistics of every repetition of a single configuration.
+ */
+public class SweepResult {
+
+    private final Configuration configuration;
+    private final ArrayList<SolverStatistics> runs = new ArrayList<>();
+
+    public SweepResult(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+
+    public ArrayList<SolverStatistics> getRuns() {
+        return runs;
+    }
+
+    public void add(SolverStatistics run) {
+        runs.add(run);
+    }
+
+    public double getBestScore() {
+        double best = Double.POSITIVE_INFINITY;
+        for (SolverStatistics run : runs) {
+            best = Math.min(best, run.getBestScore());
+        }
+        return best;
+    }
+
+    public double getMeanBestScore() {
+        double sum = 0.;
+        for (SolverStatistics run : runs) {
+            sum += run.getBestScore();
+        }
+        return sum / runs.size();
+    }
+
+    /**
+     * @return mean time to best, in milliseconds
+     */
+    public double getMeanTimeToBest() {
+        double sum = 0.;
+        for (SolverStatistics run : runs) {
+            sum += run.getTimeToBest();
+        }
+        return sum / runs.size() / 1e6;
+    }
+
+    public double getMeanEvaluations() {
+        double sum = 0.;
+        for (SolverStatistics run : runs) {
+            sum += run.getNumEvaluations();
+        }
+        return sum / runs.size();
+    }
+}
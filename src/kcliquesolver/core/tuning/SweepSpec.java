@@ -0,0 +1,145 @@
+package kcliquesolver.core.tuning;
+
+import kcliquesolver.core.rng.RngStream;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.InputMismatchException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Specification of a hyperparameter sweep, read from a text file with one setting per line:
+ * <pre>
+ * # comments start with #
+ * mode grid                   (every combination of the listed values)
+ * mode random 20              (20 configurations sampled at random)
+ * repetitions 5               (number of seeds per configuration)
+ * popSize 50,100,250          (list of values)
+ * eliteRatio 0.05:0.3         (uniform interval, random mode only)
+ * </pre>
+ * Parameters that are not specified keep their value in the base configuration.
+ */
+public class SweepSpec {
+
+    private boolean random = false;
+    private int numSamples = 0;
+    private int repetitions = 1;
+    private final LinkedHashMap<String, double[]> lists = new LinkedHashMap<>();
+    private final LinkedHashMap<String, double[]> intervals = new LinkedHashMap<>();
+
+
+    /**
+     * @param fileName path of the sweep specification
+     * @return parsed specification
+     */
+    public static SweepSpec read(String fileName) throws IOException {
+        SweepSpec spec = new SweepSpec();
+        BufferedReader reader = new BufferedReader(new FileReader(fileName));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                spec.parseLine(line.split("\\s+"));
+            }
+        } finally {
+            reader.close();
+        }
+        if (spec.random && !spec.intervals.isEmpty() && spec.numSamples < 1) {
+            throw new InputMismatchException("Random sweeps require a number of samples");
+        }
+        if (!spec.random && !spec.intervals.isEmpty()) {
+            throw new InputMismatchException("Intervals can only be used in random mode");
+        }
+        return spec;
+    }
+
+
+    void parseLine(String[] tokens) {
+        if (tokens[0].equals("mode")) {
+            if (tokens[1].equals("grid")) {
+                random = false;
+            } else if (tokens[1].equals("random") && tokens.length == 3) {
+                random = true;
+                numSamples = Integer.parseInt(tokens[2]);
+            } else {
+                throw new InputMismatchException("Unknown sweep mode: " + tokens[1]);
+            }
+        } else if (tokens[0].equals("repetitions")) {
+            repetitions = Integer.parseInt(tokens[1]);
+            if (repetitions < 1) {
+                throw new InputMismatchException("At least one repetition is required");
+            }
+        } else if (Configuration.isParameter(tokens[0]) && tokens.length == 2) {
+            if (tokens[1].contains(":")) {
+                String[] bounds = tokens[1].split(":");
+                intervals.put(tokens[0], new double[]{Double.parseDouble(bounds[0]), Double.parseDouble(bounds[1])});
+            } else {
+                String[] items = tokens[1].split(",");
+                double[] values = new double[items.length];
+                for (int i = 0; i != items.length; ++i) {
+                    values[i] = Double.parseDouble(items[i]);
+                }
+                lists.put(tokens[0], values);
+            }
+        } else {
+            StringBuilder line = new StringBuilder();
+            for (String token : tokens) {
+                line.append(token).append(' ');
+            }
+            throw new InputMismatchException("Invalid sweep specification line: " + line.toString().trim());
+        }
+    }
+
+
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+
+    /**
+     * Enumerate (grid) or sample (random) the configurations of the sweep
+     *
+     * @param base   configuration providing the values of the parameters not swept
+     * @param stream pseudo-random number generator stream, used in random mode only
+     * @return list of configurations to evaluate
+     */
+    public ArrayList<Configuration> expand(Configuration base, RngStream stream) {
+        ArrayList<Configuration> configurations = new ArrayList<>();
+        if (random) {
+            for (int sample = 0; sample != numSamples; ++sample) {
+                Configuration configuration = new Configuration(base);
+                for (Map.Entry<String, double[]> entry : lists.entrySet()) {
+                    double[] values = entry.getValue();
+                    configuration.set(entry.getKey(), values[stream.randInt(0, values.length - 1)]);
+                }
+                for (Map.Entry<String, double[]> entry : intervals.entrySet()) {
+                    double[] bounds = entry.getValue();
+                    configuration.set(entry.getKey(), bounds[0] + stream.randU01() * (bounds[1] - bounds[0]));
+                }
+                configurations.add(configuration);
+            }
+        } else {
+            // cartesian product of the lists, one parameter at a time
+            configurations.add(new Configuration(base));
+            for (Map.Entry<String, double[]> entry : lists.entrySet()) {
+                ArrayList<Configuration> expanded = new ArrayList<>();
+                for (Configuration configuration : configurations) {
+                    for (double value : entry.getValue()) {
+                        Configuration copy = new Configuration(configuration);
+                        copy.set(entry.getKey(), value);
+                        expanded.add(copy);
+                    }
+                }
+                configurations = expanded;
+            }
+        }
+        return configurations;
+    }
+}